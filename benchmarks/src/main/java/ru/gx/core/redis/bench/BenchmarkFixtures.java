@@ -0,0 +1,173 @@
+package ru.gx.core.redis.bench;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.channels.ChannelApiDescriptor;
+import ru.gx.core.channels.SerializeMode;
+import ru.gx.core.data.DataObject;
+import ru.gx.core.data.DataObjectKeyExtractor;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.messaging.MessagesFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Данные для бенчмарков.<br/>
+ * Конкретные классы сообщений и описателей API определяются в сервисах, поэтому в бенчмарках они заменены
+ * заглушками: сообщение - mock {@link Message}, содержимое которого ({@link BenchmarkPayload}) пишется и читается
+ * Jackson-ом по-настоящему через модуль, зарегистрированный в {@link #getObjectMapper()}.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class BenchmarkFixtures {
+    @NotNull
+    private final Map<Object, BenchmarkPayload> payloads = new IdentityHashMap<>();
+
+    @NotNull
+    private final Message<MessageBody> loadedMessage = mock(Message.class);
+
+    @NotNull
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Последнее прочитанное содержимое: не дает JIT-у выбросить десериализацию.
+     */
+    private volatile BenchmarkPayload lastLoaded;
+
+    public BenchmarkFixtures() {
+        final var module = new SimpleModule("benchmark-messages");
+        module.addSerializer(Message.class, new JsonSerializer<Message>() {
+            @Override
+            public void serialize(Message value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                provider.defaultSerializeValue(payloads.get(value), gen);
+            }
+        });
+        module.addDeserializer(Message.class, new JsonDeserializer<Message>() {
+            @Override
+            public Message deserialize(JsonParser p, DeserializationContext context) throws IOException {
+                lastLoaded = p.readValueAs(BenchmarkPayload.class);
+                return loadedMessage;
+            }
+        });
+        this.objectMapper = new ObjectMapper().registerModule(module);
+    }
+
+    @NotNull
+    public ObjectMapper getObjectMapper() {
+        return this.objectMapper;
+    }
+
+    @NotNull
+    public ChannelApiDescriptor<Message<MessageBody>> createApi(
+            @NotNull final String name,
+            @NotNull final SerializeMode serializeMode
+    ) {
+        final ChannelApiDescriptor<Message<MessageBody>> api = mock(ChannelApiDescriptor.class);
+        doReturn(name).when(api).getName();
+        doReturn(serializeMode).when(api).getSerializeMode();
+        doReturn(Message.class).when(api).getMessageClass();
+        return api;
+    }
+
+    /**
+     * Сообщения с ключами "1".."count".
+     */
+    @NotNull
+    public Map<String, Message<MessageBody>> createMessages(final int count) {
+        final var result = new LinkedHashMap<String, Message<MessageBody>>(count * 2);
+        for (var i = 1; i <= count; i++) {
+            final Message<MessageBody> message = mock(Message.class);
+            this.payloads.put(message, BenchmarkPayload.create(i));
+            result.put(Integer.toString(i), message);
+        }
+        return result;
+    }
+
+    /**
+     * Запись коллекции в том виде, в котором ее хранит выгрузчик.
+     */
+    @NotNull
+    public Object createRecord(final int id, @NotNull final SerializeMode serializeMode) throws IOException {
+        final var payload = BenchmarkPayload.create(id);
+        return serializeMode == SerializeMode.JsonString
+                ? this.objectMapper.writeValueAsString(payload)
+                : this.objectMapper.writeValueAsBytes(payload);
+    }
+
+    /**
+     * Объекты данных для батчевой выгрузки и соответствующие им фабрика сообщений и извлекатель ключей.
+     */
+    @NotNull
+    public DataObjects createDataObjects(final int count) {
+        final var objects = new ArrayList<DataObject>(count);
+        final var messages = new IdentityHashMap<Object, Message<MessageBody>>();
+        final var keys = new IdentityHashMap<Object, String>();
+        createMessages(count).forEach((key, message) -> {
+            final var object = mock(DataObject.class);
+            objects.add(object);
+            messages.put(object, message);
+            keys.put(object, key);
+        });
+        final MessagesFactory messagesFactory = mock(MessagesFactory.class, invocation ->
+                "createByDataObject".equals(invocation.getMethod().getName())
+                        ? messages.get(invocation.getArgument(3))
+                        : null
+        );
+        final DataObjectKeyExtractor<DataObject> keyExtractor = mock(DataObjectKeyExtractor.class, invocation ->
+                keys.get(invocation.getArgument(0))
+        );
+        return new DataObjects(objects, messagesFactory, keyExtractor);
+    }
+
+    public BenchmarkPayload getLastLoaded() {
+        return this.lastLoaded;
+    }
+
+    public record DataObjects(
+            @NotNull List<DataObject> objects,
+            @NotNull MessagesFactory messagesFactory,
+            @NotNull DataObjectKeyExtractor<DataObject> keyExtractor
+    ) {
+    }
+
+    /**
+     * Содержимое сообщения, по размеру и составу близкое к записи типичного справочника.
+     */
+    public static class BenchmarkPayload {
+        public long id;
+        public String code;
+        public String name;
+        public String description;
+        public double amount;
+        public long updatedAt;
+        public List<String> tags;
+
+        @NotNull
+        public static BenchmarkPayload create(final int id) {
+            final var payload = new BenchmarkPayload();
+            payload.id = id;
+            payload.code = "CODE-" + id;
+            payload.name = "Dictionary item #" + id;
+            payload.description = "Description of the dictionary item #" + id + " used by benchmarks";
+            payload.amount = id * 1.25;
+            payload.updatedAt = 1_650_000_000_000L + id;
+            payload.tags = List.of("tag-" + (id % 7), "tag-" + (id % 13), "group-" + (id % 100));
+            return payload;
+        }
+    }
+}
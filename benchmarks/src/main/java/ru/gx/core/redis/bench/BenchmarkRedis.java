@@ -0,0 +1,94 @@
+package ru.gx.core.redis.bench;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Objects;
+
+/**
+ * Redis для бенчмарков и фабрика соединений к нему: уже запущенный Redis на
+ * {@code benchmark.redis.host:benchmark.redis.port} (localhost:6379 по умолчанию) или, при
+ * {@code -Dbenchmark.redis.container=true}, контейнер {@code benchmark.redis.image} (Testcontainers).<br/>
+ * Версия Redis-а проверяется при подключении: нужна {@link #MIN_VERSION} или новее.
+ */
+public class BenchmarkRedis implements AutoCloseable {
+    public static final String DEFAULT_HOST = "localhost";
+    public static final int DEFAULT_PORT = 6379;
+    public static final String DEFAULT_IMAGE = "redis:7.2";
+
+    /**
+     * Минимальная версия Redis-а, на которой проверяются бенчмарки (выгрузчик использует UNLINK и т.п.).
+     */
+    public static final String MIN_VERSION = "6.2";
+
+    @Nullable
+    private final GenericContainer<?> container;
+
+    @NotNull
+    private final LettuceConnectionFactory connectionFactory;
+
+    public BenchmarkRedis() {
+        final String host;
+        final int port;
+        if (Boolean.getBoolean("benchmark.redis.container")) {
+            this.container = new GenericContainer<>(DockerImageName.parse(System.getProperty("benchmark.redis.image", DEFAULT_IMAGE)))
+                    .withExposedPorts(DEFAULT_PORT)
+                    .withCommand("redis-server", "--save", "", "--appendonly", "no");
+            this.container.start();
+            host = this.container.getHost();
+            port = this.container.getMappedPort(DEFAULT_PORT);
+        } else {
+            this.container = null;
+            host = System.getProperty("benchmark.redis.host", DEFAULT_HOST);
+            port = Integer.getInteger("benchmark.redis.port", DEFAULT_PORT);
+        }
+        this.connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        this.connectionFactory.afterPropertiesSet();
+        checkVersion();
+    }
+
+    @NotNull
+    public LettuceConnectionFactory getConnectionFactory() {
+        return this.connectionFactory;
+    }
+
+    @Override
+    public void close() {
+        this.connectionFactory.destroy();
+        if (this.container != null) {
+            this.container.stop();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException Версия Redis-а меньше {@link #MIN_VERSION}.
+     */
+    private void checkVersion() {
+        final String version;
+        try (final var connection = this.connectionFactory.getConnection()) {
+            version = Objects.requireNonNull(connection.serverCommands().info("server")).getProperty("redis_version");
+        }
+        if (version == null || compareVersions(version, MIN_VERSION) < 0) {
+            close();
+            throw new IllegalStateException("Benchmarks require Redis " + MIN_VERSION + "+, but connected Redis is "
+                    + version + "; start a newer Redis or use -Dbenchmark.redis.container=true");
+        }
+    }
+
+    private static int compareVersions(@NotNull final String left, @NotNull final String right) {
+        final var leftParts = left.split("\\.");
+        final var rightParts = right.split("\\.");
+        for (var i = 0; i < Math.max(leftParts.length, rightParts.length); i++) {
+            final var l = i < leftParts.length ? Integer.parseInt(leftParts[i]) : 0;
+            final var r = i < rightParts.length ? Integer.parseInt(rightParts[i]) : 0;
+            if (l != r) {
+                return Integer.compare(l, r);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,92 @@
+package ru.gx.core.redis.load;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.gx.core.channels.SerializeMode;
+import ru.gx.core.messaging.MessagesPrioritizedQueue;
+import ru.gx.core.redis.IncomeCollectionSortMode;
+import ru.gx.core.redis.bench.BenchmarkFixtures;
+import ru.gx.core.redis.bench.BenchmarkRedis;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Загрузка коллекции целиком ({@link RedisIncomeCollectionsLoader#internalProcessDescriptor}) при разных
+ * режимах сортировки и сериализации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisIncomeCollectionsLoaderBenchmark {
+    @Param({"None", "KeyAsc", "KeyDesc", "KeyNaturalAsc", "KeyNaturalDesc"})
+    public IncomeCollectionSortMode sortMode;
+
+    @Param({"JsonString", "Bytes"})
+    public SerializeMode serializeMode;
+
+    @Param({"10000"})
+    public int records;
+
+    private BenchmarkRedis redis;
+
+    private RedisIncomeCollectionsLoader loader;
+
+    private RedisIncomeCollectionLoadingDescriptor descriptor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.redis = new BenchmarkRedis();
+        final var fixtures = new BenchmarkFixtures();
+        final var configuration = new AbstractRedisIncomeCollectionsConfiguration(
+                "benchmark-income",
+                this.redis.getConnectionFactory(),
+                new SimpleMeterRegistry()
+        ) {
+        };
+        this.descriptor = new RedisIncomeCollectionLoadingDescriptor(
+                configuration,
+                fixtures.createApi("benchmark:load:" + this.serializeMode, this.serializeMode),
+                null
+        )
+                .setSortMode(this.sortMode)
+                .init();
+
+        final var values = new HashMap<String, Object>(this.records * 2);
+        for (var i = 1; i <= this.records; i++) {
+            values.put(Integer.toString(i), fixtures.createRecord(i, this.serializeMode));
+        }
+        final var template = this.descriptor.getRedisTemplate();
+        template.delete(this.descriptor.getChannelName());
+        template.opsForHash().putAll(this.descriptor.getChannelName(), values);
+
+        final var queue = mock(MessagesPrioritizedQueue.class);
+        doReturn(true).when(queue).allowPush();
+        this.loader = new RedisIncomeCollectionsLoader(
+                event -> {
+                },
+                fixtures.getObjectMapper(),
+                queue,
+                new ConfigurationPropertiesServiceRedis.StandardLoader()
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.descriptor.getRedisTemplate().delete(this.descriptor.getChannelName());
+        this.loader.destroy();
+        this.redis.close();
+    }
+
+    @Benchmark
+    public int processDescriptor() {
+        return this.loader.internalProcessDescriptor(this.descriptor);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.gx.core.redis.load;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.gx.core.channels.SerializeMode;
+import ru.gx.core.messaging.MessagesPrioritizedQueue;
+import ru.gx.core.redis.bench.BenchmarkFixtures;
+import ru.gx.core.redis.bench.BenchmarkRedis;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Обработка одной записи ({@link RedisIncomeCollectionsLoader#internalProcessRecord}):
+ * десериализация и передача в обработку, для JsonString и Bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisIncomeRecordBenchmark {
+    @Param({"JsonString", "Bytes"})
+    public SerializeMode serializeMode;
+
+    private BenchmarkRedis redis;
+
+    private RedisIncomeCollectionsLoader loader;
+
+    private RedisIncomeCollectionLoadingDescriptor descriptor;
+
+    private Object record;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.redis = new BenchmarkRedis();
+        final var fixtures = new BenchmarkFixtures();
+        final var configuration = new AbstractRedisIncomeCollectionsConfiguration(
+                "benchmark-income-record",
+                this.redis.getConnectionFactory(),
+                new SimpleMeterRegistry()
+        ) {
+        };
+        this.descriptor = new RedisIncomeCollectionLoadingDescriptor(
+                configuration,
+                fixtures.createApi("benchmark:record:" + this.serializeMode, this.serializeMode),
+                null
+        ).init();
+        this.record = fixtures.createRecord(42, this.serializeMode);
+
+        final var queue = mock(MessagesPrioritizedQueue.class);
+        doReturn(true).when(queue).allowPush();
+        this.loader = new RedisIncomeCollectionsLoader(
+                event -> {
+                },
+                fixtures.getObjectMapper(),
+                queue,
+                new ConfigurationPropertiesServiceRedis.StandardLoader()
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.loader.destroy();
+        this.redis.close();
+    }
+
+    @Benchmark
+    public void processRecord() {
+        this.loader.internalProcessRecord(this.descriptor, this.record);
+    }
+}
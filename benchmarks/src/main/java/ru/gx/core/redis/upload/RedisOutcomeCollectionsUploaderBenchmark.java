@@ -0,0 +1,122 @@
+package ru.gx.core.redis.upload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.gx.core.channels.SerializeMode;
+import ru.gx.core.data.DataObject;
+import ru.gx.core.data.DataObjectKeyExtractor;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.redis.RedisCollectionDigests;
+import ru.gx.core.redis.RedisCollectionShards;
+import ru.gx.core.redis.bench.BenchmarkFixtures;
+import ru.gx.core.redis.bench.BenchmarkRedis;
+import ru.gx.core.redis.load.PublishSnapshotContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выгрузка коллекции: {@link RedisOutcomeCollectionsUploader#internalUploadMessages} с удалением отсутствующих
+ * записей и без него, и полный цикл батчевой выгрузки (start - batched - finish).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisOutcomeCollectionsUploaderBenchmark {
+    @Param({"JsonString", "Bytes"})
+    public SerializeMode serializeMode;
+
+    @Param({"10000"})
+    public int records;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private BenchmarkRedis redis;
+
+    private RedisOutcomeCollectionsUploader uploader;
+
+    private RedisOutcomeCollectionUploadingDescriptor descriptor;
+
+    private Map<String, Message<MessageBody>> messages;
+
+    private List<List<DataObject>> batches;
+
+    private DataObjectKeyExtractor<DataObject> keyExtractor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.redis = new BenchmarkRedis();
+        final var fixtures = new BenchmarkFixtures();
+        final var configuration = new AbstractRedisOutcomeCollectionsConfiguration(
+                "benchmark-outcome",
+                this.redis.getConnectionFactory(),
+                new SimpleMeterRegistry()
+        ) {
+        };
+        this.descriptor = new RedisOutcomeCollectionUploadingDescriptor(
+                configuration,
+                fixtures.createApi("benchmark:upload:" + this.serializeMode, this.serializeMode),
+                null
+        ).init();
+        this.messages = fixtures.createMessages(this.records);
+
+        final var dataObjects = fixtures.createDataObjects(this.records);
+        final var objects = dataObjects.objects();
+        this.batches = new ArrayList<>();
+        for (var from = 0; from < objects.size(); from += this.batchSize) {
+            this.batches.add(objects.subList(from, Math.min(from + this.batchSize, objects.size())));
+        }
+        this.keyExtractor = dataObjects.keyExtractor();
+
+        final var stringRedisTemplate = new StringRedisTemplate(this.redis.getConnectionFactory());
+        this.uploader = new RedisOutcomeCollectionsUploader(
+                fixtures.getObjectMapper(),
+                dataObjects.messagesFactory(),
+                stringRedisTemplate
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        final var collectionName = this.descriptor.getChannelName();
+        this.descriptor.getRedisTemplate().delete(collectionName);
+        final var serviceKeys = new ArrayList<>(
+                RedisCollectionDigests.getDigestsKeys(collectionName, this.descriptor.getShardsCount())
+        );
+        serviceKeys.add(RedisCollectionShards.getShardsCountKey(collectionName));
+        this.descriptor.getOwner().getJsonStringRedisTemplate().delete(serviceKeys);
+        this.uploader.destroy();
+        this.redis.close();
+    }
+
+    @Benchmark
+    public void uploadMessages() throws Exception {
+        this.uploader.internalUploadMessages(this.descriptor, this.messages, false, null);
+    }
+
+    @Benchmark
+    public void uploadMessagesDeleteMissed() throws Exception {
+        final var context = new PublishSnapshotContext(UUID.randomUUID())
+                .setLast(true)
+                .setBatchSize(this.records);
+        this.uploader.internalUploadMessages(this.descriptor, this.messages, true, context);
+    }
+
+    @Benchmark
+    public void batchedUploadCycle() throws Exception {
+        this.uploader.startBatchedUploadObjects(this.descriptor, true);
+        for (final var batch : this.batches) {
+            this.uploader.batchedUploadDataObjects(this.descriptor, batch, this.keyExtractor);
+        }
+        this.uploader.finishBatchedUploadObjects(this.descriptor);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.gx.core.redis;
+
+/**
+ * Поведение загрузчика коллекций, когда очередь событий не принимает новые сообщения.
+ */
+@SuppressWarnings("unused")
+public enum IncomeBackpressureMode {
+    /**
+     * Поток загрузки блокируется до появления места в очереди.
+     */
+    Blocking,
+
+    /**
+     * Сообщения накапливаются в локальном буфере ограниченного размера и досылаются в очередь,
+     * как только в ней появляется место. Поток загрузки блокируется только при заполнении буфера.
+     */
+    Batch,
+
+    /**
+     * Поток загрузки ждет места в очереди не дольше заданного времени, после чего загрузка прерывается с ошибкой.
+     */
+    Timeout
+}
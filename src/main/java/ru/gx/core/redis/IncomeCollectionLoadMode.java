@@ -0,0 +1,21 @@
+package ru.gx.core.redis;
+
+/**
+ * Способ чтения коллекции из Redis-а.
+ */
+@SuppressWarnings("unused")
+public enum IncomeCollectionLoadMode {
+    /**
+     * Вся коллекция читается одной командой HGETALL.
+     */
+    Entries,
+
+    /**
+     * Коллекция читается страницами по курсору HSCAN, записи отдаются в обработку по мере получения.<br/>
+     * Доставка - "хотя бы один раз": если коллекция изменяется (или Redis перестраивает HASH) во время чтения,
+     * HSCAN может вернуть одну запись несколько раз. При потоковой обработке (без сортировки, реактивная загрузка)
+     * такая запись будет обработана повторно, поэтому обработка сообщений должна быть идемпотентной.
+     * При сортировке записи собираются в коллекцию по ключу, и повторы отбрасываются.
+     */
+    Scan
+}
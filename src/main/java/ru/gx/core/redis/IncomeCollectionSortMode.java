@@ -4,5 +4,16 @@ package ru.gx.core.redis;
 public enum IncomeCollectionSortMode {
     None,
     KeyAsc,
-    KeyDesc
+    KeyDesc,
+
+    /**
+     * Натуральный порядок ключей по возрастанию: числовые ключи сравниваются как числа,
+     * числовые фрагменты в строковых ключах - по значению ("item2" &lt; "item10").
+     */
+    KeyNaturalAsc,
+
+    /**
+     * Натуральный порядок ключей по убыванию.
+     */
+    KeyNaturalDesc
 }
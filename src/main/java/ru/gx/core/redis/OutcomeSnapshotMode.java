@@ -0,0 +1,19 @@
+package ru.gx.core.redis;
+
+/**
+ * Способ публикации снапшота коллекции (выгрузки с удалением отсутствующих записей).
+ */
+@SuppressWarnings("unused")
+public enum OutcomeSnapshotMode {
+    /**
+     * Записи пишутся непосредственно в коллекцию, после последнего батча лишние записи удаляются.
+     * Читатели могут увидеть частично применённый снапшот.
+     */
+    Reconcile,
+
+    /**
+     * Батчи пишутся в теневую коллекцию, которая после последнего батча одной операцией подменяет основную.
+     * Прежнее содержимое коллекции освобождается сервером асинхронно (UNLINK).
+     */
+    Atomic
+}
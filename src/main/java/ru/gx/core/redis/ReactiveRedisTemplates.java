@@ -0,0 +1,39 @@
+package ru.gx.core.redis;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import ru.gx.core.channels.ChannelConfigurationException;
+
+/**
+ * Создание {@link ReactiveRedisTemplate}-ов, совместимых с блокирующими шаблонами конфигураций коллекций.
+ */
+@SuppressWarnings("unused")
+public final class ReactiveRedisTemplates {
+    private ReactiveRedisTemplates() {
+    }
+
+    /**
+     * @param template Блокирующий шаблон коллекции.
+     * @return Реактивный шаблон на той же фабрике соединений и с теми же сериализаторами,
+     * поэтому он читает и пишет данные в том же представлении.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static ReactiveRedisTemplate<String, Object> fromTemplate(@NotNull final RedisTemplate<String, ?> template) {
+        if (!(template.getConnectionFactory() instanceof final ReactiveRedisConnectionFactory connectionFactory)) {
+            throw new ChannelConfigurationException("Connection factory " + template.getConnectionFactory()
+                    + " doesn't support reactive access");
+        }
+        final var context = RedisSerializationContext
+                .<String, Object>newSerializationContext((RedisSerializer<Object>) template.getValueSerializer())
+                .key((RedisSerializer<String>) template.getKeySerializer())
+                .hashKey(template.getHashKeySerializer())
+                .hashValue(template.getHashValueSerializer())
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.gx.core.redis;
+
+import lombok.Getter;
+
+/**
+ * Формат хранения значений коллекций с {@link ru.gx.core.channels.SerializeMode#Bytes}.<br/>
+ * Значение во всех форматах, кроме {@link #Json}, начинается с байта-маркера формата,
+ * поэтому загрузчик определяет формат каждой записи сам, и коллекция может содержать записи разных форматов.
+ */
+@SuppressWarnings("unused")
+public enum RedisBinaryFormat {
+    /**
+     * JSON без заголовка. Формат, в котором значения хранились до появления кодеков; читается любой версией загрузчика.
+     * Сжатое значение в этом формате все-таки получает заголовок {@link #COMPRESSED_FLAG}.
+     */
+    Json(0x00),
+
+    /**
+     * JSON с заголовком. Используется, когда заголовок нужен для других целей (например, для флагов).
+     */
+    JsonWithHeader(0x01),
+
+    /**
+     * Бинарный JSON Jackson Smile.
+     */
+    Smile(0x02),
+
+    /**
+     * CBOR (RFC 8949).
+     */
+    Cbor(0x03),
+
+    /**
+     * Avro по схеме, которая строится по классу сообщения. Требует jackson-dataformat-avro в classpath.
+     * Подходит только для сообщений без полиморфных полей; схема класса должна оставаться совместимой
+     * с записанными ранее значениями.
+     */
+    Avro(0x04),
+
+    /**
+     * Формат приложения: кодек регистрируется через {@link ru.gx.core.redis.codec.RedisBinaryCodecs#register}.
+     */
+    Custom(0x07);
+
+    /**
+     * Наибольший допустимый маркер формата.
+     */
+    public static final int MAX_MARKER = 0x0F;
+
+    /**
+     * Признак в байте-заголовке: тело значения после заголовка сжато Deflate-ом.
+     */
+    public static final int COMPRESSED_FLAG = 0x10;
+
+    @Getter
+    private final byte marker;
+
+    RedisBinaryFormat(final int marker) {
+        this.marker = (byte) marker;
+    }
+}
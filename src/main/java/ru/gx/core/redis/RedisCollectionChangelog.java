@@ -0,0 +1,137 @@
+package ru.gx.core.redis;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Журнал изменений коллекции, который ведется рядом с ней:
+ * <ul>
+ *     <li>{@code {name}:version} - счетчик версий коллекции;</li>
+ *     <li>{@code {name}:changelog} - ZSET, в котором для каждого измененного (записанного или удаленного) ключа
+ *     хранится версия его последнего изменения;</li>
+ *     <li>{@code {name}:reset-version} - версия, до которой (включительно) журнал утерян: коллекция была заменена
+ *     целиком, или старые записи журнала были обрезаны.</li>
+ * </ul>
+ * Журнал ограничен по размеру: при превышении {@code maxSize} из него удаляются записи самых старых версий,
+ * а {@code reset-version} поднимается до последней удаленной версии, чтобы читатели с более старой версией
+ * перезагрузили коллекцию полностью.<br/>
+ * Все ключи журнала имеют hash-tag имени коллекции, поэтому в Redis Cluster находятся в одном слоте,
+ * и изменение версии вместе с журналом выполняется атомарно.
+ */
+@SuppressWarnings("unused")
+public final class RedisCollectionChangelog {
+    /**
+     * KEYS[1] - счетчик версий, KEYS[2] - журнал, KEYS[3] - версия сброса, ARGV[1] - максимальный размер журнала,
+     * остальные ARGV - измененные ключи. Возвращает новую версию.
+     */
+    private static final RedisScript<Long> RECORD_CHANGES_SCRIPT = new DefaultRedisScript<>(
+            "local version = redis.call('INCR', KEYS[1])\n" +
+                    "for i = 2, #ARGV do\n" +
+                    "  redis.call('ZADD', KEYS[2], version, ARGV[i])\n" +
+                    "end\n" +
+                    "local excess = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[1])\n" +
+                    "if excess > 0 then\n" +
+                    "  local cut = redis.call('ZRANGE', KEYS[2], excess - 1, excess - 1, 'WITHSCORES')\n" +
+                    "  local cutVersion = tonumber(cut[2])\n" +
+                    "  redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', cutVersion)\n" +
+                    "  if cutVersion > tonumber(redis.call('GET', KEYS[3]) or '0') then\n" +
+                    "    redis.call('SET', KEYS[3], cutVersion)\n" +
+                    "  end\n" +
+                    "end\n" +
+                    "return version",
+            Long.class
+    );
+
+    /**
+     * KEYS[1] - счетчик версий, KEYS[2] - журнал, KEYS[3] - версия сброса. Возвращает новую версию.
+     */
+    private static final RedisScript<Long> RESET_SCRIPT = new DefaultRedisScript<>(
+            "local version = redis.call('INCR', KEYS[1])\n" +
+                    "redis.call('UNLINK', KEYS[2])\n" +
+                    "redis.call('SET', KEYS[3], version)\n" +
+                    "return version",
+            Long.class
+    );
+
+    private RedisCollectionChangelog() {
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Names">
+    @NotNull
+    public static String getVersionKey(@NotNull final String collectionName) {
+        return "{" + collectionName + "}:version";
+    }
+
+    @NotNull
+    public static String getChangelogKey(@NotNull final String collectionName) {
+        return "{" + collectionName + "}:changelog";
+    }
+
+    @NotNull
+    public static String getResetVersionKey(@NotNull final String collectionName) {
+        return "{" + collectionName + "}:reset-version";
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Writing">
+
+    /**
+     * Регистрация изменения ключей коллекции под новой версией с обрезкой журнала до {@code maxSize} записей.
+     * Записи удаляются целыми версиями, поэтому после обрезки в журнале может остаться меньше {@code maxSize} записей.
+     *
+     * @param maxSize Максимальное количество записей журнала.
+     * @return Новая версия коллекции.
+     */
+    @Nullable
+    public static Long recordChanges(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String collectionName,
+            @NotNull final Collection<String> keys,
+            final int maxSize
+    ) {
+        final var args = new Object[keys.size() + 1];
+        args[0] = Integer.toString(maxSize);
+        var i = 1;
+        for (final var key : keys) {
+            args[i++] = key;
+        }
+        return template.execute(
+                RECORD_CHANGES_SCRIPT,
+                List.of(
+                        getVersionKey(collectionName),
+                        getChangelogKey(collectionName),
+                        getResetVersionKey(collectionName)
+                ),
+                args
+        );
+    }
+
+    /**
+     * Регистрация замены коллекции целиком: журнал очищается, читатели с более старой версией должны
+     * перезагрузить коллекцию полностью.
+     *
+     * @return Новая версия коллекции.
+     */
+    @Nullable
+    public static Long reset(@NotNull final StringRedisTemplate template, @NotNull final String collectionName) {
+        return template.execute(
+                RESET_SCRIPT,
+                List.of(
+                        getVersionKey(collectionName),
+                        getChangelogKey(collectionName),
+                        getResetVersionKey(collectionName)
+                )
+        );
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,150 @@
+package ru.gx.core.redis;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дайджесты содержимого записей коллекции, которые хранятся рядом с ней (HASH: ключ записи - дайджест ее
+ * сериализованного значения).<br/>
+ * Дайджесты шардированной коллекции тоже шардированы: у каждого HASH-а коллекции ({@link RedisCollectionShards})
+ * свой HASH дайджестов в том же слоте Redis Cluster ({@code {name}:digests} или {@code name:{name#i}:digests}),
+ * поэтому запись шарда и его дайджестов идет на один узел.<br/>
+ * По ним выгрузчик определяет, что значение записи не изменилось, и не перезаписывает его.
+ * Дайджест - первые 64 бита MD5 сериализованного значения в виде строки по основанию 36.<br/>
+ * Дайджесты верны, только пока коллекцию пишет выгрузчик с включенным {@code skipUnchanged}, поэтому выгрузчики
+ * сбрасывают их сами: при выгрузке без этого режима, а также если количество дайджестов не совпадает
+ * с количеством записей коллекции (коллекция удалена, истекла или изменена в обход выгрузчика).
+ */
+@SuppressWarnings("unused")
+public final class RedisCollectionDigests {
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private RedisCollectionDigests() {
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Names">
+    public static final String DIGESTS_SUFFIX = "digests";
+
+    /**
+     * @param hashName Имя HASH-а коллекции: самой коллекции (не шардированной) или ее шарда.
+     * @return Ключ дайджестов записей этого HASH-а.
+     */
+    @NotNull
+    public static String getDigestsKey(@NotNull final String hashName) {
+        return RedisCollectionShards.getCopyName(hashName, DIGESTS_SUFFIX);
+    }
+
+    /**
+     * @return Ключи дайджестов всех HASH-ей коллекции, в порядке шардов.
+     */
+    @NotNull
+    public static List<String> getDigestsKeys(@NotNull final String collectionName, final int shardsCount) {
+        return RedisCollectionShards.getHashNames(collectionName, shardsCount, DIGESTS_SUFFIX);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Digests">
+
+    /**
+     * @param serializedValue Значение в том виде, в котором оно хранится в коллекции: {@link String} или {@code byte[]}.
+     * @return Дайджест значения.
+     */
+    @NotNull
+    public static String digest(@NotNull final Object serializedValue) {
+        final var md5 = MD5.get();
+        if (serializedValue instanceof final byte[] bytes) {
+            md5.update(bytes);
+        } else {
+            md5.update(serializedValue.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        final var hash = md5.digest();
+        var result = 0L;
+        for (var i = 0; i < Long.BYTES; i++) {
+            result = (result << 8) | (hash[i] & 0xFF);
+        }
+        return Long.toString(result, Character.MAX_RADIX);
+    }
+
+    /**
+     * @return Сохраненные дайджесты записей в порядке ключей; null - дайджеста для записи нет.
+     */
+    @NotNull
+    public static List<String> load(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String hashName,
+            @NotNull final List<String> keys
+    ) {
+        return template.<String, String>opsForHash().multiGet(getDigestsKey(hashName), keys);
+    }
+
+    /**
+     * @return Количество сохраненных дайджестов.
+     */
+    public static long count(@NotNull final StringRedisTemplate template, @NotNull final String hashName) {
+        final var size = template.opsForHash().size(getDigestsKey(hashName));
+        return size != null ? size : 0L;
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Writing">
+
+    public static void store(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String hashName,
+            @NotNull final Map<String, String> digests
+    ) {
+        if (!digests.isEmpty()) {
+            template.opsForHash().putAll(getDigestsKey(hashName), digests);
+        }
+    }
+
+    public static void delete(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String hashName,
+            @NotNull final Collection<?> keys
+    ) {
+        if (!keys.isEmpty()) {
+            template.opsForHash().delete(getDigestsKey(hashName), keys.stream().map(Object::toString).toArray());
+        }
+    }
+
+    /**
+     * Удаление дайджестов одного HASH-а коллекции (самой коллекции или ее шарда).
+     */
+    public static void reset(@NotNull final StringRedisTemplate template, @NotNull final String hashName) {
+        template.unlink(getDigestsKey(hashName));
+    }
+
+    /**
+     * Удаление всех дайджестов коллекции (например, после замены коллекции целиком).
+     * Ключи шардов в разных слотах, поэтому удаляются по одному.
+     */
+    public static void resetAll(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String collectionName,
+            final int shardsCount
+    ) {
+        for (final var digestsKey : getDigestsKeys(collectionName, shardsCount)) {
+            template.unlink(digestsKey);
+        }
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
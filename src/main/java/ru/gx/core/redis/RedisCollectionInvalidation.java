@@ -0,0 +1,87 @@
+package ru.gx.core.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Оповещение читателей коллекции (near-cache-ей) об изменении ее записей через Redis pub/sub.<br/>
+ * Сообщение в канал {@code {name}:invalidate} - JSON-массив ключей измененных (записанных или удаленных) записей,
+ * поэтому ключи могут содержать любые символы. Пустое сообщение означает, что коллекция заменена целиком.
+ */
+@SuppressWarnings("unused")
+public final class RedisCollectionInvalidation {
+    private static final ObjectMapper KEYS_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<String>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private RedisCollectionInvalidation() {
+    }
+
+    @NotNull
+    public static String getChannelName(@NotNull final String collectionName) {
+        return "{" + collectionName + "}:invalidate";
+    }
+
+    /**
+     * Оповещение об изменении записей с ключами {@code keys}.
+     */
+    public static void publishKeys(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String collectionName,
+            @NotNull final Collection<?> keys
+    ) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        template.convertAndSend(getChannelName(collectionName), formatKeys(keys));
+    }
+
+    /**
+     * @return Сообщение оповещения об изменении записей с ключами {@code keys} (не пустым списком).
+     */
+    @NotNull
+    public static String formatKeys(@NotNull final Collection<?> keys) {
+        final var strings = new ArrayList<String>(keys.size());
+        keys.forEach(key -> strings.add(key.toString()));
+        try {
+            return KEYS_MAPPER.writeValueAsString(strings);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Оповещение о замене коллекции целиком.
+     */
+    public static void publishAll(@NotNull final StringRedisTemplate template, @NotNull final String collectionName) {
+        template.convertAndSend(getChannelName(collectionName), "");
+    }
+
+    /**
+     * Разбор сообщения оповещения.
+     *
+     * @return Ключи измененных записей; null - коллекция заменена целиком, или сообщение не удалось разобрать
+     * (тогда надо сбросить все записи).
+     */
+    @Nullable
+    public static List<String> parseKeys(@NotNull final String message) {
+        if (message.isEmpty()) {
+            return null;
+        }
+        try {
+            return KEYS_MAPPER.readValue(message, KEYS_TYPE);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package ru.gx.core.redis;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.gx.core.channels.ChannelConfigurationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбиение коллекции на несколько HASH-ей ({@code name:{name#shard}}), чтобы большая коллекция не жила целиком
+ * на одном узле Redis Cluster-а.<br/>
+ * Запись попадает в шард {@code floorMod(key.hashCode(), shardsCount)}. Hash tag шарда - имя коллекции и номер шарда,
+ * поэтому шарды разных коллекций расходятся по разным слотам, а служебные копии шарда
+ * ({@link #getShardName(String, int, String)}, например, теневая копия) попадают в тот же слот, что и сам шард.<br/>
+ * При {@code shardsCount == 1} коллекция не шардирована и хранится в HASH-е с именем коллекции, а ее служебные копии -
+ * в {@code {name}:suffix} ({@link #getCopyName(String, String)}), т.е. тоже в слоте коллекции.<br/>
+ * Количество шардов, с которым коллекция выгружена, хранится рядом с ней в {@code {name}:shards}:
+ * загрузчик сверяет с ним свое количество шардов и не читает коллекцию, разбитую иначе.
+ */
+@SuppressWarnings("unused")
+public final class RedisCollectionShards {
+    private RedisCollectionShards() {
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Names">
+    @NotNull
+    public static String getShardName(@NotNull final String baseName, final int shard) {
+        return baseName + ":{" + baseName + "#" + shard + "}";
+    }
+
+    /**
+     * @param suffix Суффикс служебной копии шарда (например, {@code shadow:id}); null - сам шард.
+     * @return Имя служебной копии шарда {@code name:{name#shard}:suffix} в том же слоте, что и шард.
+     */
+    @NotNull
+    public static String getShardName(@NotNull final String baseName, final int shard, @Nullable final String suffix) {
+        final var shardName = getShardName(baseName, shard);
+        return suffix != null ? shardName + ":" + suffix : shardName;
+    }
+
+    /**
+     * @return Имена HASH-ей коллекции: имя коллекции, если она не шардирована, иначе имена всех шардов по порядку.
+     */
+    @NotNull
+    public static List<String> getHashNames(@NotNull final String baseName, final int shardsCount) {
+        return getHashNames(baseName, shardsCount, null);
+    }
+
+    /**
+     * @param suffix Суффикс служебной копии коллекции (например, {@code shadow:id}); null - сама коллекция.
+     * @return Имена HASH-ей служебной копии коллекции: {@link #getCopyName(String, String)}, если она не шардирована,
+     * иначе имена копий всех шардов по порядку. Копия каждого HASH-а лежит в одном слоте с ним.
+     */
+    @NotNull
+    public static List<String> getHashNames(
+            @NotNull final String baseName,
+            final int shardsCount,
+            @Nullable final String suffix
+    ) {
+        if (shardsCount <= 1) {
+            return List.of(suffix != null ? getCopyName(baseName, suffix) : baseName);
+        }
+        final var result = new ArrayList<String>(shardsCount);
+        for (var shard = 0; shard < shardsCount; shard++) {
+            result.add(getShardName(baseName, shard, suffix));
+        }
+        return result;
+    }
+
+    /**
+     * Имя служебной копии нешардированной коллекции в том же слоте Redis Cluster-а, что и сама коллекция:
+     * {@code {name}:suffix}. Если в имени коллекции уже есть hash tag, то слот определяет он,
+     * и копия называется {@code name:suffix}.
+     *
+     * @throws IllegalArgumentException В имени коллекции есть фигурные скобки, но нет hash tag-а: такое имя нельзя
+     *                                  взять в hash tag целиком, и копия оказалась бы в другом слоте.
+     */
+    @NotNull
+    public static String getCopyName(@NotNull final String baseName, @NotNull final String suffix) {
+        if (hasHashTag(baseName)) {
+            return baseName + ":" + suffix;
+        }
+        if (baseName.indexOf('{') >= 0 || baseName.indexOf('}') >= 0) {
+            throw new IllegalArgumentException("Collection name " + baseName
+                    + " contains braces without a hash tag, its copies can't be placed in the same cluster slot");
+        }
+        return "{" + baseName + "}:" + suffix;
+    }
+
+    /**
+     * @return true - в имени есть hash tag (непустая подстрока между первой {@code &#123;} и следующей за ней
+     * {@code &#125;}), и слот Redis Cluster-а определяется им, а не всем именем.
+     */
+    public static boolean hasHashTag(@NotNull final String name) {
+        final var open = name.indexOf('{');
+        if (open < 0) {
+            return false;
+        }
+        final var close = name.indexOf('}', open + 1);
+        return close > open + 1;
+    }
+
+    @NotNull
+    public static String getShardsCountKey(@NotNull final String collectionName) {
+        return "{" + collectionName + "}:shards";
+    }
+
+    /**
+     * @return Имя HASH-а, в котором хранится запись с ключом {@code key}.
+     */
+    @NotNull
+    public static String getHashName(@NotNull final String baseName, @NotNull final String key, final int shardsCount) {
+        if (shardsCount <= 1) {
+            return baseName;
+        }
+        return getShardName(baseName, getShard(key, shardsCount));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Partitioning">
+    public static int getShard(@NotNull final String key, final int shardsCount) {
+        return Math.floorMod(key.hashCode(), shardsCount);
+    }
+
+    /**
+     * Разбиение записей по шардам.
+     *
+     * @return Записи шардов по номерам шардов (пустые шарды - пустые Map-ы).
+     */
+    @NotNull
+    public static <V> List<Map<String, V>> partition(@NotNull final Map<String, V> entries, final int shardsCount) {
+        final var result = new ArrayList<Map<String, V>>(shardsCount);
+        final var expectedSize = entries.size() / shardsCount + 1;
+        for (var shard = 0; shard < shardsCount; shard++) {
+            result.add(new HashMap<>(expectedSize * 4 / 3 + 1));
+        }
+        entries.forEach((key, value) -> result.get(getShard(key, shardsCount)).put(key, value));
+        return result;
+    }
+
+    /**
+     * Разбиение ключей по шардам с сохранением их порядка внутри шарда.
+     *
+     * @return Номера позиций ключей в {@code keys} по номерам шардов.
+     */
+    @NotNull
+    public static List<List<Integer>> partitionIndexes(@NotNull final List<String> keys, final int shardsCount) {
+        final var result = new ArrayList<List<Integer>>(shardsCount);
+        for (var shard = 0; shard < shardsCount; shard++) {
+            result.add(new ArrayList<>());
+        }
+        for (var i = 0; i < keys.size(); i++) {
+            result.get(getShard(keys.get(i), shardsCount)).add(i);
+        }
+        return result;
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Shards count">
+
+    /**
+     * Сохранение количества шардов, с которым выгружается коллекция.
+     */
+    public static void writeShardsCount(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String collectionName,
+            final int shardsCount
+    ) {
+        template.opsForValue().set(getShardsCountKey(collectionName), Integer.toString(Math.max(shardsCount, 1)));
+    }
+
+    /**
+     * Проверка, что коллекция выгружена с тем же количеством шардов, с которым ее читает загрузчик.
+     *
+     * @throws ChannelConfigurationException Коллекция выгружена с другим количеством шардов.
+     */
+    public static void checkShardsCount(
+            @NotNull final StringRedisTemplate template,
+            @NotNull final String collectionName,
+            final int shardsCount
+    ) {
+        checkShardsCount(collectionName, shardsCount, template.opsForValue().get(getShardsCountKey(collectionName)));
+    }
+
+    /**
+     * Проверка количества шардов по сохраненному значению {@code stored}.
+     * Если значения нет (коллекция еще не выгружалась или выгружена старой версией), то проверять не с чем.
+     *
+     * @throws ChannelConfigurationException Коллекция выгружена с другим количеством шардов.
+     */
+    public static void checkShardsCount(
+            @NotNull final String collectionName,
+            final int shardsCount,
+            @Nullable final String stored
+    ) {
+        if (stored == null) {
+            return;
+        }
+        final int storedCount;
+        try {
+            storedCount = Integer.parseInt(stored);
+        } catch (NumberFormatException e) {
+            throw new ChannelConfigurationException("Collection " + collectionName + ": invalid shards count '"
+                    + stored + "' in " + getShardsCountKey(collectionName));
+        }
+        if (storedCount != Math.max(shardsCount, 1)) {
+            throw new ChannelConfigurationException("Collection " + collectionName + " is uploaded with "
+                    + storedCount + " shard(s), but descriptor expects " + Math.max(shardsCount, 1));
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
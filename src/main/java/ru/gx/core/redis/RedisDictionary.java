@@ -1,7 +1,33 @@
 package ru.gx.core.redis;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+
 public interface RedisDictionary {
 
     void reload();
 
+    /**
+     * Загрузка только изменений, выполненных с момента предыдущей загрузки словаря.<br/>
+     * Словарь, коллекция которого ведет журнал изменений, может реализовать метод через
+     * {@link ru.gx.core.redis.load.RedisIncomeCollectionsLoader#processChangesSince}, храня версию,
+     * полученную в результате предыдущей загрузки. По умолчанию словарь перезагружается полностью.
+     */
+    default void reloadChanges() {
+        reload();
+    }
+
+    /**
+     * Словари, которые должны быть перезагружены раньше данного.
+     * Учитываются при параллельной перезагрузке словарей.
+     *
+     * @return Классы (интерфейсы) словарей-зависимостей.
+     */
+    @NotNull
+    default Collection<Class<? extends RedisDictionary>> getDependencies() {
+        return Collections.emptyList();
+    }
+
 }
@@ -0,0 +1,230 @@
+package ru.gx.core.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Создание пулов потоков загрузчика, выгрузчика и перезагрузки словарей.<br/>
+ * При {@link ConfigurationPropertiesServiceRedis.Execution#isVirtualThreads()} задачи выполняются на виртуальных потоках
+ * (JDK 21+): блокирующие вызовы Redis-а не занимают потоки ОС, а ограничение параллельности соблюдается семафором.
+ * Виртуальные потоки создаются через reflection, поэтому библиотека собирается и работает на JDK 17;
+ * там вместо них используется ограниченный пул обычных потоков.
+ */
+@SuppressWarnings("unused")
+@Slf4j
+public final class RedisExecutors {
+    /**
+     * Фабрика виртуальных потоков по префиксу имени; null - виртуальные потоки не поддерживаются.
+     */
+    @Nullable
+    private static final VirtualThreadFactories VIRTUAL_THREAD_FACTORIES = VirtualThreadFactories.lookup();
+
+    private RedisExecutors() {
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * @return true - JDK поддерживает виртуальные потоки.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORIES != null;
+    }
+
+    /**
+     * Пул, в котором одновременно выполняется не более {@code maxConcurrency} задач.
+     *
+     * @param namePrefix     Префикс имен потоков.
+     * @param maxConcurrency Максимальное количество одновременно выполняемых задач.
+     * @param execution      Настройки выполнения.
+     */
+    @NotNull
+    public static ExecutorService newBoundedExecutor(
+            @NotNull final String namePrefix,
+            final int maxConcurrency,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution
+    ) {
+        if (execution.isVirtualThreads() && VIRTUAL_THREAD_FACTORIES != null) {
+            return new BoundedExecutor(VIRTUAL_THREAD_FACTORIES.newThreadPerTaskExecutor(namePrefix), maxConcurrency);
+        }
+        return Executors.newFixedThreadPool(maxConcurrency, createDaemonThreadFactory(namePrefix));
+    }
+
+    /**
+     * Пул для задач, количество которых ограничивает сам вызывающий код.
+     * Без виртуальных потоков - пул обычных потоков, создаваемых по мере необходимости; если виртуальные потоки
+     * включены, но не поддерживаются JDK, то не более {@link ConfigurationPropertiesServiceRedis.Execution#getFallbackMaxThreads()}
+     * потоков.
+     *
+     * @param namePrefix Префикс имен потоков.
+     * @param execution  Настройки выполнения.
+     */
+    @NotNull
+    public static ExecutorService newUnboundedExecutor(
+            @NotNull final String namePrefix,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution
+    ) {
+        if (!execution.isVirtualThreads()) {
+            return Executors.newCachedThreadPool(createDaemonThreadFactory(namePrefix));
+        }
+        if (VIRTUAL_THREAD_FACTORIES != null) {
+            return VIRTUAL_THREAD_FACTORIES.newThreadPerTaskExecutor(namePrefix);
+        }
+        return Executors.newFixedThreadPool(execution.getFallbackMaxThreads(), createDaemonThreadFactory(namePrefix));
+    }
+
+    /**
+     * Фабрика daemon-потоков с именами {@code namePrefix + N}.
+     */
+    @NotNull
+    public static ThreadFactory createDaemonThreadFactory(@NotNull final String namePrefix) {
+        final var counter = new AtomicInteger();
+        return runnable -> {
+            final var thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+
+    /**
+     * Доступ к {@code Thread.ofVirtual()} и {@code Executors.newThreadPerTaskExecutor()} JDK 21.
+     */
+    private static final class VirtualThreadFactories {
+        @NotNull
+        private final Object builder;
+
+        @NotNull
+        private final Method nameMethod;
+
+        @NotNull
+        private final Method factoryMethod;
+
+        @NotNull
+        private final Method newThreadPerTaskExecutorMethod;
+
+        private VirtualThreadFactories(
+                @NotNull final Object builder,
+                @NotNull final Method nameMethod,
+                @NotNull final Method factoryMethod,
+                @NotNull final Method newThreadPerTaskExecutorMethod
+        ) {
+            this.builder = builder;
+            this.nameMethod = nameMethod;
+            this.factoryMethod = factoryMethod;
+            this.newThreadPerTaskExecutorMethod = newThreadPerTaskExecutorMethod;
+        }
+
+        @Nullable
+        private static VirtualThreadFactories lookup() {
+            try {
+                final var builderClass = Class.forName("java.lang.Thread$Builder");
+                final var result = new VirtualThreadFactories(
+                        Thread.class.getMethod("ofVirtual").invoke(null),
+                        builderClass.getMethod("name", String.class, long.class),
+                        builderClass.getMethod("factory"),
+                        Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                );
+                // На JDK 19-20 без --enable-preview создание виртуального потока бросает исключение.
+                result.createThreadFactory("redis-virtual-check-").newThread(() -> {
+                });
+                return result;
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                log.debug("Virtual threads are not supported by this JDK: {}", e.toString());
+                return null;
+            }
+        }
+
+        @NotNull
+        private ThreadFactory createThreadFactory(@NotNull final String namePrefix) throws ReflectiveOperationException {
+            // Builder изменяемый, поэтому имя задается под блокировкой непосредственно перед созданием фабрики.
+            synchronized (this.builder) {
+                this.nameMethod.invoke(this.builder, namePrefix, 1L);
+                return (ThreadFactory) this.factoryMethod.invoke(this.builder);
+            }
+        }
+
+        @NotNull
+        private ExecutorService newThreadPerTaskExecutor(@NotNull final String namePrefix) {
+            try {
+                return (ExecutorService) this.newThreadPerTaskExecutorMethod.invoke(null, createThreadFactory(namePrefix));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Can't create virtual threads executor", e);
+            }
+        }
+    }
+
+    /**
+     * Ограничение количества одновременно выполняемых задач пула, создающего поток на каждую задачу.
+     * Задачи сверх ограничения ждут разрешения семафора в своих (виртуальных) потоках;
+     * ожидание не прерывается, чтобы каждая принятая задача была выполнена и ее future завершился.
+     */
+    private static final class BoundedExecutor extends AbstractExecutorService {
+        @NotNull
+        private final ExecutorService delegate;
+
+        @NotNull
+        private final Semaphore permits;
+
+        private BoundedExecutor(@NotNull final ExecutorService delegate, final int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(@NotNull final Runnable command) {
+            this.delegate.execute(() -> {
+                this.permits.acquireUninterruptibly();
+                try {
+                    command.run();
+                } finally {
+                    this.permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            this.delegate.shutdown();
+        }
+
+        @NotNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            return this.delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return this.delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return this.delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, @NotNull final TimeUnit unit) throws InterruptedException {
+            return this.delegate.awaitTermination(timeout, unit);
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
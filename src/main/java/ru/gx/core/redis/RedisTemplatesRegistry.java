@@ -0,0 +1,234 @@
+package ru.gx.core.redis;
+
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.masterreplica.StatefulRedisMasterReplicaConnection;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ClassUtils;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Общие для всех конфигураций коллекций шаблоны Redis-а: по одному {@link StringRedisTemplate} и
+ * {@link RedisTemplate RedisTemplate&lt;String, byte[]&gt;} на фабрику соединений. Шаблоны создаются и инициализируются
+ * один раз; изменять их (например, сериализаторы) нельзя - они используются всеми конфигурациями.<br/>
+ * При {@link ConfigurationPropertiesServiceRedis.BulkConnectionPool#isEnabled()} для каждой
+ * {@link LettuceConnectionFactory} создается отдельная фабрика с пулом соединений для массового чтения коллекций
+ * (HGETALL, HSCAN, HMGET страницами). Тогда большие ответы идут по своим соединениям и не задерживают короткие
+ * запросы в общем соединении Lettuce. Пулу нужна библиотека commons-pool2 (необязательная зависимость стартера);
+ * поддерживаются standalone, sentinel, cluster и unix-сокет, но не static master/replica.
+ */
+@SuppressWarnings("unused")
+@Slf4j
+public class RedisTemplatesRegistry implements DisposableBean {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    private static final String COMMONS_POOL_CLASS_NAME = "org.apache.commons.pool2.ObjectPool";
+
+    /**
+     * Настройки пула соединений для массового чтения.
+     */
+    @Getter
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.BulkConnectionPool bulkConnectionPool;
+
+    @NotNull
+    private final Map<RedisConnectionFactory, Templates> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Фабрики с пулом соединений для массового чтения по исходным фабрикам.
+     */
+    @NotNull
+    private final Map<RedisConnectionFactory, RedisConnectionFactory> bulkConnectionFactories = new ConcurrentHashMap<>();
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    /**
+     * Общий реестр без пула для массового чтения - для конфигураций, созданных без явного реестра.
+     * Так конфигурации с одной фабрикой соединений используют одни и те же шаблоны и без Spring-контекста.
+     */
+    @NotNull
+    public static RedisTemplatesRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public RedisTemplatesRegistry() {
+        this(new ConfigurationPropertiesServiceRedis.BulkConnectionPool());
+    }
+
+    /**
+     * @throws IllegalStateException Пул для массового чтения включен, но commons-pool2 нет в classpath.
+     */
+    public RedisTemplatesRegistry(@NotNull final ConfigurationPropertiesServiceRedis.BulkConnectionPool bulkConnectionPool) {
+        if (bulkConnectionPool.isEnabled()
+                && !ClassUtils.isPresent(COMMONS_POOL_CLASS_NAME, RedisTemplatesRegistry.class.getClassLoader())) {
+            throw new IllegalStateException("Bulk connection pool (service.redis.bulk-connection-pool.enabled) requires "
+                    + "org.apache.commons:commons-pool2 on the classpath; add the dependency or disable the pool");
+        }
+        this.bulkConnectionPool = bulkConnectionPool;
+    }
+
+    @Override
+    public void destroy() {
+        this.bulkConnectionFactories.forEach((connectionFactory, bulkConnectionFactory) -> {
+            if (bulkConnectionFactory != connectionFactory && bulkConnectionFactory instanceof final LettuceConnectionFactory lettuce) {
+                lettuce.destroy();
+            }
+        });
+        this.bulkConnectionFactories.clear();
+        this.templates.clear();
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+    @NotNull
+    public StringRedisTemplate getStringRedisTemplate(@NotNull final RedisConnectionFactory connectionFactory) {
+        return getTemplates(connectionFactory).stringTemplate;
+    }
+
+    @NotNull
+    public RedisTemplate<String, byte[]> getBinaryRedisTemplate(@NotNull final RedisConnectionFactory connectionFactory) {
+        return getTemplates(connectionFactory).binaryTemplate;
+    }
+
+    /**
+     * @return Фабрика с пулом соединений для массового чтения; если пул выключен или фабрика не Lettuce -
+     * сама {@code connectionFactory}.
+     */
+    @NotNull
+    public RedisConnectionFactory getBulkConnectionFactory(@NotNull final RedisConnectionFactory connectionFactory) {
+        if (!getBulkConnectionPool().isEnabled() || !(connectionFactory instanceof LettuceConnectionFactory)) {
+            return connectionFactory;
+        }
+        return this.bulkConnectionFactories.computeIfAbsent(
+                connectionFactory,
+                source -> createBulkConnectionFactory((LettuceConnectionFactory) source)
+        );
+    }
+
+    @NotNull
+    public StringRedisTemplate getBulkStringRedisTemplate(@NotNull final RedisConnectionFactory connectionFactory) {
+        return getStringRedisTemplate(getBulkConnectionFactory(connectionFactory));
+    }
+
+    @NotNull
+    public RedisTemplate<String, byte[]> getBulkBinaryRedisTemplate(@NotNull final RedisConnectionFactory connectionFactory) {
+        return getBinaryRedisTemplate(getBulkConnectionFactory(connectionFactory));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    @NotNull
+    private Templates getTemplates(@NotNull final RedisConnectionFactory connectionFactory) {
+        return this.templates.computeIfAbsent(connectionFactory, Templates::new);
+    }
+
+    /**
+     * Фабрика с теми же адресом, авторизацией и настройками клиента, что и {@code source}, но без общего соединения:
+     * каждая операция берет соединение из пула.
+     *
+     * @throws IllegalStateException Конфигурация Redis-а фабрики {@code source} не поддерживается (static master/replica).
+     */
+    @NotNull
+    protected RedisConnectionFactory createBulkConnectionFactory(@NotNull final LettuceConnectionFactory source) {
+        final var settings = getBulkConnectionPool();
+        final var poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(settings.getMaxTotal());
+        poolConfig.setMaxIdle(settings.getMaxIdle());
+        poolConfig.setMinIdle(settings.getMinIdle());
+
+        final var clientConfiguration = source.getClientConfiguration();
+        final var builder = LettucePoolingClientConfiguration.builder()
+                .poolConfig(poolConfig)
+                .commandTimeout(clientConfiguration.getCommandTimeout())
+                .shutdownTimeout(clientConfiguration.getShutdownTimeout());
+        clientConfiguration.getClientOptions().ifPresent(builder::clientOptions);
+        clientConfiguration.getClientResources().ifPresent(builder::clientResources);
+        clientConfiguration.getClientName().ifPresent(builder::clientName);
+        clientConfiguration.getReadFrom().ifPresent(builder::readFrom);
+        builder.shutdownQuietPeriod(clientConfiguration.getShutdownQuietPeriod());
+        if (clientConfiguration.isUseSsl()) {
+            final var sslBuilder = builder.useSsl();
+            if (!clientConfiguration.isVerifyPeer()) {
+                sslBuilder.disablePeerVerification();
+            }
+            if (clientConfiguration.isStartTls()) {
+                sslBuilder.startTls();
+            }
+        }
+
+        final var redisConfiguration = getRedisConfiguration(source);
+        final var result = new LettuceConnectionFactory(redisConfiguration, builder.build());
+        result.setShareNativeConnection(false);
+        result.setValidateConnection(source.getValidateConnection());
+        result.setConvertPipelineAndTxResults(source.getConvertPipelineAndTxResults());
+        result.afterPropertiesSet();
+        log.info("Created bulk connection pool (maxTotal: {}) for {}", settings.getMaxTotal(), redisConfiguration);
+        return result;
+    }
+
+    /**
+     * Конфигурация Redis-а, с которой создана {@code source}: cluster, sentinel, unix-сокет или standalone.
+     */
+    @NotNull
+    private static RedisConfiguration getRedisConfiguration(@NotNull final LettuceConnectionFactory source) {
+        if (source.getClusterConfiguration() != null) {
+            return source.getClusterConfiguration();
+        }
+        if (source.getSentinelConfiguration() != null) {
+            return source.getSentinelConfiguration();
+        }
+        if (source.getSocketConfiguration() != null) {
+            return source.getSocketConfiguration();
+        }
+        // Конфигурацию static master/replica фабрика наружу не отдает, а getStandaloneConfiguration() для нее
+        // возвращает localhost по умолчанию. Такую фабрику узнаем по ее соединению.
+        if (isStaticMasterReplica(source)) {
+            throw new IllegalStateException("Bulk connection pool does not support static master/replica Redis "
+                    + "configuration of " + source + "; disable service.redis.bulk-connection-pool.enabled");
+        }
+        return source.getStandaloneConfiguration();
+    }
+
+    private static boolean isStaticMasterReplica(@NotNull final LettuceConnectionFactory source) {
+        try (final var connection = source.getConnection()) {
+            return connection.getNativeConnection() instanceof final RedisAsyncCommands<?, ?> commands
+                    && commands.getStatefulConnection() instanceof StatefulRedisMasterReplicaConnection;
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final RedisTemplatesRegistry INSTANCE = new RedisTemplatesRegistry();
+    }
+
+    private static final class Templates {
+        @NotNull
+        private final StringRedisTemplate stringTemplate;
+
+        @NotNull
+        private final RedisTemplate<String, byte[]> binaryTemplate;
+
+        private Templates(@NotNull final RedisConnectionFactory connectionFactory) {
+            this.stringTemplate = new StringRedisTemplate(connectionFactory);
+            this.binaryTemplate = new RedisTemplate<>();
+            this.binaryTemplate.setConnectionFactory(connectionFactory);
+            this.binaryTemplate.afterPropertiesSet();
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,17 @@
+package ru.gx.core.redis;
+
+/**
+ * Где хранятся ключи, выгруженные в ходе батчевой выгрузки с удалением отсутствующих записей.
+ */
+@SuppressWarnings("unused")
+public enum UploadingKeysTrackingMode {
+    /**
+     * В памяти приложения. Целочисленные ключи хранятся в компактном множестве примитивных long.
+     */
+    Heap,
+
+    /**
+     * Во временном множестве в Redis. Память приложения не зависит от размера коллекции.
+     */
+    Redis
+}
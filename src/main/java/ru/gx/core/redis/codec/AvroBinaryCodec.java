@@ -0,0 +1,72 @@
+package ru.gx.core.redis.codec;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroFactory;
+import com.fasterxml.jackson.dataformat.avro.AvroModule;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import com.fasterxml.jackson.dataformat.avro.schema.AvroSchemaGenerator;
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.redis.RedisBinaryFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кодек Avro: схема строится Jackson-ом по классу значения и кэшируется.<br/>
+ * Схема в значение не пишется, поэтому класс сообщения должен меняться совместимо с уже записанными значениями.<br/>
+ * Модули, настройки и подтипы берутся из ObjectMapper-а приложения (см. {@link JacksonBinaryCodec#copyWithFactory}),
+ * поэтому значения сериализуются так же, как в остальных форматах.
+ */
+public class AvroBinaryCodec implements RedisBinaryCodec {
+    @NotNull
+    private final ObjectMapper avroMapper;
+
+    @NotNull
+    private final Map<Class<?>, AvroSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectMapper ObjectMapper приложения.
+     */
+    public AvroBinaryCodec(@NotNull final ObjectMapper objectMapper) {
+        this.avroMapper = JacksonBinaryCodec.copyWithFactory(objectMapper, new AvroFactory());
+        this.avroMapper.registerModule(new AvroModule());
+    }
+
+    @Override
+    @NotNull
+    public RedisBinaryFormat getFormat() {
+        return RedisBinaryFormat.Avro;
+    }
+
+    @Override
+    public void encode(@NotNull final Object value, @NotNull final OutputStream output) throws IOException {
+        this.avroMapper.writer(getSchema(value.getClass())).writeValue(output, value);
+    }
+
+    @Override
+    @NotNull
+    public <T> T decode(
+            @NotNull final byte[] data,
+            final int offset,
+            final int length,
+            @NotNull final Class<T> type
+    ) throws IOException {
+        return this.avroMapper.readerFor(type).with(getSchema(type)).readValue(data, offset, length);
+    }
+
+    @NotNull
+    private AvroSchema getSchema(@NotNull final Class<?> type) throws JsonMappingException {
+        final var schema = this.schemas.get(type);
+        if (schema != null) {
+            return schema;
+        }
+        final var generator = new AvroSchemaGenerator();
+        this.avroMapper.acceptJsonFormatVisitor(type, generator);
+        final var created = generator.getGeneratedSchema();
+        this.schemas.putIfAbsent(type, created);
+        return created;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.gx.core.redis.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.redis.RedisBinaryFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Кодек на основе Jackson-а: JSON, Smile, CBOR и другие форматы, для которых есть {@link JsonFactory}.
+ */
+public class JacksonBinaryCodec implements RedisBinaryCodec {
+    @Getter
+    @NotNull
+    private final RedisBinaryFormat format;
+
+    @NotNull
+    private final ObjectMapper objectMapper;
+
+    @NotNull
+    private final ObjectWriter objectWriter;
+
+    /**
+     * @param format       Формат значений.
+     * @param objectMapper ObjectMapper, фабрика которого пишет значения в формате {@code format}.
+     */
+    public JacksonBinaryCodec(@NotNull final RedisBinaryFormat format, @NotNull final ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer();
+    }
+
+    @Override
+    public void encode(@NotNull final Object value, @NotNull final OutputStream output) throws IOException {
+        this.objectWriter.writeValue(output, value);
+    }
+
+    @Override
+    @NotNull
+    public <T> T decode(
+            @NotNull final byte[] data,
+            final int offset,
+            final int length,
+            @NotNull final Class<T> type
+    ) throws IOException {
+        return this.objectMapper.readValue(data, offset, length, type);
+    }
+
+    /**
+     * Копия {@code source} (модули, настройки, зарегистрированные подтипы), которая пишет и читает данные
+     * фабрикой {@code factory}. Сериализаторы и десериализаторы не зависят от формата, поэтому используются общие.
+     */
+    @NotNull
+    public static ObjectMapper copyWithFactory(@NotNull final ObjectMapper source, @NotNull final JsonFactory factory) {
+        final var mapper = new ObjectMapper(
+                factory,
+                (DefaultSerializerProvider) source.getSerializerProvider(),
+                (DefaultDeserializationContext) source.getDeserializationContext()
+        );
+        mapper.setSerializerFactory(source.getSerializerFactory());
+        mapper.setTypeFactory(source.getTypeFactory());
+        mapper.setSubtypeResolver(source.getSubtypeResolver());
+        mapper.setInjectableValues(source.getInjectableValues());
+        mapper.setConfig(source.getSerializationConfig());
+        mapper.setConfig(source.getDeserializationConfig());
+        return mapper;
+    }
+}
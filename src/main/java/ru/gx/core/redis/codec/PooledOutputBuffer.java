@@ -0,0 +1,152 @@
+package ru.gx.core.redis.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Буфер для сериализации, который переиспользуется потоком от сообщения к сообщению.<br/>
+ * У каждого потока есть {@link #POOL_SIZE} буферов (чтобы, например, сериализовать значение в один и сжимать в другой);
+ * если все заняты, то {@link #acquire()} выдает новый буфер, не попадающий в пул.
+ * Буфер, выросший больше {@link #MAX_RETAINED_CAPACITY}, при возврате в пул заменяется на новый,
+ * поэтому потоку постоянно принадлежит не более {@code POOL_SIZE * MAX_RETAINED_CAPACITY} байт.<br/>
+ * {@link #close()} ничего не делает (Jackson закрывает поток, в который пишет), возврат в пул - {@link #release()}.
+ */
+public final class PooledOutputBuffer extends OutputStream {
+    public static final int POOL_SIZE = 2;
+    public static final int INITIAL_CAPACITY = 4 * 1024;
+    public static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    /**
+     * Буферы пула потока создаются по мере надобности: потоку, которому хватает одного буфера
+     * (в т.ч. короткоживущему виртуальному), второй не выделяется.
+     */
+    private static final ThreadLocal<PooledOutputBuffer[]> POOL
+            = ThreadLocal.withInitial(() -> new PooledOutputBuffer[POOL_SIZE]);
+
+    private final boolean pooled;
+
+    private boolean inUse;
+
+    @NotNull
+    private byte[] buffer;
+
+    private int count;
+
+    private PooledOutputBuffer(final boolean pooled) {
+        this.pooled = pooled;
+        this.buffer = new byte[INITIAL_CAPACITY];
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * @return Свободный пустой буфер текущего потока. После использования его надо вернуть через {@link #release()}.
+     */
+    @NotNull
+    public static PooledOutputBuffer acquire() {
+        final var buffers = POOL.get();
+        for (var i = 0; i < buffers.length; i++) {
+            var buffer = buffers[i];
+            if (buffer == null) {
+                buffer = new PooledOutputBuffer(true);
+                buffers[i] = buffer;
+            }
+            if (!buffer.inUse) {
+                buffer.inUse = true;
+                buffer.count = 0;
+                return buffer;
+            }
+        }
+        return new PooledOutputBuffer(false);
+    }
+
+    /**
+     * Возврат буфера в пул. Содержимое буфера после этого использовать нельзя.
+     */
+    public void release() {
+        if (this.buffer.length > MAX_RETAINED_CAPACITY) {
+            this.buffer = new byte[INITIAL_CAPACITY];
+        }
+        this.count = 0;
+        this.inUse = false;
+    }
+
+    /**
+     * @return Внутренний массив буфера; данные занимают первые {@link #size()} байт. Действителен до следующей записи.
+     */
+    @NotNull
+    public byte[] getBuffer() {
+        return this.buffer;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @return Копия данных начиная с {@code offset}.
+     */
+    @NotNull
+    public byte[] toByteArray(final int offset) {
+        return Arrays.copyOfRange(this.buffer, offset, this.count);
+    }
+
+    @NotNull
+    public byte[] toByteArray() {
+        return toByteArray(0);
+    }
+
+    /**
+     * @return true, если буфер взят из пула потока (а не создан из-за того, что все буферы пула заняты).
+     */
+    public boolean isPooled() {
+        return this.pooled;
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Реализация OutputStream">
+
+    @Override
+    public void write(final int b) {
+        ensureCapacity(this.count + 1);
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    @Override
+    public void write(@NotNull final byte[] b, final int off, final int len) {
+        ensureCapacity(this.count + len);
+        System.arraycopy(b, off, this.buffer, this.count, len);
+        this.count += len;
+    }
+
+    /**
+     * Запись оставшихся данных {@code data}; позиция {@code data} не меняется.
+     */
+    public void write(@NotNull final ByteBuffer data) {
+        final var length = data.remaining();
+        ensureCapacity(this.count + length);
+        data.get(data.position(), this.buffer, this.count, length);
+        this.count += length;
+    }
+
+    @Override
+    public void close() {
+        // Буфер возвращается в пул через release().
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length << 1, minCapacity));
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
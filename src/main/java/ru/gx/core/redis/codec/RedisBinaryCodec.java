@@ -0,0 +1,32 @@
+package ru.gx.core.redis.codec;
+
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.redis.RedisBinaryFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Кодек значений коллекций с {@link ru.gx.core.channels.SerializeMode#Bytes}.<br/>
+ * Кодек отвечает только за тело значения: байт-маркер формата пишет и разбирает {@link RedisBinaryCodecs}.
+ * Реализация должна быть потокобезопасной.
+ */
+public interface RedisBinaryCodec {
+    /**
+     * @return Формат, который реализует кодек.
+     */
+    @NotNull
+    RedisBinaryFormat getFormat();
+
+    /**
+     * Запись значения в {@code output}.
+     */
+    void encode(@NotNull Object value, @NotNull OutputStream output) throws IOException;
+
+    /**
+     * Чтение значения из фрагмента массива. Массив может быть переиспользуемым буфером,
+     * поэтому результат не должен ссылаться на него.
+     */
+    @NotNull
+    <T> T decode(@NotNull byte[] data, int offset, int length, @NotNull Class<T> type) throws IOException;
+}
@@ -0,0 +1,405 @@
+package ru.gx.core.redis.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.gx.core.redis.RedisBinaryFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Кодирование и декодирование значений коллекций с {@link ru.gx.core.channels.SerializeMode#Bytes}.<br/>
+ * Значение в формате {@link RedisBinaryFormat#Json} хранится без заголовка, в остальных форматах - с байтом-маркером
+ * формата в начале. Маркеры форматов - управляющие символы, с которых JSON начинаться не может, поэтому формат
+ * каждой записи определяется однозначно, и записи, сохраненные до появления кодеков, читаются как JSON.<br/>
+ * Встроенные кодеки создаются при первом использовании; {@link #register(RedisBinaryCodec)} позволяет
+ * подменить встроенный кодек или добавить кодек формата {@link RedisBinaryFormat#Custom}.
+ * Загрузчики и выгрузчики, созданные автоконфигурацией, используют один общий бин этого класса,
+ * поэтому кодек достаточно зарегистрировать один раз.<br/>
+ * Большие значения могут сжиматься: тогда в заголовке к маркеру формата добавляется
+ * {@link RedisBinaryFormat#COMPRESSED_FLAG}, а тело после заголовка сжимается Deflate-ом.<br/>
+ * Значения собираются в {@link PooledOutputBuffer}-ах потока, а Deflater-ы и Inflater-ы берутся из небольших
+ * общих пулов (не привязанных к потокам, что важно для виртуальных потоков), поэтому на одно значение
+ * создается только итоговый массив.
+ */
+public class RedisBinaryCodecs {
+    private static final int ZIP_CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * Сколько простаивающих Deflater-ов (и отдельно Inflater-ов) хранится в пуле.
+     */
+    private static final int ZIP_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final ZipPool<Zipper<Deflater>> DEFLATERS = new ZipPool<>(
+            () -> new Zipper<>(new Deflater(Deflater.BEST_SPEED)),
+            deflater -> deflater.unit().end()
+    );
+
+    private static final ZipPool<Zipper<Inflater>> INFLATERS = new ZipPool<>(
+            () -> new Zipper<>(new Inflater()),
+            inflater -> inflater.unit().end()
+    );
+
+    @NotNull
+    private final ObjectMapper objectMapper;
+
+    @NotNull
+    private final ObjectWriter jsonWriter;
+
+    /**
+     * ObjectReader-ы JSON-а по классам значений, чтобы не определять десериализатор класса при каждом чтении.
+     */
+    @NotNull
+    private final Map<Class<?>, ObjectReader> jsonReaders = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final AtomicReferenceArray<RedisBinaryCodec> codecs
+            = new AtomicReferenceArray<>(RedisBinaryFormat.MAX_MARKER + 1);
+
+    public RedisBinaryCodecs(@NotNull final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * Регистрация кодека вместо встроенного (или ранее зарегистрированного) кодека его формата.
+     */
+    public void register(@NotNull final RedisBinaryCodec codec) {
+        if (codec.getFormat() == RedisBinaryFormat.Json) {
+            throw new IllegalArgumentException("Json format is stored without header and can't be replaced");
+        }
+        this.codecs.set(codec.getFormat().getMarker(), codec);
+    }
+
+    /**
+     * @return Значение в формате {@code format}, с байтом-маркером формата для всех форматов, кроме {@link RedisBinaryFormat#Json}.
+     */
+    @NotNull
+    public byte[] encode(@NotNull final RedisBinaryFormat format, @NotNull final Object value) throws IOException {
+        return encode(format, value, 0);
+    }
+
+    /**
+     * @param compressionThresholdBytes Размер значения, начиная с которого оно сжимается; 0 - не сжимать.
+     * @return Значение в формате {@code format}; сжатое, если оно не меньше порога и сжатие уменьшило его размер.
+     */
+    @NotNull
+    public byte[] encode(
+            @NotNull final RedisBinaryFormat format,
+            @NotNull final Object value,
+            final int compressionThresholdBytes
+    ) throws IOException {
+        final var buffer = PooledOutputBuffer.acquire();
+        try {
+            if (format == RedisBinaryFormat.Json) {
+                writeJson(value, buffer);
+            } else {
+                buffer.write(format.getMarker());
+                getCodec(format).encode(value, buffer);
+            }
+            if (compressionThresholdBytes > 0 && buffer.size() >= compressionThresholdBytes) {
+                final var compressed = PooledOutputBuffer.acquire();
+                try {
+                    compress(format, buffer, compressed);
+                    if (compressed.size() < buffer.size()) {
+                        return compressed.toByteArray();
+                    }
+                } finally {
+                    compressed.release();
+                }
+            }
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * @return Значение в JSON как строка (для {@link ru.gx.core.channels.SerializeMode#JsonString}):
+     * символы пишутся сразу в строку, без промежуточного буфера в UTF-8.
+     */
+    @NotNull
+    public String writeJsonString(@NotNull final Object value) throws JsonProcessingException {
+        return this.jsonWriter.writeValueAsString(value);
+    }
+
+    /**
+     * Запись значения в JSON (без заголовка) в {@code output}.
+     */
+    public void writeJson(@NotNull final Object value, @NotNull final OutputStream output) throws IOException {
+        this.jsonWriter.writeValue(output, value);
+    }
+
+    /**
+     * Декодирование значения в любом из форматов.
+     */
+    @NotNull
+    public <T> T decode(@NotNull final byte[] data, @NotNull final Class<T> type) throws IOException {
+        return decode(data, 0, data.length, type);
+    }
+
+    /**
+     * Декодирование значения в любом из форматов из фрагмента массива.
+     */
+    @NotNull
+    public <T> T decode(
+            @NotNull final byte[] data,
+            final int offset,
+            final int length,
+            @NotNull final Class<T> type
+    ) throws IOException {
+        final var header = length > 0 ? data[offset] : 0;
+        if (isCompressedHeader(header)) {
+            final var format = findFormat(header & RedisBinaryFormat.MAX_MARKER);
+            if (format == null) {
+                throw new IOException("Unknown format marker of compressed value: " + (header & 0xFF));
+            }
+            final var body = PooledOutputBuffer.acquire();
+            try {
+                decompress(data, offset + 1, length - 1, body);
+                if (format == RedisBinaryFormat.Json) {
+                    return getJsonReader(type).readValue(body.getBuffer(), 0, body.size());
+                }
+                return getCodec(format).decode(body.getBuffer(), 0, body.size(), type);
+            } finally {
+                body.release();
+            }
+        }
+        final var format = isFormatHeader(header) ? findFormat(header) : null;
+        if (format == null) {
+            return getJsonReader(type).readValue(data, offset, length);
+        }
+        return getCodec(format).decode(data, offset + 1, length - 1, type);
+    }
+
+    /**
+     * Декодирование значения в любом из форматов из буфера (например, буфера сетевого клиента Redis-а).<br/>
+     * JSON без заголовка читается прямо из буфера; значения с заголовком из буфера без массива
+     * копируются в {@link PooledOutputBuffer} потока. Позиция {@code data} не меняется.
+     */
+    @NotNull
+    public <T> T decode(@NotNull final ByteBuffer data, @NotNull final Class<T> type) throws IOException {
+        final var length = data.remaining();
+        if (data.hasArray()) {
+            return decode(data.array(), data.arrayOffset() + data.position(), length, type);
+        }
+        final var header = length > 0 ? data.get(data.position()) : 0;
+        if (!isCompressedHeader(header) && !isFormatHeader(header)) {
+            return getJsonReader(type).readValue(new ByteBufferBackedInputStream(data.duplicate()));
+        }
+        final var copy = PooledOutputBuffer.acquire();
+        try {
+            copy.write(data);
+            return decode(copy.getBuffer(), 0, copy.size(), type);
+        } finally {
+            copy.release();
+        }
+    }
+
+    /**
+     * @return ObjectReader JSON-а для класса {@code type}.
+     */
+    @NotNull
+    public ObjectReader getJsonReader(@NotNull final Class<?> type) {
+        return this.jsonReaders.computeIfAbsent(type, this.objectMapper::readerFor);
+    }
+
+    /**
+     * @return Формат по байту-маркеру несжатого значения или null, если значение без заголовка (JSON).
+     * Байты, которые не являются маркерами известных форматов (в т.ч. пробельные символы, с которых может начинаться
+     * JSON), считаются началом JSON-а.
+     */
+    @Nullable
+    public static RedisBinaryFormat getHeaderFormat(@NotNull final byte[] data) {
+        if (data.length == 0 || !isFormatHeader(data[0])) {
+            return null;
+        }
+        return findFormat(data[0]);
+    }
+
+    /**
+     * @return true, если значение сжато (в заголовке установлен {@link RedisBinaryFormat#COMPRESSED_FLAG}).
+     */
+    public static boolean isCompressed(@NotNull final byte[] data) {
+        return data.length > 0 && isCompressedHeader(data[0]);
+    }
+
+    /**
+     * @return Кодек формата (кроме {@link RedisBinaryFormat#Json}, который кодируется {@code objectMapper}-ом напрямую).
+     */
+    @NotNull
+    public RedisBinaryCodec getCodec(@NotNull final RedisBinaryFormat format) {
+        final var marker = format.getMarker();
+        var codec = this.codecs.get(marker);
+        if (codec == null) {
+            this.codecs.compareAndSet(marker, null, createBuiltInCodec(format));
+            codec = this.codecs.get(marker);
+        }
+        return codec;
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    private static boolean isFormatHeader(final byte header) {
+        return header > 0 && header <= RedisBinaryFormat.MAX_MARKER;
+    }
+
+    private static boolean isCompressedHeader(final byte header) {
+        return (header & ~RedisBinaryFormat.MAX_MARKER) == RedisBinaryFormat.COMPRESSED_FLAG;
+    }
+
+    @Nullable
+    private static RedisBinaryFormat findFormat(final int marker) {
+        for (final var format : RedisBinaryFormat.values()) {
+            if (format.getMarker() == marker) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Запись в {@code target} заголовка сжатого значения и сжатого тела значения из {@code source}
+     * (без байта-маркера, если он есть).
+     */
+    private static void compress(
+            @NotNull final RedisBinaryFormat format,
+            @NotNull final PooledOutputBuffer source,
+            @NotNull final PooledOutputBuffer target
+    ) {
+        final var offset = format == RedisBinaryFormat.Json ? 0 : 1;
+        target.write(format.getMarker() | RedisBinaryFormat.COMPRESSED_FLAG);
+        final var zipper = DEFLATERS.acquire();
+        try {
+            final var deflater = zipper.unit();
+            deflater.setInput(source.getBuffer(), offset, source.size() - offset);
+            deflater.finish();
+            while (!deflater.finished()) {
+                final var length = deflater.deflate(zipper.chunk());
+                target.write(zipper.chunk(), 0, length);
+            }
+        } finally {
+            zipper.unit().reset();
+            DEFLATERS.release(zipper);
+        }
+    }
+
+    /**
+     * Распаковка в {@code target} тела сжатого значения (фрагмента {@code data} после заголовка).
+     */
+    private static void decompress(
+            @NotNull final byte[] data,
+            final int offset,
+            final int length,
+            @NotNull final PooledOutputBuffer target
+    ) throws IOException {
+        final var zipper = INFLATERS.acquire();
+        final var inflater = zipper.unit();
+        inflater.setInput(data, offset, length);
+        try {
+            while (!inflater.finished()) {
+                final var inflated = inflater.inflate(zipper.chunk());
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed value is truncated");
+                }
+                target.write(zipper.chunk(), 0, inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed value is corrupted", e);
+        } finally {
+            inflater.reset();
+            INFLATERS.release(zipper);
+        }
+    }
+
+    @NotNull
+    private RedisBinaryCodec createBuiltInCodec(@NotNull final RedisBinaryFormat format) {
+        return switch (format) {
+            case JsonWithHeader -> new JacksonBinaryCodec(format, this.objectMapper);
+            case Smile -> new JacksonBinaryCodec(
+                    format,
+                    JacksonBinaryCodec.copyWithFactory(this.objectMapper, new SmileFactory())
+            );
+            case Cbor -> new JacksonBinaryCodec(
+                    format,
+                    JacksonBinaryCodec.copyWithFactory(this.objectMapper, new CBORFactory())
+            );
+            case Avro -> createAvroCodec(this.objectMapper);
+            case Json, Custom -> throw new IllegalStateException("Codec for format " + format + " is not registered");
+        };
+    }
+
+    @NotNull
+    private static RedisBinaryCodec createAvroCodec(@NotNull final ObjectMapper objectMapper) {
+        try {
+            return new AvroBinaryCodec(objectMapper);
+        } catch (NoClassDefFoundError e) {
+            throw new IllegalStateException("Avro format requires com.fasterxml.jackson.dataformat:jackson-dataformat-avro", e);
+        }
+    }
+
+    /**
+     * Deflater или Inflater вместе с буфером для его порций данных.
+     */
+    private record Zipper<T>(@NotNull T unit, @NotNull byte[] chunk) {
+        private Zipper(@NotNull final T unit) {
+            this(unit, new byte[ZIP_CHUNK_SIZE]);
+        }
+    }
+
+    /**
+     * Пул не более чем {@link #ZIP_POOL_SIZE} простаивающих объектов, создаваемых по требованию.
+     * Объект, не поместившийся в пул при возврате, сразу освобождается ({@code end()}), поэтому нативная память
+     * Deflater-ов и Inflater-ов не зависит от количества потоков.
+     */
+    private static final class ZipPool<T> {
+        @NotNull
+        private final ArrayBlockingQueue<T> idle = new ArrayBlockingQueue<>(ZIP_POOL_SIZE);
+
+        @NotNull
+        private final Supplier<T> factory;
+
+        @NotNull
+        private final Consumer<T> disposer;
+
+        private ZipPool(@NotNull final Supplier<T> factory, @NotNull final Consumer<T> disposer) {
+            this.factory = factory;
+            this.disposer = disposer;
+        }
+
+        @NotNull
+        private T acquire() {
+            final var item = this.idle.poll();
+            return item != null ? item : this.factory.get();
+        }
+
+        private void release(@NotNull final T item) {
+            if (!this.idle.offer(item)) {
+                this.disposer.accept(item);
+            }
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -15,24 +15,76 @@ import ru.gx.core.api.rest.AdviceController;
 import ru.gx.core.api.rest.RedirectController;
 import ru.gx.core.messaging.MessagesFactory;
 import ru.gx.core.messaging.MessagesPrioritizedQueue;
+import ru.gx.core.redis.RedisTemplatesRegistry;
+import ru.gx.core.redis.codec.RedisBinaryCodecs;
+import ru.gx.core.redis.load.QueueCapacityMonitor;
+import ru.gx.core.redis.load.ReactiveRedisIncomeCollectionsLoader;
 import ru.gx.core.redis.load.RedisIncomeCollectionsLoader;
+import ru.gx.core.redis.upload.ReactiveRedisOutcomeCollectionsUploader;
 import ru.gx.core.redis.upload.RedisOutcomeCollectionsUploader;
 
+import java.util.concurrent.TimeUnit;
+
 @SuppressWarnings("unused")
 @Configuration
 @EnableConfigurationProperties({ConfigurationPropertiesServiceRedis.class})
 @EnableScheduling
 @ComponentScan("ru.gx.core.redis")
 public class CommonAutoConfiguration {
+    /**
+     * Общие шаблоны Redis-а для конфигураций коллекций (передается в конструкторы конфигураций).
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisTemplatesRegistry redisTemplatesRegistry(@NotNull final ConfigurationPropertiesServiceRedis properties) {
+        return new RedisTemplatesRegistry(properties.getBulkConnectionPool());
+    }
+
+    /**
+     * Общие кодеки значений коллекций для всех загрузчиков и выгрузчиков: кодек приложения регистрируется в нем один раз.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisBinaryCodecs redisBinaryCodecs(@NotNull final ObjectMapper objectMapper) {
+        return new RedisBinaryCodecs(objectMapper);
+    }
+
+    /**
+     * Ожидание места в очереди сообщений, общее для всех загрузчиков. Потребитель очереди вызывает его
+     * {@link QueueCapacityMonitor#signalCapacity()} при взятии каждого сообщения.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public QueueCapacityMonitor queueCapacityMonitor(
+            @NotNull final MessagesPrioritizedQueue messagesPrioritizedQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis properties
+    ) {
+        return new QueueCapacityMonitor(
+                messagesPrioritizedQueue,
+                TimeUnit.MILLISECONDS.toNanos(properties.getIncomeCollections().getQueueRecheckIntervalMs())
+        );
+    }
+
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(value = "service.redis.income-collections.standard-loader.enabled", havingValue = "true")
     public RedisIncomeCollectionsLoader redisIncomeCollectionsLoader(
             @NotNull final ApplicationEventPublisher eventPublisher,
             @NotNull final ObjectMapper objectMapper,
-            @NotNull final MessagesPrioritizedQueue messagesPrioritizedQueue
+            @NotNull final MessagesPrioritizedQueue messagesPrioritizedQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis properties,
+            @NotNull final RedisBinaryCodecs redisBinaryCodecs,
+            @NotNull final QueueCapacityMonitor queueCapacityMonitor
     ) {
-        return new RedisIncomeCollectionsLoader(eventPublisher, objectMapper, messagesPrioritizedQueue);
+        return new RedisIncomeCollectionsLoader(
+                eventPublisher,
+                objectMapper,
+                messagesPrioritizedQueue,
+                properties.getIncomeCollections().getStandardLoader(),
+                properties.getExecution(),
+                redisBinaryCodecs,
+                queueCapacityMonitor
+        );
     }
 
     @Bean
@@ -41,9 +93,50 @@ public class CommonAutoConfiguration {
     public RedisOutcomeCollectionsUploader redisOutcomeCollectionsUploader(
             @NotNull final ObjectMapper objectMapper,
             @NotNull final MessagesFactory messagesFactory,
-            @NotNull final StringRedisTemplate stringRedisTemplate
+            @NotNull final StringRedisTemplate stringRedisTemplate,
+            @NotNull final ConfigurationPropertiesServiceRedis properties,
+            @NotNull final RedisBinaryCodecs redisBinaryCodecs
+    ) {
+        return new RedisOutcomeCollectionsUploader(
+                objectMapper,
+                messagesFactory,
+                stringRedisTemplate,
+                properties.getOutcomeCollections().getStandardUploader(),
+                properties.getExecution(),
+                redisBinaryCodecs
+        );
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "service.redis.income-collections.reactive-loader.enabled", havingValue = "true")
+    public ReactiveRedisIncomeCollectionsLoader reactiveRedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final MessagesPrioritizedQueue messagesPrioritizedQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis properties,
+            @NotNull final RedisBinaryCodecs redisBinaryCodecs,
+            @NotNull final QueueCapacityMonitor queueCapacityMonitor
+    ) {
+        return new ReactiveRedisIncomeCollectionsLoader(
+                eventPublisher,
+                messagesPrioritizedQueue,
+                properties.getIncomeCollections().getReactiveLoader(),
+                redisBinaryCodecs,
+                queueCapacityMonitor
+        );
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "service.redis.outcome-collections.reactive-uploader.enabled", havingValue = "true")
+    public ReactiveRedisOutcomeCollectionsUploader reactiveRedisOutcomeCollectionsUploader(
+            @NotNull final ConfigurationPropertiesServiceRedis properties,
+            @NotNull final RedisBinaryCodecs redisBinaryCodecs
     ) {
-        return new RedisOutcomeCollectionsUploader(objectMapper, messagesFactory, stringRedisTemplate);
+        return new ReactiveRedisOutcomeCollectionsUploader(
+                properties.getOutcomeCollections().getReactiveUploader(),
+                redisBinaryCodecs
+        );
     }
 
     @Bean
@@ -16,19 +16,39 @@ public class ConfigurationPropertiesServiceRedis {
     //    private int port = PORT_DEFAULT;
 
     @NestedConfigurationProperty
-    private IncomeCollections incomeCollections;
+    private IncomeCollections incomeCollections = new IncomeCollections();
 
     @NestedConfigurationProperty
-    private OutcomeCollections outcomeCollections;
+    private OutcomeCollections outcomeCollections = new OutcomeCollections();
 
     @NestedConfigurationProperty
-    private ReloadScheduler reloadScheduler;
+    private ReloadScheduler reloadScheduler = new ReloadScheduler();
+
+    @NestedConfigurationProperty
+    private Execution execution = new Execution();
+
+    @NestedConfigurationProperty
+    private BulkConnectionPool bulkConnectionPool = new BulkConnectionPool();
 
     @Getter
     @Setter
     public static class IncomeCollections {
+        public static final long DEFAULT_QUEUE_RECHECK_INTERVAL_MS = 50;
+
+        /**
+         * Как часто загрузка, ожидающая места в очереди сообщений, сама перепроверяет очередь.<br/>
+         * Очередь не сообщает об освобождении места: ожидающие загрузки будит потребитель очереди, вызывая
+         * {@link ru.gx.core.redis.load.QueueCapacityMonitor#signalCapacity()} (бин
+         * {@link ru.gx.core.redis.load.QueueCapacityMonitor}) при взятии каждого сообщения. Если потребитель этого
+         * не делает, место в очереди обнаруживается с задержкой до этого периода.
+         */
+        private long queueRecheckIntervalMs = DEFAULT_QUEUE_RECHECK_INTERVAL_MS;
+
         @NestedConfigurationProperty
         private StandardLoader standardLoader = new StandardLoader();
+
+        @NestedConfigurationProperty
+        private ReactiveLoader reactiveLoader = new ReactiveLoader();
     }
 
     @Getter
@@ -36,18 +56,80 @@ public class ConfigurationPropertiesServiceRedis {
     public static class OutcomeCollections {
         @NestedConfigurationProperty
         private StandardUploader standardUploader = new StandardUploader();
+
+        @NestedConfigurationProperty
+        private ReactiveUploader reactiveUploader = new ReactiveUploader();
     }
 
     @Getter
     @Setter
     public static class StandardLoader {
+        public static final int DEFAULT_DESERIALIZE_QUEUE_DEPTH = 1024;
+        public static final int DEFAULT_LOADING_THREADS = 4;
+
         private boolean enabled = true;
+
+        /**
+         * Количество потоков, в которых параллельно десериализуются записи коллекций.
+         * 0 - десериализация выполняется в потоке загрузки.
+         */
+        private int deserializeWorkers = 0;
+
+        /**
+         * Максимальное количество записей, одновременно находящихся в десериализации при загрузке одной коллекции.
+         */
+        private int deserializeQueueDepth = DEFAULT_DESERIALIZE_QUEUE_DEPTH;
+
+        /**
+         * Загружать ли коллекции одного приоритета одновременно.
+         */
+        private boolean parallelLoading;
+
+        /**
+         * Количество потоков, в которых одновременно загружаются коллекции одного приоритета.
+         */
+        private int loadingThreads = DEFAULT_LOADING_THREADS;
     }
 
     @Getter
     @Setter
     public static class StandardUploader {
+        public static final int DEFAULT_SHARD_THREADS = 4;
+
         private boolean enabled = true;
+
+        /**
+         * Сколько шардов одной коллекции выгружается одновременно. Каждый выгружаемый шард держит в памяти
+         * свои порции, поэтому значение ограничивает и память выгрузки.
+         */
+        private int shardThreads = DEFAULT_SHARD_THREADS;
+    }
+
+    @Getter
+    @Setter
+    public static class ReactiveLoader {
+        public static final int DEFAULT_PREFETCH = 256;
+
+        private boolean enabled;
+
+        /**
+         * Сколько записей коллекции запрашивается из Redis-а впрок (и одновременно десериализуется)
+         * при потоковой загрузке одной коллекции.
+         */
+        private int prefetch = DEFAULT_PREFETCH;
+    }
+
+    @Getter
+    @Setter
+    public static class ReactiveUploader {
+        public static final int DEFAULT_MAX_IN_FLIGHT_CHUNKS = 2;
+
+        private boolean enabled;
+
+        /**
+         * Сколько порций одной выгрузки может одновременно записываться в Redis.
+         */
+        private int maxInFlightChunks = DEFAULT_MAX_IN_FLIGHT_CHUNKS;
     }
 
     @Getter
@@ -55,5 +137,60 @@ public class ConfigurationPropertiesServiceRedis {
     public static class ReloadScheduler {
         private boolean enabled;
         private String cron;
+
+        /**
+         * Сколько словарей перезагружается одновременно. 1 - последовательная перезагрузка.
+         */
+        private int parallelism = 1;
+
+        /**
+         * Учитывать ли зависимости между словарями ({@link ru.gx.core.redis.RedisDictionary#getDependencies()}).
+         */
+        private boolean respectDependencies = true;
+
+        /**
+         * Загружать ли по расписанию только изменения словарей ({@link ru.gx.core.redis.RedisDictionary#reloadChanges()}).
+         */
+        private boolean incremental;
+    }
+
+    @Getter
+    @Setter
+    public static class Execution {
+        public static final int DEFAULT_FALLBACK_MAX_THREADS = 8;
+
+        /**
+         * Выполнять ли одновременную загрузку коллекций, запись порций выгрузки и перезагрузку словарей
+         * на виртуальных потоках (JDK 21+).
+         */
+        private boolean virtualThreads;
+
+        /**
+         * Если виртуальные потоки включены, но не поддерживаются JDK: максимальное количество обычных потоков
+         * для пулов, которые без виртуальных потоков не ограничены (запись порций выгрузки).
+         */
+        private int fallbackMaxThreads = DEFAULT_FALLBACK_MAX_THREADS;
+    }
+
+    @Getter
+    @Setter
+    public static class BulkConnectionPool {
+        public static final int DEFAULT_MAX_TOTAL = 4;
+
+        /**
+         * Читать ли коллекции целиком (HGETALL, HSCAN, HMGET страницами) через отдельный пул соединений,
+         * а не через общее соединение Lettuce. Требует commons-pool2 в classpath; static master/replica
+         * не поддерживается.<br/>
+         * Действует только на конфигурации коллекций, созданные с {@link ru.gx.core.redis.RedisTemplatesRegistry}
+         * из контекста (конструктор с реестром). Конфигурации, созданные конструктором без реестра, используют общий
+         * {@link ru.gx.core.redis.RedisTemplatesRegistry#getDefault()} без пула, независимо от этой настройки.
+         */
+        private boolean enabled;
+
+        private int maxTotal = DEFAULT_MAX_TOTAL;
+
+        private int maxIdle = DEFAULT_MAX_TOTAL;
+
+        private int minIdle = 0;
     }
 }
@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.gx.core.longtime.LongtimeProcess;
 import ru.gx.core.redis.reload.DictionaryReloadService;
@@ -23,9 +24,9 @@ public class ReloadRestController {
     private final DictionaryReloadService dictionaryReloadService;
 
     @PostMapping("/reload-all")
-    @Operation(summary = "Запускает перезагрузку всех словарей redis.")
-    public LongtimeProcess reloadAll() {
-        log.info("START REST /reload-all");
-        return this.dictionaryReloadService.startReloadProcess(null);
+    @Operation(summary = "Запускает перезагрузку всех словарей redis. full=false - загрузка только изменений.")
+    public LongtimeProcess reloadAll(@RequestParam(name = "full", defaultValue = "true") boolean full) {
+        log.info("START REST /reload-all, full: {}", full);
+        return this.dictionaryReloadService.startReloadProcess(null, full);
     }
 }
@@ -0,0 +1,246 @@
+package ru.gx.core.redis.load;
+
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.messaging.MessagesPrioritizedQueue;
+import ru.gx.core.redis.IncomeBackpressureMode;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Стратегия передачи сообщений в {@link MessagesPrioritizedQueue} при ее переполнении.<br/>
+ * Экземпляр создается на одну загрузку коллекции и используется из одного потока; исключение - стратегии
+ * {@link #createShared(RedisIncomeCollectionLoadingDescriptor, MessagesPrioritizedQueue, QueueCapacityMonitor)}
+ * для передачи отдельных записей, которые ничего не откладывают и могут использоваться из разных потоков.
+ * Суммарное время, проведенное в ожидании места в очереди, доступно через {@link #getStalledNanos()}.
+ */
+@SuppressWarnings("unused")
+public abstract class IncomeBackpressureStrategy {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    @NotNull
+    private final MessagesPrioritizedQueue queue;
+
+    @NotNull
+    private final QueueCapacityMonitor capacityMonitor;
+
+    /**
+     * Суммарное время ожидания места в очереди.
+     */
+    @NotNull
+    private final LongAdder stalledNanos = new LongAdder();
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    protected IncomeBackpressureStrategy(
+            @NotNull final MessagesPrioritizedQueue queue,
+            @NotNull final QueueCapacityMonitor capacityMonitor
+    ) {
+        this.queue = queue;
+        this.capacityMonitor = capacityMonitor;
+    }
+
+    /**
+     * Создание стратегии по настройкам описателя.
+     *
+     * @param descriptor      Описатель канала.
+     * @param queue           Очередь, в которую передаются сообщения.
+     * @param capacityMonitor Ожидание места в очереди.
+     */
+    @NotNull
+    public static IncomeBackpressureStrategy create(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final MessagesPrioritizedQueue queue,
+            @NotNull final QueueCapacityMonitor capacityMonitor
+    ) {
+        final IncomeBackpressureMode mode = descriptor.getBackpressureMode();
+        return switch (mode) {
+            case Blocking -> new BlockingStrategy(queue, capacityMonitor);
+            case Batch -> new BatchStrategy(queue, capacityMonitor, descriptor.getBackpressureBatchSize());
+            case Timeout -> new TimeoutStrategy(
+                    queue,
+                    capacityMonitor,
+                    TimeUnit.MILLISECONDS.toNanos(descriptor.getBackpressureTimeoutMs()),
+                    descriptor.getChannelName()
+            );
+        };
+    }
+
+    /**
+     * Создание стратегии для передачи в очередь отдельных записей, без откладывания сообщений:
+     * {@link IncomeBackpressureMode#Batch} заменяется на {@link IncomeBackpressureMode#Blocking}.
+     * Такую стратегию можно создать один раз на описатель и использовать из разных потоков.
+     *
+     * @param descriptor      Описатель канала.
+     * @param queue           Очередь, в которую передаются сообщения.
+     * @param capacityMonitor Ожидание места в очереди.
+     */
+    @NotNull
+    public static IncomeBackpressureStrategy createShared(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final MessagesPrioritizedQueue queue,
+            @NotNull final QueueCapacityMonitor capacityMonitor
+    ) {
+        if (descriptor.getBackpressureMode() == IncomeBackpressureMode.Batch) {
+            return new BlockingStrategy(queue, capacityMonitor);
+        }
+        return create(descriptor, queue, capacityMonitor);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * @return Суммарное время ожидания места в очереди.
+     */
+    public long getStalledNanos() {
+        return this.stalledNanos.sum();
+    }
+
+    /**
+     * Передача сообщения в очередь (возможно, отложенная).
+     */
+    public abstract void push(int priority, @NotNull Message<MessageBody> message) throws InterruptedException;
+
+    /**
+     * Передача в очередь всех отложенных сообщений. Вызывается по окончании загрузки коллекции.
+     */
+    public void flush() throws InterruptedException {
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    @NotNull
+    protected MessagesPrioritizedQueue getQueue() {
+        return this.queue;
+    }
+
+    /**
+     * Ожидание места в очереди с учетом времени ожидания в {@link #getStalledNanos()}.
+     *
+     * @return true - место в очереди есть, false - истекло время ожидания.
+     */
+    protected boolean awaitCapacity(final long timeoutNanos) throws InterruptedException {
+        if (this.queue.allowPush()) {
+            return true;
+        }
+        final var started = System.nanoTime();
+        try {
+            return this.capacityMonitor.awaitCapacity(timeoutNanos);
+        } finally {
+            this.stalledNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Implementations">
+
+    /**
+     * Блокирующее ожидание места в очереди перед каждым сообщением.
+     */
+    static class BlockingStrategy extends IncomeBackpressureStrategy {
+        BlockingStrategy(@NotNull final MessagesPrioritizedQueue queue, @NotNull final QueueCapacityMonitor capacityMonitor) {
+            super(queue, capacityMonitor);
+        }
+
+        @Override
+        public void push(final int priority, @NotNull final Message<MessageBody> message) throws InterruptedException {
+            awaitCapacity(Long.MAX_VALUE);
+            getQueue().pushMessage(priority, message);
+        }
+    }
+
+    /**
+     * Ожидание места в очереди не дольше заданного времени.
+     */
+    static class TimeoutStrategy extends IncomeBackpressureStrategy {
+        private final long timeoutNanos;
+
+        @NotNull
+        private final String channelName;
+
+        TimeoutStrategy(
+                @NotNull final MessagesPrioritizedQueue queue,
+                @NotNull final QueueCapacityMonitor capacityMonitor,
+                final long timeoutNanos,
+                @NotNull final String channelName
+        ) {
+            super(queue, capacityMonitor);
+            this.timeoutNanos = timeoutNanos;
+            this.channelName = channelName;
+        }
+
+        @Override
+        public void push(final int priority, @NotNull final Message<MessageBody> message) throws InterruptedException {
+            if (!awaitCapacity(this.timeoutNanos)) {
+                throw new RedisIncomeLoadingException(
+                        "Collection: " + this.channelName + "; events queue is full for more than "
+                                + TimeUnit.NANOSECONDS.toMillis(this.timeoutNanos) + " ms"
+                );
+            }
+            getQueue().pushMessage(priority, message);
+        }
+    }
+
+    /**
+     * Накопление сообщений в локальном буфере, пока очередь переполнена.
+     * Буфер досылается в очередь, как только в ней появляется место; поток загрузки блокируется,
+     * только когда буфер заполнен.
+     */
+    static class BatchStrategy extends IncomeBackpressureStrategy {
+        private final int batchSize;
+
+        @NotNull
+        private final ArrayDeque<PendingMessage> pending;
+
+        BatchStrategy(
+                @NotNull final MessagesPrioritizedQueue queue,
+                @NotNull final QueueCapacityMonitor capacityMonitor,
+                final int batchSize
+        ) {
+            super(queue, capacityMonitor);
+            this.batchSize = Math.max(1, batchSize);
+            this.pending = new ArrayDeque<>(this.batchSize);
+        }
+
+        @Override
+        public void push(final int priority, @NotNull final Message<MessageBody> message) throws InterruptedException {
+            drainAvailable();
+            if (this.pending.isEmpty() && getQueue().allowPush()) {
+                getQueue().pushMessage(priority, message);
+                return;
+            }
+            this.pending.addLast(new PendingMessage(priority, message));
+            if (this.pending.size() >= this.batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() throws InterruptedException {
+            while (!this.pending.isEmpty()) {
+                awaitCapacity(Long.MAX_VALUE);
+                drainAvailable();
+            }
+        }
+
+        private void drainAvailable() {
+            while (!this.pending.isEmpty() && getQueue().allowPush()) {
+                final var next = this.pending.pollFirst();
+                getQueue().pushMessage(next.priority(), next.message());
+            }
+        }
+
+        private record PendingMessage(int priority, @NotNull Message<MessageBody> message) {
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,75 @@
+package ru.gx.core.redis.load;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.channels.SerializeMode;
+
+/**
+ * Метрики загрузки одной коллекции. Все метрики имеют теги {@code channel} и {@code serialize-mode}:
+ * <ul>
+ *     <li>{@code redis.loader.fetch} - время получения данных из Redis-а (HGETALL, все страницы HSCAN, HGET, HMGET);</li>
+ *     <li>{@code redis.loader.bytes.read} - объем прочитанных записей (для строк - количество символов);</li>
+ *     <li>{@code redis.loader.deserialize} - время десериализации одной записи;</li>
+ *     <li>{@code redis.loader.records} - количество сообщений за одну загрузку коллекции;</li>
+ *     <li>{@code redis.loader.stalled} - время ожидания места в очереди за одну загрузку коллекции.</li>
+ * </ul>
+ */
+@Getter
+public class IncomeCollectionMetrics {
+    @NotNull
+    private final Timer fetch;
+
+    @NotNull
+    private final Counter bytesRead;
+
+    @NotNull
+    private final Timer deserialize;
+
+    @NotNull
+    private final DistributionSummary records;
+
+    @NotNull
+    private final Timer stalled;
+
+    public IncomeCollectionMetrics(
+            @NotNull final MeterRegistry meterRegistry,
+            @NotNull final String channelName,
+            @NotNull final SerializeMode serializeMode
+    ) {
+        final var tags = Tags.of("channel", channelName, "serialize-mode", serializeMode.name());
+        this.fetch = Timer.builder("redis.loader.fetch")
+                .tags(tags)
+                .register(meterRegistry);
+        this.bytesRead = Counter.builder("redis.loader.bytes.read")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+        this.deserialize = Timer.builder("redis.loader.deserialize")
+                .tags(tags)
+                .register(meterRegistry);
+        this.records = DistributionSummary.builder("redis.loader.records")
+                .tags(tags)
+                .register(meterRegistry);
+        this.stalled = Timer.builder("redis.loader.stalled")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Размер записи: длина массива байт или количество символов строки.
+     */
+    public static long sizeOf(@NotNull final Object record) {
+        if (record instanceof final byte[] bytes) {
+            return bytes.length;
+        }
+        if (record instanceof final String string) {
+            return string.length();
+        }
+        return 0;
+    }
+}
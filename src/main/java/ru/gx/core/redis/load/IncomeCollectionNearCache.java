@@ -0,0 +1,173 @@
+package ru.gx.core.redis.load;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальный кэш записей коллекции с вытеснением давно не использованных записей (LRU) и ограниченным временем жизни
+ * записи с момента ее чтения из Redis-а.<br/>
+ * Хранятся записи в том виде, в каком они прочитаны из Redis-а (строка или массив байт), а не сообщения:
+ * сообщение десериализуется при каждом обращении, поэтому каждый вызывающий получает собственный экземпляр
+ * и не может изменить сообщение, выданное другим.<br/>
+ * Метрики: {@code redis.near-cache.hits}, {@code redis.near-cache.misses}, {@code redis.near-cache.evictions},
+ * {@code redis.near-cache.size} с тегом {@code channel}.
+ */
+public class IncomeCollectionNearCache {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    @NotNull
+    private final LinkedHashMap<String, CachedRecord> entries;
+
+    private final long ttlNanos;
+
+    @NotNull
+    private final MeterRegistry meterRegistry;
+
+    @NotNull
+    private final Counter hits;
+
+    @NotNull
+    private final Counter misses;
+
+    @NotNull
+    private final Counter evictions;
+
+    @NotNull
+    private final Gauge sizeGauge;
+
+    /**
+     * Количество выполненных сбросов записей. Позволяет не положить в кэш запись, прочитанную до ее сброса.
+     */
+    private long invalidationsCount;
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+
+    /**
+     * @param collectionName Имя коллекции (значение тега метрик).
+     * @param maxSize        Максимальное количество записей в кэше.
+     * @param ttlMs          Время жизни записи с момента ее чтения из Redis-а.
+     * @param meterRegistry  Реестр метрик.
+     */
+    public IncomeCollectionNearCache(
+            @NotNull final String collectionName,
+            final int maxSize,
+            final long ttlMs,
+            @NotNull final MeterRegistry meterRegistry
+    ) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.meterRegistry = meterRegistry;
+        this.hits = Counter.builder("redis.near-cache.hits")
+                .tag("channel", collectionName)
+                .register(meterRegistry);
+        this.misses = Counter.builder("redis.near-cache.misses")
+                .tag("channel", collectionName)
+                .register(meterRegistry);
+        this.evictions = Counter.builder("redis.near-cache.evictions")
+                .tag("channel", collectionName)
+                .register(meterRegistry);
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024) * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedRecord> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.sizeGauge = Gauge.builder("redis.near-cache.size", this, IncomeCollectionNearCache::size)
+                .tag("channel", collectionName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Очистка кэша и удаление его метрик из реестра (при деинициализации описателя).
+     */
+    public void close() {
+        invalidateAll();
+        for (final Meter meter : List.of(this.hits, this.misses, this.evictions, this.sizeGauge)) {
+            this.meterRegistry.remove(meter);
+        }
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * @return Запись из кэша или null, если записи с ключом {@code key} в кэше нет или истекло время ее жизни.
+     */
+    @Nullable
+    public synchronized Object get(@NotNull final String key) {
+        final var cached = this.entries.get(key);
+        if (cached != null && System.nanoTime() - cached.readNanos() < this.ttlNanos) {
+            this.hits.increment();
+            return cached.record();
+        }
+        if (cached != null) {
+            this.entries.remove(key);
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * @return Значение, которое надо передать в {@link #put(String, Object, long)} для записи, прочитанной после вызова.
+     */
+    public synchronized long getInvalidationsCount() {
+        return this.invalidationsCount;
+    }
+
+    /**
+     * Помещение записи в кэш, если с момента {@link #getInvalidationsCount()} (перед чтением записи из Redis-а)
+     * не было сбросов, т.е. прочитанная запись заведомо не устарела.
+     *
+     * @param record Запись в том виде, в каком она прочитана из Redis-а.
+     * @return true - запись помещена в кэш.
+     */
+    public synchronized boolean put(
+            @NotNull final String key,
+            @NotNull final Object record,
+            final long invalidationsCountBeforeRead
+    ) {
+        if (this.invalidationsCount != invalidationsCountBeforeRead) {
+            return false;
+        }
+        this.entries.put(key, new CachedRecord(record, System.nanoTime()));
+        return true;
+    }
+
+    public synchronized void invalidate(@NotNull final Collection<String> keys) {
+        this.invalidationsCount++;
+        keys.forEach(this.entries::remove);
+    }
+
+    public synchronized void invalidateAll() {
+        this.invalidationsCount++;
+        this.entries.clear();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    private record CachedRecord(@NotNull Object record, long readNanos) {
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
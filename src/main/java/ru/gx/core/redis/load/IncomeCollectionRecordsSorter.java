@@ -0,0 +1,221 @@
+package ru.gx.core.redis.load;
+
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.redis.IncomeCollectionSortMode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Этап сортировки записей коллекции перед передачей в обработку.<br/>
+ * Пары (ключ, запись) извлекаются из Map-ы один раз, сортируются по ключу одним компаратором для обоих
+ * направлений, после чего повторный поиск записи по ключу не требуется.<br/>
+ * Ключи {@link String} сравниваются лексикографически, {@code byte[]} - побайтно как беззнаковые.
+ * В натуральных режимах ключи, которые все являются целыми числами, сортируются как {@code long},
+ * остальные - с учетом числовых фрагментов.
+ */
+@SuppressWarnings("unused")
+public final class IncomeCollectionRecordsSorter {
+    private static final Comparator<Map.Entry<Object, Object>> KEY_COMPARATOR =
+            (e1, e2) -> compareKeys(e1.getKey(), e2.getKey());
+
+    private static final Comparator<NumericEntry> NUMERIC_COMPARATOR =
+            (e1, e2) -> Long.compare(e1.key(), e2.key());
+
+    private static final Comparator<NaturalEntry> NATURAL_COMPARATOR =
+            (e1, e2) -> compareNatural(e1.key(), e2.key());
+
+    private IncomeCollectionRecordsSorter() {
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Sorting">
+
+    /**
+     * Получение записей коллекции в порядке, заданном {@code sortMode}.
+     *
+     * @param records  Записи коллекции (ключ - значение).
+     * @param sortMode Режим сортировки.
+     * @return Массив записей (значений) в требуемом порядке.
+     */
+    @NotNull
+    public static Object[] sortValues(
+            @NotNull final Map<Object, Object> records,
+            @NotNull final IncomeCollectionSortMode sortMode
+    ) {
+        if (sortMode == IncomeCollectionSortMode.None) {
+            return records.values().toArray();
+        }
+
+        @SuppressWarnings("unchecked") final Map.Entry<Object, Object>[] entries =
+                records.entrySet().toArray(new Map.Entry[0]);
+        final var descending = sortMode == IncomeCollectionSortMode.KeyDesc
+                || sortMode == IncomeCollectionSortMode.KeyNaturalDesc;
+
+        if (sortMode == IncomeCollectionSortMode.KeyAsc || sortMode == IncomeCollectionSortMode.KeyDesc) {
+            Arrays.sort(entries, descending ? KEY_COMPARATOR.reversed() : KEY_COMPARATOR);
+            return valuesOf(entries);
+        }
+
+        final var numericEntries = toNumericEntries(entries);
+        if (numericEntries != null) {
+            Arrays.sort(numericEntries, descending ? NUMERIC_COMPARATOR.reversed() : NUMERIC_COMPARATOR);
+            final var result = new Object[numericEntries.length];
+            for (var i = 0; i < numericEntries.length; i++) {
+                result[i] = numericEntries[i].value();
+            }
+            return result;
+        }
+
+        final var naturalEntries = new NaturalEntry[entries.length];
+        for (var i = 0; i < entries.length; i++) {
+            naturalEntries[i] = new NaturalEntry(keyAsString(entries[i].getKey()), entries[i].getValue());
+        }
+        Arrays.sort(naturalEntries, descending ? NATURAL_COMPARATOR.reversed() : NATURAL_COMPARATOR);
+        final var result = new Object[naturalEntries.length];
+        for (var i = 0; i < naturalEntries.length; i++) {
+            result[i] = naturalEntries[i].value();
+        }
+        return result;
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Comparing">
+
+    /**
+     * Сравнение ключей коллекции: строки - лексикографически, {@code byte[]} - как беззнаковые байты.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareKeys(@NotNull final Object key1, @NotNull final Object key2) {
+        if (key1 instanceof final String s1 && key2 instanceof final String s2) {
+            return s1.compareTo(s2);
+        }
+        if (key1 instanceof final byte[] b1 && key2 instanceof final byte[] b2) {
+            return Arrays.compareUnsigned(b1, b2);
+        }
+        if (key1 instanceof final Comparable c1 && key1.getClass() == key2.getClass()) {
+            return c1.compareTo(key2);
+        }
+        return keyAsString(key1).compareTo(keyAsString(key2));
+    }
+
+    /**
+     * Натуральное сравнение строк: последовательности цифр сравниваются по числовому значению.
+     */
+    public static int compareNatural(@NotNull final String s1, @NotNull final String s2) {
+        final var len1 = s1.length();
+        final var len2 = s2.length();
+        var i = 0;
+        var j = 0;
+        while (i < len1 && j < len2) {
+            final var c1 = s1.charAt(i);
+            final var c2 = s2.charAt(j);
+            if (isDigit(c1) && isDigit(c2)) {
+                // Пропускаем ведущие нули и сравниваем числа сначала по количеству значащих цифр, потом по цифрам.
+                var start1 = i;
+                var start2 = j;
+                while (start1 < len1 && s1.charAt(start1) == '0') {
+                    start1++;
+                }
+                while (start2 < len2 && s2.charAt(start2) == '0') {
+                    start2++;
+                }
+                var end1 = start1;
+                var end2 = start2;
+                while (end1 < len1 && isDigit(s1.charAt(end1))) {
+                    end1++;
+                }
+                while (end2 < len2 && isDigit(s2.charAt(end2))) {
+                    end2++;
+                }
+                final var digits1 = end1 - start1;
+                final var digits2 = end2 - start2;
+                if (digits1 != digits2) {
+                    return Integer.compare(digits1, digits2);
+                }
+                for (var k = 0; k < digits1; k++) {
+                    final var diff = Character.compare(s1.charAt(start1 + k), s2.charAt(start2 + k));
+                    if (diff != 0) {
+                        return diff;
+                    }
+                }
+                final var zeros1 = start1 - i;
+                final var zeros2 = start2 - j;
+                if (zeros1 != zeros2) {
+                    return Integer.compare(zeros1, zeros2);
+                }
+                i = end1;
+                j = end2;
+            } else {
+                if (c1 != c2) {
+                    return Character.compare(c1, c2);
+                }
+                i++;
+                j++;
+            }
+        }
+        return Integer.compare(len1 - i, len2 - j);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    @NotNull
+    private static Object[] valuesOf(@NotNull final Map.Entry<Object, Object>[] entries) {
+        final var result = new Object[entries.length];
+        for (var i = 0; i < entries.length; i++) {
+            result[i] = entries[i].getValue();
+        }
+        return result;
+    }
+
+    /**
+     * @return Массив пар с ключами, разобранными в long, или null, если хотя бы один ключ не является целым числом.
+     */
+    private static NumericEntry[] toNumericEntries(@NotNull final Map.Entry<Object, Object>[] entries) {
+        final var result = new NumericEntry[entries.length];
+        for (var i = 0; i < entries.length; i++) {
+            final var key = entries[i].getKey();
+            final long numericKey;
+            if (key instanceof final Long longKey) {
+                numericKey = longKey;
+            } else if (key instanceof final Integer intKey) {
+                numericKey = intKey;
+            } else {
+                try {
+                    numericKey = Long.parseLong(keyAsString(key));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            result[i] = new NumericEntry(numericKey, entries[i].getValue());
+        }
+        return result;
+    }
+
+    @NotNull
+    private static String keyAsString(@NotNull final Object key) {
+        if (key instanceof final String stringKey) {
+            return stringKey;
+        }
+        if (key instanceof final byte[] bytesKey) {
+            return new String(bytesKey, StandardCharsets.UTF_8);
+        }
+        return key.toString();
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private record NumericEntry(long key, Object value) {
+    }
+
+    private record NaturalEntry(@NotNull String key, Object value) {
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,118 @@
+package ru.gx.core.redis.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Конвейер десериализации записей одной коллекции.<br/>
+ * Записи десериализуются параллельно в {@code executor}-е, но передаются в {@code consumer}
+ * строго в том порядке, в котором были переданы в {@link #push(Object)}.
+ * Количество записей, одновременно находящихся в обработке, ограничено {@code depth}.<br/>
+ * Экземпляр не потокобезопасный: {@link #push(Object)} и {@link #finish()} вызываются из одного потока загрузки.
+ */
+@Slf4j
+class OrderedDeserializationPipeline implements AutoCloseable {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    @NotNull
+    private final Executor executor;
+
+    private final int depth;
+
+    @NotNull
+    private final Function<Object, Message<MessageBody>> deserializer;
+
+    @NotNull
+    private final Consumer<Message<MessageBody>> consumer;
+
+    @NotNull
+    private final ArrayDeque<CompletableFuture<Message<MessageBody>>> inFlight;
+
+    private int messagesCount;
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    OrderedDeserializationPipeline(
+            @NotNull final Executor executor,
+            final int depth,
+            @NotNull final Function<Object, Message<MessageBody>> deserializer,
+            @NotNull final Consumer<Message<MessageBody>> consumer
+    ) {
+        this.executor = executor;
+        this.depth = Math.max(1, depth);
+        this.deserializer = deserializer;
+        this.consumer = consumer;
+        this.inFlight = new ArrayDeque<>(this.depth);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Processing">
+
+    /**
+     * Отправка записи в десериализацию. Если конвейер заполнен, то предварительно в этом потоке
+     * дожидаемся и передаем в обработку самое старое сообщение.
+     *
+     * @param record Запись, полученная из Redis.
+     */
+    void push(@NotNull final Object record) {
+        while (this.inFlight.size() >= this.depth) {
+            deliverHead();
+        }
+        this.inFlight.addLast(CompletableFuture.supplyAsync(() -> this.deserializer.apply(record), this.executor));
+    }
+
+    /**
+     * Дожидаемся десериализации всех оставшихся записей и передаем их в обработку.
+     *
+     * @return Количество сообщений, переданных в обработку за все время работы конвейера.
+     */
+    int finish() {
+        while (!this.inFlight.isEmpty()) {
+            deliverHead();
+        }
+        return this.messagesCount;
+    }
+
+    /**
+     * Отмена всех еще не переданных в обработку записей (например, после ошибки).
+     */
+    @Override
+    public void close() {
+        if (!this.inFlight.isEmpty()) {
+            log.warn("Cancelling {} records in deserialization pipeline", this.inFlight.size());
+            this.inFlight.forEach(future -> future.cancel(false));
+            this.inFlight.clear();
+        }
+    }
+
+    private void deliverHead() {
+        final var future = this.inFlight.pollFirst();
+        if (future == null) {
+            return;
+        }
+        final Message<MessageBody> message;
+        try {
+            message = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+        this.consumer.accept(message);
+        this.messagesCount++;
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -1,5 +1,6 @@
 package ru.gx.core.redis.load;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -8,6 +9,8 @@ import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 @ToString
@@ -22,4 +25,49 @@ public class PublishSnapshotContext {
 
     @Setter
     private int batchSize;
+
+    /**
+     * Количество записей, записанных в коллекцию за время публикации снапшота.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    /**
+     * Количество записей, которые не перезаписывались, т.к. их значения не изменились
+     * (см. {@link ru.gx.core.redis.upload.RedisOutcomeCollectionUploadingDescriptor#isSkipUnchanged()}).
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    /**
+     * Сверены ли уже дайджесты коллекции в этой публикации снапшота.
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final AtomicBoolean digestsValidated = new AtomicBoolean();
+
+    /**
+     * Отметка о сверке дайджестов коллекции (см. {@link ru.gx.core.redis.RedisCollectionDigests}).
+     *
+     * @return true, если в этом контексте дайджесты еще не сверялись (сверить должен вызывающий).
+     */
+    public boolean markDigestsValidated() {
+        return this.digestsValidated.compareAndSet(false, true);
+    }
+
+    public long getWrittenCount() {
+        return this.writtenCount.get();
+    }
+
+    public long getSkippedCount() {
+        return this.skippedCount.get();
+    }
+
+    public void addWrittenCount(final long count) {
+        this.writtenCount.addAndGet(count);
+    }
+
+    public void addSkippedCount(final long count) {
+        this.skippedCount.addAndGet(count);
+    }
 }
\ No newline at end of file
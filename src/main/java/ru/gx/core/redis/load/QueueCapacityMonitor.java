@@ -0,0 +1,176 @@
+package ru.gx.core.redis.load;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.gx.core.messaging.MessagesPrioritizedQueue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ожидание появления места в {@link MessagesPrioritizedQueue}.<br/>
+ * Ожидающие потоки загрузки спят на {@link Condition} и просыпаются по сигналу со стороны потребителя очереди;
+ * реактивные загрузки ({@link #awaitCapacityAsync()}) ждут того же сигнала, не занимая поток.
+ * Очередь сама об освобождении места не сообщает, поэтому контракт такой: потребитель очереди вызывает
+ * {@link #signalCapacity()} каждый раз, когда забирает сообщение из очереди в обработку. Монитор - общий бин
+ * для всех загрузчиков одной очереди, и потребитель получает его из контекста.<br/>
+ * Если потребитель не сигнализирует, то ожидающий поток сам перепроверяет очередь раз в
+ * {@link #getRecheckIntervalNanos()}
+ * ({@link ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis.IncomeCollections#getQueueRecheckIntervalMs()}).
+ */
+@Slf4j
+public class QueueCapacityMonitor {
+    /**
+     * Период перепроверки {@link MessagesPrioritizedQueue#allowPush()} ожидающим потоком при отсутствии сигналов
+     * по умолчанию.
+     */
+    public static final long DEFAULT_RECHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    @NotNull
+    private final MessagesPrioritizedQueue queue;
+
+    /**
+     * Период перепроверки {@link MessagesPrioritizedQueue#allowPush()} ожидающим потоком при отсутствии сигналов.
+     */
+    @Getter
+    private final long recheckIntervalNanos;
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Сигнал ожидающим потокам: в очереди появилось место.
+     */
+    @NotNull
+    private final Condition capacityAvailable = this.lock.newCondition();
+
+    /**
+     * Количество ожидающих потоков. Читается без блокировки, чтобы {@link #signalCapacity()} ничего не стоил,
+     * пока никто не ждет.
+     */
+    private volatile int waitersCount;
+
+    /**
+     * Сигнал реактивным ожидающим: завершается (и заменяется новым) при {@link #signalCapacity()}.
+     */
+    @NotNull
+    private final AtomicReference<Sinks.Empty<Void>> capacitySink = new AtomicReference<>(Sinks.empty());
+
+    /**
+     * Количество реактивных ожидающих.
+     */
+    @NotNull
+    private final AtomicInteger asyncWaitersCount = new AtomicInteger();
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    public QueueCapacityMonitor(@NotNull final MessagesPrioritizedQueue queue) {
+        this(queue, DEFAULT_RECHECK_INTERVAL_NANOS);
+    }
+
+    public QueueCapacityMonitor(@NotNull final MessagesPrioritizedQueue queue, final long recheckIntervalNanos) {
+        this.queue = queue;
+        this.recheckIntervalNanos = Math.max(recheckIntervalNanos, 1);
+    }
+
+    /**
+     * Пробуждение всех ожидающих потоков (они завершат ожидание с прерыванием или перепроверят очередь).
+     */
+    public void shutdown() {
+        signalCapacity();
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Waiting">
+
+    /**
+     * Ожидание появления места в очереди.
+     *
+     * @param timeoutNanos Максимальное время ожидания.
+     * @return true - место в очереди есть, false - истекло время ожидания.
+     */
+    public boolean awaitCapacity(final long timeoutNanos) throws InterruptedException {
+        if (this.queue.allowPush()) {
+            return true;
+        }
+        this.lock.lock();
+        try {
+            this.waitersCount++;
+            var remainingNanos = timeoutNanos;
+            while (!this.queue.allowPush()) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                final var sliceNanos = Math.min(remainingNanos, this.recheckIntervalNanos);
+                final var leftNanos = this.capacityAvailable.awaitNanos(sliceNanos);
+                remainingNanos -= sliceNanos - Math.max(leftNanos, 0);
+            }
+            return true;
+        } finally {
+            this.waitersCount--;
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Неблокирующее ожидание появления места в очереди: Mono завершается, как только
+     * {@link MessagesPrioritizedQueue#allowPush()}. Между проверками поток не занимается: следующую проверку запускает
+     * {@link #signalCapacity()} или, если сигналов нет, таймер {@link #getRecheckIntervalNanos()}.
+     */
+    @NotNull
+    public Mono<Void> awaitCapacityAsync() {
+        return Mono
+                .defer(() -> {
+                    if (this.queue.allowPush()) {
+                        return Mono.just(Boolean.TRUE);
+                    }
+                    this.asyncWaitersCount.incrementAndGet();
+                    // Сигнал берется до повторной проверки очереди: сигнал, поданный после нее, завершит именно его.
+                    final var sink = this.capacitySink.get();
+                    if (this.queue.allowPush()) {
+                        this.asyncWaitersCount.decrementAndGet();
+                        return Mono.just(Boolean.TRUE);
+                    }
+                    return sink.asMono()
+                            .timeout(Duration.ofNanos(this.recheckIntervalNanos), Mono.empty())
+                            .doFinally(signal -> this.asyncWaitersCount.decrementAndGet())
+                            .then(Mono.fromCallable(this.queue::allowPush));
+                })
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(attempts -> attempts)
+                .then();
+    }
+
+    /**
+     * Сигнал со стороны потребителя: из очереди забрано сообщение, и в ней могло появиться место.
+     * Вызывается потребителем очереди после каждого взятого сообщения (см. описание класса).
+     * Пока никто не ждет, вызов сводится к чтению volatile-полей.
+     */
+    public void signalCapacity() {
+        if (this.asyncWaitersCount.get() > 0) {
+            this.capacitySink.getAndSet(Sinks.empty()).tryEmitEmpty();
+        }
+        if (this.waitersCount == 0) {
+            return;
+        }
+        this.lock.lock();
+        try {
+            this.capacityAvailable.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
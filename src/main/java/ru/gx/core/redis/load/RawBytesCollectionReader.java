@@ -0,0 +1,260 @@
+package ru.gx.core.redis.load;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisHashAsyncCommands;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.RedisCodec;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Чтение коллекции с {@link ru.gx.core.channels.SerializeMode#Bytes} через отдельное соединение Lettuce
+ * с собственным кодеком: значение копируется из сетевого буфера Lettuce в {@code byte[]} один раз,
+ * без JDK-десериализации массива.<br/>
+ * Соединение ({@link #connect(LettuceConnectionFactory)}) одно на фабрику соединений и общее для читателей всех
+ * описателей с этой фабрикой; закрывает его загрузчик.<br/>
+ * Ключи кодируются и декодируются сериализаторами шаблона описателя, поэтому данные совместимы с записанными
+ * через {@link org.springframework.data.redis.core.RedisTemplate}. Если значение записано
+ * {@link org.springframework.data.redis.serializer.JdkSerializationRedisSerializer}-ом (как в шаблоне по умолчанию),
+ * то заголовок JDK-сериализации массива пропускается.<br/>
+ * В потоке ввода-вывода Lettuce выполняется только копирование байт; десериализация сообщений - в потоке
+ * загрузки (или конвейера десериализации), чтобы не задерживать остальные ответы на этом соединении.
+ */
+final class RawBytesCollectionReader {
+    /**
+     * Заголовок JDK-сериализации {@code byte[]}: 23 байта описания класса и 4 байта длины массива.
+     */
+    private static final byte[] JDK_BYTE_ARRAY_PREFIX = {
+            (byte) 0xAC, (byte) 0xED, 0x00, 0x05, 0x75, 0x72, 0x00, 0x02, 0x5B, 0x42,
+            (byte) 0xAC, (byte) 0xF3, 0x17, (byte) 0xF8, 0x06, 0x08, 0x54, (byte) 0xE0,
+            0x02, 0x00, 0x00, 0x78, 0x70
+    };
+    private static final int JDK_BYTE_ARRAY_HEADER_LENGTH = JDK_BYTE_ARRAY_PREFIX.length + Integer.BYTES;
+
+    private static final RawBytesCodec CODEC = new RawBytesCodec();
+
+    @NotNull
+    private final RedisSerializer<String> keySerializer;
+
+    @NotNull
+    private final RedisSerializer<String> hashKeySerializer;
+
+    @NotNull
+    private final RedisHashAsyncCommands<byte[], byte[]> commands;
+
+    /**
+     * @param connection Соединение, полученное {@link #connect(LettuceConnectionFactory)}.
+     */
+    @SuppressWarnings("unchecked")
+    RawBytesCollectionReader(
+            @NotNull final StatefulConnection<byte[], byte[]> connection,
+            @NotNull final RedisSerializer<?> keySerializer,
+            @NotNull final RedisSerializer<?> hashKeySerializer
+    ) {
+        this.keySerializer = (RedisSerializer<String>) keySerializer;
+        this.hashKeySerializer = (RedisSerializer<String>) hashKeySerializer;
+        if (connection instanceof final StatefulRedisConnection<byte[], byte[]> standaloneConnection) {
+            this.commands = standaloneConnection.async();
+        } else if (connection instanceof final StatefulRedisClusterConnection<byte[], byte[]> clusterConnection) {
+            this.commands = clusterConnection.async();
+        } else {
+            throw new IllegalStateException("Unsupported Lettuce connection: " + connection);
+        }
+    }
+
+    /**
+     * Соединение с кодеком сырых байт к тому же Redis-у (standalone, sentinel, cluster), что и у клиента
+     * {@code connectionFactory}.
+     *
+     * @return null, если напрямую через клиент фабрики читать нельзя: задан {@code readFrom} (соединение клиента
+     * читает только с master-а) или у клиента нет адреса по умолчанию (static master/replica). Такие описатели
+     * читаются через свой {@link org.springframework.data.redis.core.RedisTemplate}.
+     */
+    @Nullable
+    static StatefulConnection<byte[], byte[]> connect(@NotNull final LettuceConnectionFactory connectionFactory) {
+        if (connectionFactory.getClientConfiguration().getReadFrom().isPresent()) {
+            return null;
+        }
+        final var client = connectionFactory.getNativeClient();
+        try {
+            if (client instanceof final RedisClient redisClient) {
+                return redisClient.connect(CODEC);
+            } else if (client instanceof final RedisClusterClient clusterClient) {
+                return clusterClient.connect(CODEC);
+            }
+        } catch (IllegalStateException e) {
+            // RedisClient без RedisURI по умолчанию: фабрика подключается к узлам static master/replica сама.
+            return null;
+        }
+        return null;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * @return Все записи коллекции (HGETALL): ключ - {@link String}, значение - {@code byte[]}.
+     */
+    @NotNull
+    Map<Object, Object> loadAll(@NotNull final String collectionName) {
+        final var raw = await(this.commands.hgetall(this.keySerializer.serialize(collectionName)));
+        final var records = new LinkedHashMap<Object, Object>(raw.size() * 2);
+        raw.forEach((key, value) -> records.put(this.hashKeySerializer.deserialize(key), value));
+        return records;
+    }
+
+    /**
+     * Чтение коллекции страницами HSCAN; каждая пара (ключ, {@code byte[]}) передается в {@code consumer}.
+     *
+     * @param fetch Таймер, в который записывается суммарное время получения страниц.
+     * @return Количество прочитанных записей.
+     */
+    int scanAll(
+            @NotNull final String collectionName,
+            final int pageSize,
+            @NotNull final Timer fetch,
+            @NotNull final BiConsumer<Object, Object> consumer
+    ) {
+        final var rawName = this.keySerializer.serialize(collectionName);
+        final var args = ScanArgs.Builder.limit(pageSize);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        var recordsCount = 0;
+        var fetchNanos = 0L;
+        while (true) {
+            final var started = System.nanoTime();
+            final var page = await(this.commands.hscan(rawName, cursor, args));
+            fetchNanos += System.nanoTime() - started;
+            for (final var entry : page.getMap().entrySet()) {
+                consumer.accept(this.hashKeySerializer.deserialize(entry.getKey()), entry.getValue());
+                recordsCount++;
+            }
+            if (page.isFinished()) {
+                fetch.record(fetchNanos, TimeUnit.NANOSECONDS);
+                return recordsCount;
+            }
+            cursor = page;
+        }
+    }
+
+    /**
+     * Чтение записей по ключам: HMGET-ы страниц по {@code pageSize} ключей отправляются без ожидания ответов.
+     *
+     * @return Значения ({@code byte[]}) в порядке ключей; null - записи с таким ключом нет.
+     */
+    @NotNull
+    List<Object> multiLoad(
+            @NotNull final String collectionName,
+            @NotNull final List<String> keys,
+            final int pageSize
+    ) {
+        final var rawName = this.keySerializer.serialize(collectionName);
+        final var pages = new ArrayList<RedisFuture<List<KeyValue<byte[], byte[]>>>>();
+        for (var from = 0; from < keys.size(); from += pageSize) {
+            final var to = Math.min(from + pageSize, keys.size());
+            final var rawKeys = new byte[to - from][];
+            for (var i = from; i < to; i++) {
+                rawKeys[i - from] = this.hashKeySerializer.serialize(keys.get(i));
+            }
+            pages.add(this.commands.hmget(rawName, rawKeys));
+        }
+        final var result = new ArrayList<>(keys.size());
+        for (final var page : pages) {
+            for (final var keyValue : await(page)) {
+                result.add(keyValue.hasValue() ? keyValue.getValue() : null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Значение записи с ключом {@code key} или null, если записи нет.
+     */
+    @Nullable
+    byte[] load(@NotNull final String collectionName, @NotNull final String key) {
+        return await(this.commands.hget(
+                this.keySerializer.serialize(collectionName),
+                this.hashKeySerializer.serialize(key)
+        ));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    private static <T> T await(@NotNull final RedisFuture<T> future) {
+        try {
+            return future.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return Смещение значения в буфере: длина заголовка JDK-сериализации массива, если он есть, иначе 0.
+     */
+    private static int jdkHeaderLength(@NotNull final ByteBuffer data) {
+        if (data.remaining() < JDK_BYTE_ARRAY_HEADER_LENGTH) {
+            return 0;
+        }
+        final var position = data.position();
+        for (var i = 0; i < JDK_BYTE_ARRAY_PREFIX.length; i++) {
+            if (data.get(position + i) != JDK_BYTE_ARRAY_PREFIX[i]) {
+                return 0;
+            }
+        }
+        return JDK_BYTE_ARRAY_HEADER_LENGTH;
+    }
+
+    /**
+     * Кодек соединения: ключи - как есть, значения - без заголовка JDK-сериализации массива.
+     */
+    private static final class RawBytesCodec implements RedisCodec<byte[], byte[]> {
+        @Override
+        public byte[] decodeKey(final ByteBuffer bytes) {
+            final var result = new byte[bytes.remaining()];
+            bytes.get(result);
+            return result;
+        }
+
+        @Override
+        public byte[] decodeValue(final ByteBuffer bytes) {
+            final var headerLength = jdkHeaderLength(bytes);
+            final var result = new byte[bytes.remaining() - headerLength];
+            bytes.get(bytes.position() + headerLength, result);
+            return result;
+        }
+
+        @Override
+        public ByteBuffer encodeKey(final byte[] key) {
+            return ByteBuffer.wrap(key);
+        }
+
+        @Override
+        public ByteBuffer encodeValue(final byte[] value) {
+            throw new UnsupportedOperationException("Raw bytes connection is read-only");
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,385 @@
+package ru.gx.core.redis.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.gx.core.channels.ChannelConfigurationException;
+import ru.gx.core.channels.IncomeDataProcessType;
+import ru.gx.core.channels.SerializeMode;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.messaging.MessagesPrioritizedQueue;
+import ru.gx.core.redis.IncomeCollectionLoadMode;
+import ru.gx.core.redis.IncomeCollectionSortMode;
+import ru.gx.core.redis.ReactiveRedisTemplates;
+import ru.gx.core.redis.RedisCollectionShards;
+import ru.gx.core.redis.codec.RedisBinaryCodecs;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * Неблокирующий загрузчик коллекций на {@link ReactiveRedisTemplate}: загрузка не занимает поток
+ * на время ожидания Redis-а, поэтому много коллекций может загружаться одновременно на потоках ввода-вывода Lettuce.<br/>
+ * При {@link IncomeCollectionLoadMode#Scan} коллекция читается через HSCAN по мере запроса данных подписчиком,
+ * впрок запрашивается не более {@link ConfigurationPropertiesServiceRedis.ReactiveLoader#getPrefetch()} записей;
+ * при {@link IncomeCollectionLoadMode#Entries} - одной командой HGETALL (на шард).
+ * Десериализация выполняется на {@link Schedulers#parallel()}.<br/>
+ * Сортировка ({@link RedisIncomeCollectionLoadingDescriptor#getSortMode()}), near-cache, чтение сырых байт
+ * ({@link RedisIncomeCollectionLoadingDescriptor#isRawBytesLoading()}) и инкрементальная загрузка
+ * поддерживаются только {@link RedisIncomeCollectionsLoader}: описатели с ними реактивный загрузчик отвергает.
+ */
+@SuppressWarnings("unused")
+@Slf4j
+public class ReactiveRedisIncomeCollectionsLoader {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+
+    /**
+     * Требуется для непосредственной обработки сообщений.
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Требуется для отправки сообщений в обработку.
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final MessagesPrioritizedQueue eventsQueue;
+
+    /**
+     * Настройки реактивного загрузчика.
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.ReactiveLoader settings;
+
+    /**
+     * Кодеки значений коллекций с {@link SerializeMode#Bytes}.
+     */
+    @Getter
+    @NotNull
+    private final RedisBinaryCodecs binaryCodecs;
+
+    /**
+     * Ожидание появления места в {@code eventsQueue} (общее с {@link RedisIncomeCollectionsLoader}).
+     */
+    @Getter
+    @NotNull
+    private final QueueCapacityMonitor queueCapacityMonitor;
+
+    /**
+     * Конфигурации, на деинициализацию описателей которых подписан загрузчик.
+     */
+    @NotNull
+    private final Set<AbstractRedisIncomeCollectionsConfiguration> observedConfigurations
+            = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Реактивные шаблоны по описателям.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, ReactiveRedisTemplate<String, Object>> templates
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Реактивные шаблоны для служебных ключей коллекций (строковые) по описателям.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, ReactiveRedisTemplate<String, Object>> stringTemplates
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Описатели, количество шардов которых уже сверено при чтении записей по ключам.
+     */
+    @NotNull
+    private final Set<RedisIncomeCollectionLoadingDescriptor> shardsCountChecked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Метрики загрузки по описателям.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, IncomeCollectionMetrics> metrics
+            = new ConcurrentHashMap<>();
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    public ReactiveRedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.ReactiveLoader settings
+    ) {
+        this(eventPublisher, eventsQueue, settings, new RedisBinaryCodecs(objectMapper));
+    }
+
+    public ReactiveRedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.ReactiveLoader settings,
+            @NotNull final RedisBinaryCodecs binaryCodecs
+    ) {
+        this(eventPublisher, eventsQueue, settings, binaryCodecs, new QueueCapacityMonitor(eventsQueue));
+    }
+
+    public ReactiveRedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.ReactiveLoader settings,
+            @NotNull final RedisBinaryCodecs binaryCodecs,
+            @NotNull final QueueCapacityMonitor queueCapacityMonitor
+    ) {
+        this.eventPublisher = eventPublisher;
+        this.eventsQueue = eventsQueue;
+        this.settings = settings;
+        this.binaryCodecs = binaryCodecs;
+        this.queueCapacityMonitor = queueCapacityMonitor;
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * Потоковая загрузка коллекции: сообщения выдаются в темпе подписчика, при {@link IncomeCollectionLoadMode#Scan} -
+     * по мере чтения страниц HSCAN (запись может быть выдана повторно, см. {@link IncomeCollectionLoadMode#Scan}).
+     * Шарды коллекции читаются одновременно, их записи перемешиваются.
+     * Перед чтением сверяется количество шардов ({@link RedisCollectionShards#checkShardsCount(String, int, String)}).
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @return Сообщения коллекции, привязанные к описателю.
+     */
+    @NotNull
+    public Flux<Message<MessageBody>> streamCollection(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        return Flux.defer(() -> {
+            checkDescriptorIsSupported(descriptor);
+            final var prefetch = getSettings().getPrefetch();
+            final var options = ScanOptions.scanOptions()
+                    .count(descriptor.getScanPageSize())
+                    .build();
+            final var scan = descriptor.getLoadMode() == IncomeCollectionLoadMode.Scan;
+            final var template = getTemplate(descriptor);
+            final var hashNames = RedisCollectionShards.getHashNames(descriptor.getChannelName(), descriptor.getShardsCount());
+            return internalCheckShardsCount(descriptor).thenMany(Flux.fromIterable(hashNames))
+                    .flatMap(
+                            hashName -> scan
+                                    ? template.opsForHash().scan(hashName, options)
+                                    : template.opsForHash().entries(hashName),
+                            hashNames.size()
+                    )
+                    .limitRate(prefetch)
+                    .publishOn(Schedulers.parallel(), prefetch)
+                    .map(entry -> internalDeserializeRecord(descriptor, entry.getValue()));
+        });
+    }
+
+    /**
+     * Загрузка коллекции и передача сообщений в обработку. Пока очередь сообщений переполнена,
+     * чтение коллекции приостанавливается (без блокировки потоков).
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @return Количество сообщений, переданных в обработку.
+     */
+    @NotNull
+    public Mono<Integer> processByCollection(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        return Mono.defer(() -> {
+            final var started = System.nanoTime();
+            return streamCollection(descriptor)
+                    .concatMap(message -> internalPushMessage(descriptor, message).thenReturn(message))
+                    .count()
+                    .map(count -> {
+                        getMetrics(descriptor).getRecords().record(count);
+                        log.debug("Collection: {}; processed {} records in {} ms", descriptor.getChannelName(),
+                                count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                        return count.intValue();
+                    });
+        });
+    }
+
+    /**
+     * Чтение одного сообщения коллекции по ключу (без передачи в обработку).
+     *
+     * @return Сообщение или пустой Mono, если записи с таким ключом нет.
+     */
+    @NotNull
+    public Mono<Message<MessageBody>> loadByKey(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final String key
+    ) {
+        return Mono.defer(() -> {
+            checkDescriptorIsSupported(descriptor);
+            final var check = this.shardsCountChecked.contains(descriptor)
+                    ? Mono.<Void>empty()
+                    : internalCheckShardsCount(descriptor);
+            return check.then(getTemplate(descriptor).opsForHash()
+                    .get(RedisCollectionShards.getHashName(descriptor.getChannelName(), key, descriptor.getShardsCount()), key)
+                    .map(record -> internalDeserializeRecord(descriptor, record)));
+        });
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+
+    /**
+     * Проверка, что описатель активен и не требует возможностей, которых у реактивного загрузчика нет.
+     */
+    protected void checkDescriptorIsSupported(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        if (!descriptor.isInitialized()) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName() + " is not" +
+                    " initialized!");
+        }
+        if (!descriptor.isEnabled()) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName() + " is not" +
+                    " enabled!");
+        }
+        if (descriptor.getSortMode() != IncomeCollectionSortMode.None) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName()
+                    + ": sort mode " + descriptor.getSortMode() + " is not supported by reactive loader");
+        }
+        if (descriptor.getNearCacheMaxSize() > 0 || descriptor.isRawBytesLoading()) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName()
+                    + ": near cache and rawBytesLoading are not supported by reactive loader");
+        }
+    }
+
+    /**
+     * Десериализация записи, полученной из Redis, в сообщение.
+     *
+     * @param descriptor Описатель канала.
+     * @param record     Запись, полученная из Redis.
+     * @return Сообщение, привязанное к описателю канала.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    protected Message<MessageBody> internalDeserializeRecord(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Object record
+    ) {
+        final var api = descriptor.getApi();
+        if (api == null) {
+            throw new NullPointerException("descriptor.getApi() is null!");
+        }
+        final var metrics = getMetrics(descriptor);
+        metrics.getBytesRead().increment(IncomeCollectionMetrics.sizeOf(record));
+        final var started = System.nanoTime();
+        final Message<MessageBody> message;
+        try {
+            if (api.getSerializeMode() == SerializeMode.JsonString) {
+                message = getBinaryCodecs().getJsonReader(api.getMessageClass()).readValue((String) record);
+            } else {
+                message = (Message<MessageBody>) getBinaryCodecs().decode((byte[]) record, api.getMessageClass());
+            }
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+        metrics.getDeserialize().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        message.setChannelDescriptor(descriptor);
+        return message;
+    }
+
+    /**
+     * Передача сообщения в обработку. Если очередь переполнена, то передача откладывается до появления в ней места
+     * ({@link QueueCapacityMonitor#awaitCapacityAsync()}), поток при этом не занимается.
+     */
+    @NotNull
+    protected Mono<Void> internalPushMessage(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Message<MessageBody> message
+    ) {
+        if (descriptor.getProcessType() == IncomeDataProcessType.Immediate) {
+            return Mono.fromRunnable(() -> getEventPublisher().publishEvent(message));
+        }
+        return getQueueCapacityMonitor().awaitCapacityAsync()
+                .then(Mono.fromRunnable(() -> getEventsQueue().pushMessage(descriptor.getPriority(), message)));
+    }
+
+    /**
+     * Сверка количества шардов описателя с тем, с которым коллекция выгружена.
+     *
+     * @return Ошибка {@link ChannelConfigurationException}, если коллекция выгружена с другим количеством шардов.
+     */
+    @NotNull
+    protected Mono<Void> internalCheckShardsCount(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        return getStringTemplate(descriptor).opsForValue()
+                .get(RedisCollectionShards.getShardsCountKey(descriptor.getChannelName()))
+                .doOnNext(stored -> RedisCollectionShards.checkShardsCount(
+                        descriptor.getChannelName(),
+                        descriptor.getShardsCount(),
+                        stored.toString()
+                ))
+                .then(Mono.<Void>fromRunnable(() -> this.shardsCountChecked.add(descriptor)));
+    }
+
+    /**
+     * Освобождение шаблонов, метрик и признаков проверок, созданных загрузчиком для описателя.
+     * Вызывается при деинициализации описателя.
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     */
+    public void releaseDescriptor(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        this.templates.remove(descriptor);
+        this.stringTemplates.remove(descriptor);
+        this.metrics.remove(descriptor);
+        this.shardsCountChecked.remove(descriptor);
+    }
+
+    /**
+     * Подписка на деинициализацию описателей конфигурации (один раз на конфигурацию).
+     */
+    private void observeDescriptorsUnInit(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        final var owner = descriptor.getOwner();
+        if (this.observedConfigurations.add(owner)) {
+            owner.addDescriptorUnInitListener(this::releaseDescriptor);
+        }
+    }
+
+    @NotNull
+    private ReactiveRedisTemplate<String, Object> getTemplate(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        return this.templates.computeIfAbsent(descriptor, d -> ReactiveRedisTemplates.fromTemplate(d.getRedisTemplate()));
+    }
+
+    @NotNull
+    private ReactiveRedisTemplate<String, Object> getStringTemplate(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        return this.stringTemplates.computeIfAbsent(
+                descriptor,
+                d -> ReactiveRedisTemplates.fromTemplate(d.getOwner().getJsonStringRedisTemplate())
+        );
+    }
+
+    /**
+     * @return Метрики загрузки коллекции описателя (те же метры, что и у {@link RedisIncomeCollectionsLoader}).
+     */
+    @NotNull
+    protected IncomeCollectionMetrics getMetrics(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        return this.metrics.computeIfAbsent(descriptor, d -> {
+            final var api = d.getApi();
+            if (api == null) {
+                throw new NullPointerException("descriptor.getApi() is null!");
+            }
+            return new IncomeCollectionMetrics(d.getOwner().getMeterRegistry(), d.getChannelName(), api.getSerializeMode());
+        });
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
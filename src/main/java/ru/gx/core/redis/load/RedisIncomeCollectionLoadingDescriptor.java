@@ -10,6 +10,8 @@ import org.springframework.data.redis.core.RedisTemplate;
 import ru.gx.core.channels.*;
 import ru.gx.core.messaging.Message;
 import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.redis.IncomeBackpressureMode;
+import ru.gx.core.redis.IncomeCollectionLoadMode;
 import ru.gx.core.redis.IncomeCollectionSortMode;
 
 import java.security.InvalidParameterException;
@@ -23,6 +25,12 @@ import java.security.InvalidParameterException;
 @ToString
 public class RedisIncomeCollectionLoadingDescriptor
         extends AbstractIncomeChannelHandlerDescriptor {
+    public static final int DEFAULT_SCAN_PAGE_SIZE = 1000;
+    public static final int DEFAULT_BACKPRESSURE_BATCH_SIZE = 256;
+    public static final long DEFAULT_BACKPRESSURE_TIMEOUT_MS = 60_000;
+    public static final int DEFAULT_MAX_DELTA_CHANGES = 100_000;
+    public static final long DEFAULT_NEAR_CACHE_TTL_MS = 60_000;
+
     // -----------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Fields">
 
@@ -30,6 +38,82 @@ public class RedisIncomeCollectionLoadingDescriptor
     @Getter
     private IncomeCollectionSortMode sortMode;
 
+    /**
+     * Способ чтения коллекции: HGETALL целиком или HSCAN страницами.
+     */
+    @NotNull
+    @Getter
+    private IncomeCollectionLoadMode loadMode;
+
+    /**
+     * Размер страницы (COUNT) для HSCAN при {@link IncomeCollectionLoadMode#Scan}.
+     */
+    @Getter
+    private int scanPageSize;
+
+    /**
+     * Поведение при переполнении очереди событий (если обработка не {@link IncomeDataProcessType#Immediate}).
+     * Ожидающую загрузку будит потребитель очереди через {@link QueueCapacityMonitor#signalCapacity()}; без этого
+     * загрузка перепроверяет очередь по таймеру
+     * ({@link ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis.IncomeCollections#getQueueRecheckIntervalMs()}).
+     */
+    @NotNull
+    @Getter
+    private IncomeBackpressureMode backpressureMode;
+
+    /**
+     * Размер локального буфера сообщений при {@link IncomeBackpressureMode#Batch}.
+     */
+    @Getter
+    private int backpressureBatchSize;
+
+    /**
+     * Максимальное время ожидания места в очереди при {@link IncomeBackpressureMode#Timeout}.
+     */
+    @Getter
+    private long backpressureTimeoutMs;
+
+    /**
+     * Максимальное количество изменений, которое загружается инкрементально.
+     * При большем количестве изменений коллекция перечитывается полностью.
+     */
+    @Getter
+    private int maxDeltaChanges;
+
+    /**
+     * Максимальное количество сообщений в локальном кэше ({@link IncomeCollectionNearCache}),
+     * через который выполняется чтение по ключу. 0 - кэш не используется.
+     */
+    @Getter
+    private int nearCacheMaxSize;
+
+    /**
+     * Время жизни записи в локальном кэше с момента ее чтения из Redis-а. Ограничивает время, в течение которого
+     * запись может оставаться устаревшей, если оповещение о ее изменении не было доставлено.
+     */
+    @Getter
+    private long nearCacheTtlMs;
+
+    /**
+     * Чтение коллекции с {@link SerializeMode#Bytes} через отдельное соединение Lettuce, кодек которого
+     * отдает значения без JDK-десериализации массива (см. {@link RawBytesCollectionReader}).
+     * Требует {@link org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory};
+     * с другой фабрикой соединений и для {@link SerializeMode#JsonString} не действует. Соединение одно на фабрику
+     * соединений; фабрики с {@code readFrom} и static master/replica читаются через шаблон, как без этой настройки.
+     */
+    @Getter
+    private boolean rawBytesLoading;
+
+    /**
+     * Количество шардов коллекции ({@link ru.gx.core.redis.RedisCollectionShards}); 1 - коллекция не шардирована.
+     * Должно совпадать с {@link ru.gx.core.redis.upload.RedisOutcomeCollectionUploadingDescriptor#getShardsCount()}
+     * выгрузчика: загрузчик сверяет его с сохраненным выгрузчиком и при расхождении бросает
+     * {@link ru.gx.core.channels.ChannelConfigurationException}. Шарды читаются параллельно, записи объединяются
+     * в порядке {@link #getSortMode()}.
+     */
+    @Getter
+    private int shardsCount;
+
     // </editor-fold>
     // -----------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Initialize">
@@ -40,6 +124,14 @@ public class RedisIncomeCollectionLoadingDescriptor
     ) {
         super(owner, api, defaults);
         this.sortMode = IncomeCollectionSortMode.None;
+        this.loadMode = IncomeCollectionLoadMode.Entries;
+        this.scanPageSize = DEFAULT_SCAN_PAGE_SIZE;
+        this.backpressureMode = IncomeBackpressureMode.Blocking;
+        this.backpressureBatchSize = DEFAULT_BACKPRESSURE_BATCH_SIZE;
+        this.backpressureTimeoutMs = DEFAULT_BACKPRESSURE_TIMEOUT_MS;
+        this.maxDeltaChanges = DEFAULT_MAX_DELTA_CHANGES;
+        this.nearCacheTtlMs = DEFAULT_NEAR_CACHE_TTL_MS;
+        this.shardsCount = 1;
         internalInitDefaults(defaults);
     }
 
@@ -50,13 +142,31 @@ public class RedisIncomeCollectionLoadingDescriptor
     ) {
         super(owner, channelName, defaults);
         this.sortMode = IncomeCollectionSortMode.None;
+        this.loadMode = IncomeCollectionLoadMode.Entries;
+        this.scanPageSize = DEFAULT_SCAN_PAGE_SIZE;
+        this.backpressureMode = IncomeBackpressureMode.Blocking;
+        this.backpressureBatchSize = DEFAULT_BACKPRESSURE_BATCH_SIZE;
+        this.backpressureTimeoutMs = DEFAULT_BACKPRESSURE_TIMEOUT_MS;
+        this.maxDeltaChanges = DEFAULT_MAX_DELTA_CHANGES;
+        this.nearCacheTtlMs = DEFAULT_NEAR_CACHE_TTL_MS;
+        this.shardsCount = 1;
         internalInitDefaults(defaults);
     }
 
     private void internalInitDefaults(@Nullable RedisIncomeCollectionLoadingDescriptorsDefaults defaults) {
         if (defaults != null) {
             this
-                    .setSortMode(defaults.getSortMode());
+                    .setSortMode(defaults.getSortMode())
+                    .setLoadMode(defaults.getLoadMode())
+                    .setScanPageSize(defaults.getScanPageSize())
+                    .setBackpressureMode(defaults.getBackpressureMode())
+                    .setBackpressureBatchSize(defaults.getBackpressureBatchSize())
+                    .setBackpressureTimeoutMs(defaults.getBackpressureTimeoutMs())
+                    .setMaxDeltaChanges(defaults.getMaxDeltaChanges())
+                    .setNearCacheMaxSize(defaults.getNearCacheMaxSize())
+                    .setNearCacheTtlMs(defaults.getNearCacheTtlMs())
+                    .setRawBytesLoading(defaults.isRawBytesLoading())
+                    .setShardsCount(defaults.getShardsCount());
         }
     }
 
@@ -77,6 +187,7 @@ public class RedisIncomeCollectionLoadingDescriptor
     @Override
     @NotNull
     public RedisIncomeCollectionLoadingDescriptor unInit() {
+        this.getOwner().internalNotifyDescriptorUnInit(this);
         this.getOwner().internalUnregisterDescriptor(this);
         super.unInit();
         return this;
@@ -104,12 +215,124 @@ public class RedisIncomeCollectionLoadingDescriptor
         return this.getOwner().getBinaryRedisTemplate();
     }
 
+    /**
+     * @return Шаблон для чтения коллекции целиком (HGETALL, HSCAN, HMGET страницами) - на отдельном пуле соединений,
+     * если он включен, иначе тот же, что и {@link #getRedisTemplate()}.
+     */
+    @NotNull
+    public RedisTemplate<String, ?> getBulkRedisTemplate() {
+        final var api = getApi();
+        if (api == null) {
+            throw new NullPointerException("descriptor.getApi() is null!");
+        }
+
+        if (api.getSerializeMode() == SerializeMode.JsonString) {
+            return this.getOwner().getBulkJsonStringRedisTemplate();
+        }
+        return this.getOwner().getBulkBinaryRedisTemplate();
+    }
+
     @NotNull
     public RedisIncomeCollectionLoadingDescriptor setSortMode(@NotNull final IncomeCollectionSortMode sortMode) {
         this.checkMutable("sortMode");
         this.sortMode = sortMode;
         return this;
     }
+
+    /**
+     * @param loadMode Способ чтения коллекции. {@link IncomeCollectionLoadMode#Scan} без сортировки доставляет записи
+     *                 "хотя бы один раз": HSCAN может вернуть запись повторно, обработка должна быть идемпотентной.
+     */
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setLoadMode(@NotNull final IncomeCollectionLoadMode loadMode) {
+        this.checkMutable("loadMode");
+        this.loadMode = loadMode;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setScanPageSize(final int scanPageSize) {
+        this.checkMutable("scanPageSize");
+        if (scanPageSize <= 0) {
+            throw new InvalidParameterException("scanPageSize must be positive: " + scanPageSize);
+        }
+        this.scanPageSize = scanPageSize;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setBackpressureMode(@NotNull final IncomeBackpressureMode backpressureMode) {
+        this.checkMutable("backpressureMode");
+        this.backpressureMode = backpressureMode;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setBackpressureBatchSize(final int backpressureBatchSize) {
+        this.checkMutable("backpressureBatchSize");
+        if (backpressureBatchSize <= 0) {
+            throw new InvalidParameterException("backpressureBatchSize must be positive: " + backpressureBatchSize);
+        }
+        this.backpressureBatchSize = backpressureBatchSize;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setBackpressureTimeoutMs(final long backpressureTimeoutMs) {
+        this.checkMutable("backpressureTimeoutMs");
+        if (backpressureTimeoutMs <= 0) {
+            throw new InvalidParameterException("backpressureTimeoutMs must be positive: " + backpressureTimeoutMs);
+        }
+        this.backpressureTimeoutMs = backpressureTimeoutMs;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setMaxDeltaChanges(final int maxDeltaChanges) {
+        this.checkMutable("maxDeltaChanges");
+        if (maxDeltaChanges < 0) {
+            throw new InvalidParameterException("maxDeltaChanges must not be negative: " + maxDeltaChanges);
+        }
+        this.maxDeltaChanges = maxDeltaChanges;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setNearCacheMaxSize(final int nearCacheMaxSize) {
+        this.checkMutable("nearCacheMaxSize");
+        if (nearCacheMaxSize < 0) {
+            throw new InvalidParameterException("nearCacheMaxSize must not be negative: " + nearCacheMaxSize);
+        }
+        this.nearCacheMaxSize = nearCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setNearCacheTtlMs(final long nearCacheTtlMs) {
+        this.checkMutable("nearCacheTtlMs");
+        if (nearCacheTtlMs <= 0) {
+            throw new InvalidParameterException("nearCacheTtlMs must be positive: " + nearCacheTtlMs);
+        }
+        this.nearCacheTtlMs = nearCacheTtlMs;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setRawBytesLoading(final boolean rawBytesLoading) {
+        this.checkMutable("rawBytesLoading");
+        this.rawBytesLoading = rawBytesLoading;
+        return this;
+    }
+
+    @NotNull
+    public RedisIncomeCollectionLoadingDescriptor setShardsCount(final int shardsCount) {
+        this.checkMutable("shardsCount");
+        if (shardsCount <= 0) {
+            throw new InvalidParameterException("shardsCount must be positive: " + shardsCount);
+        }
+        this.shardsCount = shardsCount;
+        return this;
+    }
     // </editor-fold>
     // -----------------------------------------------------------------------------------------------------------------
 }
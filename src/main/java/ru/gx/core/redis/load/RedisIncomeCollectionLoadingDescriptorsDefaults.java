@@ -7,6 +7,8 @@ import lombok.ToString;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
 import ru.gx.core.channels.IncomeChannelDescriptorsDefaults;
+import ru.gx.core.redis.IncomeBackpressureMode;
+import ru.gx.core.redis.IncomeCollectionLoadMode;
 import ru.gx.core.redis.IncomeCollectionSortMode;
 
 @Getter
@@ -19,8 +21,48 @@ public class RedisIncomeCollectionLoadingDescriptorsDefaults extends IncomeChann
     @NotNull
     private IncomeCollectionSortMode sortMode;
 
+    @Setter
+    @NotNull
+    private IncomeCollectionLoadMode loadMode;
+
+    @Setter
+    private int scanPageSize;
+
+    @Setter
+    @NotNull
+    private IncomeBackpressureMode backpressureMode;
+
+    @Setter
+    private int backpressureBatchSize;
+
+    @Setter
+    private long backpressureTimeoutMs;
+
+    @Setter
+    private int maxDeltaChanges;
+
+    @Setter
+    private int nearCacheMaxSize;
+
+    @Setter
+    private long nearCacheTtlMs;
+
+    @Setter
+    private boolean rawBytesLoading;
+
+    @Setter
+    private int shardsCount;
+
     protected RedisIncomeCollectionLoadingDescriptorsDefaults() {
         super();
         this.sortMode = IncomeCollectionSortMode.None;
+        this.loadMode = IncomeCollectionLoadMode.Entries;
+        this.scanPageSize = RedisIncomeCollectionLoadingDescriptor.DEFAULT_SCAN_PAGE_SIZE;
+        this.backpressureMode = IncomeBackpressureMode.Blocking;
+        this.backpressureBatchSize = RedisIncomeCollectionLoadingDescriptor.DEFAULT_BACKPRESSURE_BATCH_SIZE;
+        this.backpressureTimeoutMs = RedisIncomeCollectionLoadingDescriptor.DEFAULT_BACKPRESSURE_TIMEOUT_MS;
+        this.maxDeltaChanges = RedisIncomeCollectionLoadingDescriptor.DEFAULT_MAX_DELTA_CHANGES;
+        this.nearCacheTtlMs = RedisIncomeCollectionLoadingDescriptor.DEFAULT_NEAR_CACHE_TTL_MS;
+        this.shardsCount = 1;
     }
 }
@@ -2,25 +2,61 @@ package ru.gx.core.redis.load;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.api.StatefulConnection;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import ru.gx.core.channels.ChannelConfigurationException;
 import ru.gx.core.channels.IncomeDataProcessType;
 import ru.gx.core.channels.SerializeMode;
 import ru.gx.core.messaging.Message;
 import ru.gx.core.messaging.MessageBody;
 import ru.gx.core.messaging.MessagesPrioritizedQueue;
+import ru.gx.core.redis.IncomeCollectionLoadMode;
 import ru.gx.core.redis.IncomeCollectionSortMode;
+import ru.gx.core.redis.RedisCollectionChangelog;
+import ru.gx.core.redis.RedisCollectionInvalidation;
+import ru.gx.core.redis.RedisCollectionShards;
+import ru.gx.core.redis.RedisExecutors;
+import ru.gx.core.redis.codec.RedisBinaryCodecs;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import static lombok.AccessLevel.PROTECTED;
 
@@ -29,10 +65,7 @@ import static lombok.AccessLevel.PROTECTED;
  */
 @SuppressWarnings({"unused", "ClassCanBeRecord"})
 @Slf4j
-@RequiredArgsConstructor
-public class RedisIncomeCollectionsLoader {
-    private final static int MAX_SLEEP_MS = 64;
-
+public class RedisIncomeCollectionsLoader implements DisposableBean {
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Fields">
 
@@ -56,6 +89,216 @@ public class RedisIncomeCollectionsLoader {
     @Getter(PROTECTED)
     @NotNull
     private final MessagesPrioritizedQueue eventsQueue;
+
+    /**
+     * Настройки стандартного загрузчика.
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.StandardLoader settings;
+
+    /**
+     * Настройки потоков выполнения (виртуальные потоки для одновременной загрузки коллекций).
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.Execution execution;
+
+    /**
+     * Кодеки значений коллекций с {@link SerializeMode#Bytes}. Через него приложение может зарегистрировать свой кодек.
+     */
+    @Getter
+    @NotNull
+    private final RedisBinaryCodecs binaryCodecs;
+
+    /**
+     * Пул потоков для параллельной десериализации записей. Создается при первой необходимости.
+     * Десериализация нагружает процессор, а не ждет Redis, поэтому потоки всегда обычные.
+     */
+    @Nullable
+    private volatile ExecutorService deserializeExecutor;
+
+    /**
+     * Пул потоков для одновременной загрузки коллекций одного приоритета. Создается при первой необходимости.
+     * При {@link ConfigurationPropertiesServiceRedis.Execution#isVirtualThreads()} - виртуальные потоки.
+     */
+    @Nullable
+    private volatile ExecutorService loadingExecutor;
+
+    /**
+     * Пул потоков для параллельного чтения шардов коллекций с {@link RedisIncomeCollectionLoadingDescriptor#getShardsCount()} > 1
+     * (не более {@link ConfigurationPropertiesServiceRedis.StandardLoader#getLoadingThreads()} одновременно).
+     * Создается при первой необходимости.
+     */
+    @Nullable
+    private volatile ExecutorService shardExecutor;
+
+    /**
+     * Ожидание появления места в {@code eventsQueue}. Потребитель очереди должен вызывать
+     * {@link QueueCapacityMonitor#signalCapacity()} при взятии сообщения, иначе ожидающие загрузки перепроверяют
+     * очередь по таймеру.
+     */
+    @Getter
+    @NotNull
+    private final QueueCapacityMonitor queueCapacityMonitor;
+
+    /**
+     * Стратегии ожидания места в очереди для передачи отдельных записей
+     * ({@link #internalProcessRecord(RedisIncomeCollectionLoadingDescriptor, Object)}) по описателям.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, IncomeBackpressureStrategy> singleRecordStrategies
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Локальные кэши записей описателей с {@link RedisIncomeCollectionLoadingDescriptor#getNearCacheMaxSize()} > 0
+     * вместе с их подписками на оповещения о сбросе записей.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, NearCacheSubscription> nearCaches
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Конфигурации, на деинициализацию описателей которых подписан загрузчик
+     * (см. {@link #releaseDescriptor(RedisIncomeCollectionLoadingDescriptor)}).
+     */
+    @NotNull
+    private final Set<AbstractRedisIncomeCollectionsConfiguration> observedConfigurations
+            = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Подписки на оповещения о сбросе записей кэшей, по одной на соединение с Redis-ом.
+     */
+    @NotNull
+    private final Map<RedisConnectionFactory, RedisMessageListenerContainer> invalidationListeners
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Метрики загрузки по описателям.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, IncomeCollectionMetrics> metrics
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Читатели описателей с {@link RedisIncomeCollectionLoadingDescriptor#isRawBytesLoading()}.
+     */
+    @NotNull
+    private final Map<RedisIncomeCollectionLoadingDescriptor, RawBytesCollectionReader> rawReaders
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Соединения для чтения сырых байт: по одному на фабрику соединений, общие для всех ее описателей.
+     */
+    @NotNull
+    private final Map<LettuceConnectionFactory, StatefulConnection<byte[], byte[]>> rawConnections
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Фабрики, через клиент которых нельзя читать сырые байты напрямую (см. {@link RawBytesCollectionReader#connect}).
+     */
+    @NotNull
+    private final Set<LettuceConnectionFactory> rawConnectionsUnsupported = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Описатели, количество шардов которых уже сверено при чтении записей по ключам
+     * (см. {@link #internalCheckShardsCount(RedisIncomeCollectionLoadingDescriptor)}).
+     */
+    @NotNull
+    private final Set<RedisIncomeCollectionLoadingDescriptor> shardsCountChecked = ConcurrentHashMap.newKeySet();
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    public RedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesPrioritizedQueue eventsQueue
+    ) {
+        this(eventPublisher, objectMapper, eventsQueue, new ConfigurationPropertiesServiceRedis.StandardLoader());
+    }
+
+    public RedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.StandardLoader settings
+    ) {
+        this(eventPublisher, objectMapper, eventsQueue, settings, new ConfigurationPropertiesServiceRedis.Execution());
+    }
+
+    public RedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.StandardLoader settings,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution
+    ) {
+        this(eventPublisher, objectMapper, eventsQueue, settings, execution, new RedisBinaryCodecs(objectMapper));
+    }
+
+    public RedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.StandardLoader settings,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution,
+            @NotNull final RedisBinaryCodecs binaryCodecs
+    ) {
+        this(
+                eventPublisher,
+                objectMapper,
+                eventsQueue,
+                settings,
+                execution,
+                binaryCodecs,
+                new QueueCapacityMonitor(eventsQueue)
+        );
+    }
+
+    public RedisIncomeCollectionsLoader(
+            @NotNull final ApplicationEventPublisher eventPublisher,
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesPrioritizedQueue eventsQueue,
+            @NotNull final ConfigurationPropertiesServiceRedis.StandardLoader settings,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution,
+            @NotNull final RedisBinaryCodecs binaryCodecs,
+            @NotNull final QueueCapacityMonitor queueCapacityMonitor
+    ) {
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.eventsQueue = eventsQueue;
+        this.settings = settings;
+        this.execution = execution;
+        this.binaryCodecs = binaryCodecs;
+        this.queueCapacityMonitor = queueCapacityMonitor;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        final var executor = this.deserializeExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        final var loadingExecutor = this.loadingExecutor;
+        if (loadingExecutor != null) {
+            loadingExecutor.shutdownNow();
+        }
+        final var shardExecutor = this.shardExecutor;
+        if (shardExecutor != null) {
+            shardExecutor.shutdownNow();
+        }
+        this.queueCapacityMonitor.shutdown();
+        for (final var container : this.invalidationListeners.values()) {
+            container.destroy();
+        }
+        this.invalidationListeners.clear();
+        this.rawReaders.clear();
+        for (final var connection : this.rawConnections.values()) {
+            connection.close();
+        }
+        this.rawConnections.clear();
+    }
+
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="реализация IncomeCollectionsLoader">
@@ -79,29 +322,201 @@ public class RedisIncomeCollectionsLoader {
     @NotNull
     public Map<RedisIncomeCollectionLoadingDescriptor, Integer>
     processAllCollections(@NotNull final AbstractRedisIncomeCollectionsConfiguration configuration) throws InvalidParameterException {
-        final var pCount = configuration.prioritiesCount();
         final var result = new HashMap<RedisIncomeCollectionLoadingDescriptor, Integer>();
+        processAllCollectionsWithStatistics(configuration)
+                .forEach((descriptor, statistics) -> result.put(descriptor, statistics.getMessagesCount()));
+        return result;
+    }
+
+    /**
+     * Чтение объектов из очередей в порядке приоритетов, определенном в конфигурации.<br/>
+     * При {@link ConfigurationPropertiesServiceRedis.StandardLoader#isParallelLoading()} коллекции одного приоритета
+     * загружаются одновременно (не более чем в {@link ConfigurationPropertiesServiceRedis.StandardLoader#getLoadingThreads()}
+     * потоков); загрузка следующего приоритета начинается после завершения загрузки всех коллекций предыдущего.
+     *
+     * @return Map-а, в которой для каждого дескриптора указаны количество сообщений и время загрузки.
+     */
+    @NotNull
+    public Map<RedisIncomeCollectionLoadingDescriptor, RedisIncomeLoadingStatistics>
+    processAllCollectionsWithStatistics(
+            @NotNull final AbstractRedisIncomeCollectionsConfiguration configuration
+    ) throws InvalidParameterException {
+        final var pCount = configuration.prioritiesCount();
+        final var result = new ConcurrentHashMap<RedisIncomeCollectionLoadingDescriptor, RedisIncomeLoadingStatistics>();
         for (int p = 0; p < pCount; p++) {
             final var collectionDescriptors = configuration.getByPriority(p);
             if (collectionDescriptors == null) {
                 throw new ChannelConfigurationException("Invalid null value getByPriority(" + p + ")");
             }
+            final var redisDescriptors = new ArrayList<RedisIncomeCollectionLoadingDescriptor>();
             for (var descriptor : collectionDescriptors) {
                 if (descriptor.isEnabled()) {
                     if (descriptor instanceof final RedisIncomeCollectionLoadingDescriptor redisDescriptor) {
-                        log.debug("Loading working data from collection: {}", descriptor.getChannelName());
-                        final var eventsCount = processByCollection(redisDescriptor);
-                        result.put(redisDescriptor, eventsCount);
-                        log.debug("Loaded working data from collection. Events: {}", redisDescriptor.getChannelName());
+                        redisDescriptors.add(redisDescriptor);
                     } else {
                         throw new ChannelConfigurationException("Invalid class of descriptor " + descriptor.getChannelName());
                     }
                 }
             }
+
+            if (getSettings().isParallelLoading() && redisDescriptors.size() > 1) {
+                internalProcessInParallel(redisDescriptors, result);
+            } else {
+                for (final var redisDescriptor : redisDescriptors) {
+                    result.put(redisDescriptor, internalProcessWithStatistics(redisDescriptor));
+                }
+            }
         }
         return result;
     }
 
+    /**
+     * Чтение одного сообщения коллекции по ключу.<br/>
+     * Если для описателя задан {@link RedisIncomeCollectionLoadingDescriptor#getNearCacheMaxSize()}, то запись
+     * сначала ищется в локальном кэше, а прочитанная из Redis-а - помещается в него. Записи кэша сбрасываются
+     * по оповещениям выгрузчика ({@link RedisCollectionInvalidation}), у которого включен {@code publishInvalidations},
+     * целиком - при каждой (пере)подписке на оповещения, а также устаревают через
+     * {@link RedisIncomeCollectionLoadingDescriptor#getNearCacheTtlMs()} после чтения из Redis-а.
+     * Сообщение десериализуется из записи при каждом вызове, т.е. каждый вызывающий получает свой экземпляр.
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @param key        Ключ записи.
+     * @return Сообщение или null, если записи с таким ключом в коллекции нет.
+     */
+    @Nullable
+    public Message<MessageBody> loadByKey(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final String key
+    ) {
+        checkDescriptorIsActive(descriptor);
+        final var nearCache = getNearCache(descriptor);
+        if (nearCache == null) {
+            final var record = internalLoad(descriptor, key);
+            return record != null ? internalDeserializeRecord(descriptor, record) : null;
+        }
+
+        final var cached = nearCache.get(key);
+        if (cached != null) {
+            return internalDecodeRecord(descriptor, cached);
+        }
+        final var invalidationsCount = nearCache.getInvalidationsCount();
+        final var record = internalLoad(descriptor, key);
+        if (record == null) {
+            return null;
+        }
+        final var message = internalDeserializeRecord(descriptor, record);
+        nearCache.put(key, record, invalidationsCount);
+        return message;
+    }
+
+    /**
+     * Чтение сообщений коллекции по списку ключей: несколько HMGET-ов одним pipeline-ом
+     * (см. {@link #internalMultiLoad(RedisIncomeCollectionLoadingDescriptor, List)}) вместо обращения на каждый ключ.<br/>
+     * Сообщения, найденные в локальном кэше описателя (если он используется), из Redis-а не читаются.
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @param keys       Ключи записей.
+     * @param process    true - сообщения также передаются в обработку, как в {@link #internalProcessRecord}.
+     * @return Сообщения по ключам в порядке {@code keys}; ключей, записей по которым нет, в результате нет.
+     */
+    @SneakyThrows(InterruptedException.class)
+    @NotNull
+    public Map<String, Message<MessageBody>> loadByKeys(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Collection<String> keys,
+            final boolean process
+    ) {
+        checkDescriptorIsActive(descriptor);
+        final var result = new LinkedHashMap<String, Message<MessageBody>>(keys.size() * 2);
+        final var nearCache = getNearCache(descriptor);
+        final var missedKeys = new ArrayList<String>(keys.size());
+        for (final var key : keys) {
+            final var cached = nearCache != null ? nearCache.get(key) : null;
+            // Сохраняем порядок ключей: место под отсутствующие в кэше сообщения резервируется.
+            result.put(key, cached != null ? internalDecodeRecord(descriptor, cached) : null);
+            if (cached == null) {
+                missedKeys.add(key);
+            }
+        }
+
+        final var invalidationsCount = nearCache != null ? nearCache.getInvalidationsCount() : 0L;
+        final var values = internalMultiLoad(descriptor, missedKeys);
+        for (var i = 0; i < missedKeys.size(); i++) {
+            final var key = missedKeys.get(i);
+            final var value = values.get(i);
+            if (value == null) {
+                result.remove(key);
+                continue;
+            }
+            final var message = internalDeserializeRecord(descriptor, value);
+            result.put(key, message);
+            if (nearCache != null) {
+                nearCache.put(key, value, invalidationsCount);
+            }
+        }
+
+        if (process) {
+            final var backpressure = createBackpressureStrategy(descriptor);
+            result.values().forEach(message -> internalPushMessage(descriptor, message, backpressure));
+            backpressure.flush();
+        }
+        return result;
+    }
+
+    /**
+     * Инкрементальная загрузка коллекции: в обработку передаются только записи, измененные после версии
+     * {@code sinceVersion}, по журналу изменений {@link RedisCollectionChangelog}, который ведет выгрузчик
+     * с включенным {@code changeTracking}.<br/>
+     * Коллекция перечитывается полностью, если журнала нет, {@code sinceVersion <= 0},
+     * журнал был сброшен или обрезан после {@code sinceVersion} или изменений больше, чем
+     * {@link RedisIncomeCollectionLoadingDescriptor#getMaxDeltaChanges()}.
+     *
+     * @param descriptor   Описатель загрузки из Коллекции.
+     * @param sinceVersion Версия, полученная в результате предыдущей загрузки.
+     * @return Результат загрузки, в т.ч. версия для следующего вызова и удаленные ключи.
+     */
+    @NotNull
+    public RedisIncomeDeltaResult processChangesSince(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            final long sinceVersion
+    ) {
+        checkDescriptorIsActive(descriptor);
+        final var name = descriptor.getChannelName();
+        final var stringTemplate = descriptor.getOwner().getJsonStringRedisTemplate();
+        final var versions = stringTemplate.opsForValue().multiGet(List.of(
+                RedisCollectionChangelog.getVersionKey(name),
+                RedisCollectionChangelog.getResetVersionKey(name)
+        ));
+        final var version = versions != null ? parseVersion(versions.get(0)) : 0L;
+        final var resetVersion = versions != null ? parseVersion(versions.get(1)) : 0L;
+        if (version <= 0 || sinceVersion <= 0 || sinceVersion < resetVersion || sinceVersion > version) {
+            return internalProcessFull(descriptor, version);
+        }
+        if (sinceVersion == version) {
+            return new RedisIncomeDeltaResult(version, false, 0, List.of());
+        }
+
+        final var changelogKey = RedisCollectionChangelog.getChangelogKey(name);
+        final var changesCount = stringTemplate.opsForZSet().count(changelogKey, sinceVersion + 1, version);
+        if (changesCount == null || changesCount > descriptor.getMaxDeltaChanges()) {
+            log.info("Collection: {}; {} changes since version {}, full reload", name, changesCount, sinceVersion);
+            return internalProcessFull(descriptor, version);
+        }
+
+        final var changedKeys = stringTemplate.opsForZSet().rangeByScore(changelogKey, sinceVersion + 1, version);
+        final var deletedKeys = new ArrayList<String>();
+        final var messagesCount = changedKeys == null || changedKeys.isEmpty()
+                ? 0
+                : internalProcessRecords(descriptor, recordsProcessor -> internalProcessSorted(
+                        descriptor,
+                        internalLoadByKeys(descriptor, new ArrayList<>(changedKeys), deletedKeys),
+                        recordsProcessor
+                ));
+        log.debug("Collection: {}; changes since version {} to {}: {} updated, {} deleted", name, sinceVersion,
+                version, messagesCount, deletedKeys.size());
+        return new RedisIncomeDeltaResult(version, false, messagesCount, deletedKeys);
+    }
+
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Внутренняя реализация">
@@ -120,39 +535,282 @@ public class RedisIncomeCollectionsLoader {
         }
     }
 
+    /**
+     * Загрузка коллекции с замером времени.
+     */
+    @NotNull
+    protected RedisIncomeLoadingStatistics internalProcessWithStatistics(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor
+    ) {
+        log.debug("Loading working data from collection: {}", descriptor.getChannelName());
+        final var started = System.nanoTime();
+        final var eventsCount = processByCollection(descriptor);
+        final var statistics = new RedisIncomeLoadingStatistics(eventsCount, System.nanoTime() - started);
+        log.debug("Loaded working data from collection: {}. Events: {}, elapsed: {} ms", descriptor.getChannelName(),
+                eventsCount, statistics.getElapsedMillis());
+        return statistics;
+    }
+
+    /**
+     * Одновременная загрузка коллекций одного приоритета.
+     * Дожидается загрузки всех коллекций; если какие-то из них завершились ошибкой, то бросается первая из ошибок.
+     */
+    @SneakyThrows
+    private void internalProcessInParallel(
+            @NotNull final List<RedisIncomeCollectionLoadingDescriptor> descriptors,
+            @NotNull final Map<RedisIncomeCollectionLoadingDescriptor, RedisIncomeLoadingStatistics> result
+    ) {
+        final var executor = getLoadingExecutor();
+        final var futures = new ArrayList<CompletableFuture<Void>>(descriptors.size());
+        for (final var descriptor : descriptors) {
+            futures.add(CompletableFuture.runAsync(
+                    () -> result.put(descriptor, internalProcessWithStatistics(descriptor)),
+                    executor
+            ));
+        }
+
+        Throwable error = null;
+        for (final var future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (error == null) {
+                    error = e.getCause() != null ? e.getCause() : e;
+                } else {
+                    error.addSuppressed(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
     /**
      * Обработка входящих данных для указанного канала.
      *
      * @param descriptor Описатель загрузки из Топика.
      * @return Список событий на обработку.
      */
-    @SneakyThrows
     protected int internalProcessDescriptor(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
-        // TODO: Добавить сбор статистики
-        final var records = internalLoadAll(descriptor);
+        return internalProcessRecords(descriptor, recordsProcessor -> {
+            if (descriptor.getLoadMode() == IncomeCollectionLoadMode.Scan
+                    && descriptor.getSortMode() == IncomeCollectionSortMode.None) {
+                // Без сортировки записи можно обрабатывать по мере получения страниц HSCAN-а, не держа всю коллекцию в памяти.
+                return internalScanAll(descriptor, (key, rec) -> recordsProcessor.accept(rec));
+            }
+            return internalProcessSorted(descriptor, internalLoadAll(descriptor), recordsProcessor);
+        });
+    }
 
-        var messagesCount = 0;
+    /**
+     * Обработка записей, которые поставляет {@code source}: десериализация (при необходимости - конвейером)
+     * и передача сообщений в обработку с учетом стратегии ожидания места в очереди.
+     *
+     * @param descriptor Описатель канала.
+     * @param source     Источник записей: передает каждую запись в полученный обработчик, возвращает количество записей.
+     * @return Количество сообщений, переданных в обработку.
+     */
+    @SneakyThrows
+    private int internalProcessRecords(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final ToIntFunction<Consumer<Object>> source
+    ) {
+        final var backpressure = createBackpressureStrategy(descriptor);
+        final var pipeline = createDeserializationPipeline(descriptor, backpressure);
+        try {
+            final Consumer<Object> recordsProcessor = pipeline != null
+                    ? pipeline::push
+                    : rec -> internalProcessRecord(descriptor, rec, backpressure);
 
-        if (descriptor.getSortMode() == IncomeCollectionSortMode.None) {
-            for (var rec : records.values()) {
-                internalProcessRecord(descriptor, rec);
-                messagesCount++;
+            var messagesCount = source.applyAsInt(recordsProcessor);
+            if (pipeline != null) {
+                messagesCount = pipeline.finish();
             }
-        } else {
-            Object[] sortedKeys;
-            if (descriptor.getSortMode() == IncomeCollectionSortMode.KeyAsc) {
-                sortedKeys = records.keySet().stream().sorted().toArray();
+            backpressure.flush();
+            logStalled(descriptor, backpressure);
+            final var metrics = getMetrics(descriptor);
+            metrics.getRecords().record(messagesCount);
+            metrics.getStalled().record(backpressure.getStalledNanos(), TimeUnit.NANOSECONDS);
+            return messagesCount;
+        } finally {
+            if (pipeline != null) {
+                pipeline.close();
+            }
+        }
+    }
+
+    private int internalProcessSorted(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Map<Object, Object> records,
+            @NotNull final Consumer<Object> recordsProcessor
+    ) {
+        var recordsCount = 0;
+        for (var rec : internalSortRecords(descriptor, records)) {
+            recordsProcessor.accept(rec);
+            recordsCount++;
+        }
+        return recordsCount;
+    }
+
+    /**
+     * Полная загрузка коллекции в рамках инкрементальной: версия коллекции читается до загрузки,
+     * поэтому изменения, выполненные во время загрузки, будут повторно получены следующим вызовом.
+     */
+    @NotNull
+    private RedisIncomeDeltaResult internalProcessFull(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            final long version
+    ) {
+        final var messagesCount = internalProcessDescriptor(descriptor);
+        return new RedisIncomeDeltaResult(version, true, messagesCount, List.of());
+    }
+
+    /**
+     * Загрузка записей коллекции по списку ключей командами HMGET страницами по
+     * {@link RedisIncomeCollectionLoadingDescriptor#getScanPageSize()} ключей.
+     *
+     * @param descriptor  Описатель канала.
+     * @param keys        Ключи записей.
+     * @param deletedKeys Сюда добавляются ключи, записей по которым в коллекции нет.
+     * @return Найденные записи в порядке ключей.
+     */
+    @NotNull
+    protected Map<Object, Object> internalLoadByKeys(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final List<String> keys,
+            @NotNull final List<String> deletedKeys
+    ) {
+        final var values = internalMultiLoad(descriptor, keys);
+        final var records = new LinkedHashMap<Object, Object>(keys.size() * 2);
+        for (var i = 0; i < keys.size(); i++) {
+            final var value = values.get(i);
+            if (value != null) {
+                records.put(keys.get(i), value);
             } else {
-                sortedKeys = records.keySet().stream().sorted((o1, o2) -> -o1.toString().compareTo(o2.toString())).toArray();
+                deletedKeys.add(keys.get(i));
             }
-            for (var key : sortedKeys) {
-                final var rec = records.get(key);
-                internalProcessRecord(descriptor, rec);
-                messagesCount++;
+        }
+        return records;
+    }
+
+    /**
+     * Получение из Redis-а записей коллекции по списку ключей.<br/>
+     * Ключи разбиваются на страницы по {@link RedisIncomeCollectionLoadingDescriptor#getScanPageSize()},
+     * HMGET-ы всех страниц отправляются одним pipeline-ом.
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @param keys       Ключи записей.
+     * @return Записи в порядке ключей; null - записи с таким ключом в коллекции нет.
+     */
+    @NotNull
+    protected List<Object> internalMultiLoad(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final List<String> keys
+    ) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        checkShardsCountOnce(descriptor);
+        final var shardsCount = descriptor.getShardsCount();
+        if (shardsCount <= 1) {
+            return internalMultiLoadHash(descriptor, descriptor.getChannelName(), keys);
+        }
+        // Ключи читаются из своих шардов параллельно, результаты расставляются по исходным позициям ключей.
+        final var shardIndexes = RedisCollectionShards.partitionIndexes(keys, shardsCount);
+        final var shardNames = RedisCollectionShards.getHashNames(descriptor.getChannelName(), shardsCount);
+        final var futures = new ArrayList<CompletableFuture<List<Object>>>(shardsCount);
+        for (var shard = 0; shard < shardsCount; shard++) {
+            final var indexes = shardIndexes.get(shard);
+            final var hashName = shardNames.get(shard);
+            final var shardKeys = new ArrayList<String>(indexes.size());
+            indexes.forEach(i -> shardKeys.add(keys.get(i)));
+            futures.add(shardKeys.isEmpty()
+                    ? CompletableFuture.completedFuture(List.of())
+                    : CompletableFuture.supplyAsync(() -> internalMultiLoadHash(descriptor, hashName, shardKeys), getShardExecutor()));
+        }
+        final var result = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        for (var shard = 0; shard < shardsCount; shard++) {
+            final var indexes = shardIndexes.get(shard);
+            final List<Object> values;
+            try {
+                values = futures.get(shard).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof final RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+            for (var i = 0; i < indexes.size(); i++) {
+                result.set(indexes.get(i), values.get(i));
             }
         }
+        return result;
+    }
 
-        return messagesCount;
+    /**
+     * Чтение записей одного HASH-а (коллекции или ее шарда) по ключам: HMGET-ы страниц отправляются конвейером.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private List<Object> internalMultiLoadHash(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final List<String> keys
+    ) {
+        final var rawReader = getRawReader(descriptor);
+        if (rawReader != null) {
+            final var fetch = getMetrics(descriptor).getFetch();
+            return Objects.requireNonNull(fetch.record(
+                    () -> rawReader.multiLoad(hashName, keys, descriptor.getScanPageSize())
+            ));
+        }
+        final var template = descriptor.getBulkRedisTemplate();
+        final var keySerializer = (RedisSerializer<String>) template.getKeySerializer();
+        final var hashKeySerializer = (RedisSerializer<String>) template.getHashKeySerializer();
+        final var rawName = keySerializer.serialize(hashName);
+        final var pageSize = descriptor.getScanPageSize();
+
+        final var started = System.nanoTime();
+        final var pages = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (var from = 0; from < keys.size(); from += pageSize) {
+                final var to = Math.min(from + pageSize, keys.size());
+                final var rawKeys = new byte[to - from][];
+                for (var i = from; i < to; i++) {
+                    rawKeys[i - from] = hashKeySerializer.serialize(keys.get(i));
+                }
+                connection.hashCommands().hMGet(rawName, rawKeys);
+            }
+            return null;
+        }, template.getHashValueSerializer());
+        getMetrics(descriptor).getFetch().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        final var result = new ArrayList<>(keys.size());
+        for (final var page : pages) {
+            result.addAll((List<Object>) page);
+        }
+        log.debug("Collection: {}; loaded {} values by {} keys in {} pages", hashName,
+                result.stream().filter(Objects::nonNull).count(), keys.size(), pages.size());
+        return result;
+    }
+
+    private static long parseVersion(@Nullable final String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    /**
+     * Упорядочивание записей коллекции в соответствии с {@link RedisIncomeCollectionLoadingDescriptor#getSortMode()}.
+     *
+     * @param descriptor Описатель канала.
+     * @param records    Записи коллекции.
+     * @return Записи в порядке обработки.
+     */
+    @NotNull
+    protected Object[] internalSortRecords(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Map<Object, Object> records
+    ) {
+        return IncomeCollectionRecordsSorter.sortValues(records, descriptor.getSortMode());
     }
 
     /**
@@ -166,39 +824,404 @@ public class RedisIncomeCollectionsLoader {
      * @param descriptor Описатель канала.
      * @param record     Запись, полученная из Redis.
      */
-    @SuppressWarnings({"BusyWait", "unchecked"})
-    @SneakyThrows({InterruptedException.class, JsonProcessingException.class, IOException.class})
     protected void internalProcessRecord(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor, @NotNull final Object record) {
+        internalProcessRecord(
+                descriptor,
+                record,
+                this.singleRecordStrategies.computeIfAbsent(
+                        descriptor,
+                        d -> IncomeBackpressureStrategy.createShared(d, getEventsQueue(), getQueueCapacityMonitor())
+                )
+        );
+    }
+
+    /**
+     * Обработка записи в рамках загрузки коллекции: стратегия {@code backpressure} создается один раз на загрузку
+     * ({@link #createBackpressureStrategy(RedisIncomeCollectionLoadingDescriptor)}), и по окончании загрузки
+     * у нее вызывается {@link IncomeBackpressureStrategy#flush()}.
+     *
+     * @param descriptor   Описатель канала.
+     * @param record       Запись, полученная из Redis.
+     * @param backpressure Стратегия ожидания места в очереди.
+     */
+    protected void internalProcessRecord(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Object record,
+            @NotNull final IncomeBackpressureStrategy backpressure
+    ) {
+        internalPushMessage(descriptor, internalDeserializeRecord(descriptor, record), backpressure);
+    }
+
+    /**
+     * Десериализация записи, полученной из Redis, в сообщение.<br/>
+     * Метод может вызываться одновременно из нескольких потоков конвейера десериализации.
+     *
+     * @param descriptor Описатель канала.
+     * @param record     Запись, полученная из Redis.
+     * @return Сообщение, привязанное к описателю канала.
+     */
+    @NotNull
+    protected Message<MessageBody> internalDeserializeRecord(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Object record
+    ) {
+        getMetrics(descriptor).getBytesRead().increment(IncomeCollectionMetrics.sizeOf(record));
+        return internalDecodeRecord(descriptor, record);
+    }
+
+    /**
+     * Десериализация записи в сообщение без учета прочитанных байт в метриках
+     * (в т.ч. для записей, взятых из локального кэша).
+     *
+     * @param descriptor Описатель канала.
+     * @param record     Запись, полученная из Redis.
+     * @return Сообщение, привязанное к описателю канала.
+     */
+    @SuppressWarnings("unchecked")
+    @SneakyThrows({JsonProcessingException.class, IOException.class})
+    @NotNull
+    protected Message<MessageBody> internalDecodeRecord(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Object record
+    ) {
         Message<MessageBody> message;
         final var api = descriptor.getApi();
         if (api == null) {
             throw new NullPointerException("descriptor.getApi() is null!");
         }
+        final var started = System.nanoTime();
 
         if (descriptor.getApi().getSerializeMode() == SerializeMode.JsonString) {
             final var strValue = (String) record;
-            message = (Message<MessageBody>) getObjectMapper().readValue(strValue, descriptor.getApi().getMessageClass());
+            message = getBinaryCodecs().getJsonReader(descriptor.getApi().getMessageClass()).readValue(strValue);
         } else {
-            final var strValue = (byte[]) record;
-            message = (Message<MessageBody>) getObjectMapper().readValue(strValue, descriptor.getApi().getMessageClass());
+            final var bytesValue = (byte[]) record;
+            message = (Message<MessageBody>) getBinaryCodecs().decode(bytesValue, descriptor.getApi().getMessageClass());
         }
+        getMetrics(descriptor).getDeserialize().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         message.setChannelDescriptor(descriptor);
+        return message;
+    }
 
+    /**
+     * Передача десериализованного сообщения в обработку: либо непосредственно в этом потоке,
+     * либо через {@code eventsQueue} с учетом стратегии {@code backpressure}.
+     *
+     * @param descriptor   Описатель канала.
+     * @param message      Сообщение.
+     * @param backpressure Стратегия ожидания места в очереди.
+     */
+    @SneakyThrows(InterruptedException.class)
+    protected void internalPushMessage(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Message<MessageBody> message,
+            @NotNull final IncomeBackpressureStrategy backpressure
+    ) {
         if (descriptor.getProcessType() == IncomeDataProcessType.Immediate) {
             // Если обработка непосредственная, то прям в этом потоке вызываем обработчик(и) события.
             getEventPublisher().publishEvent(message);
         } else {
-            // Перед тем, как положить в очередь требуется дождаться "зеленного сигнала".
-            var sleepMs = 1;
-            while (!getEventsQueue().allowPush()) {
-                Thread.sleep(sleepMs);
-                if (sleepMs < MAX_SLEEP_MS) {
-                    sleepMs *= 2;
+            // Стратегия дожидается "зеленного сигнала" очереди (или откладывает сообщение) и бросает событие в очередь.
+            backpressure.push(descriptor.getPriority(), message);
+        }
+    }
+
+    /**
+     * Создание стратегии ожидания места в очереди для одной загрузки коллекции.
+     *
+     * @param descriptor Описатель канала.
+     */
+    @NotNull
+    protected IncomeBackpressureStrategy createBackpressureStrategy(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor
+    ) {
+        return IncomeBackpressureStrategy.create(descriptor, getEventsQueue(), getQueueCapacityMonitor());
+    }
+
+    private void logStalled(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final IncomeBackpressureStrategy backpressure
+    ) {
+        final var stalledMs = TimeUnit.NANOSECONDS.toMillis(backpressure.getStalledNanos());
+        if (stalledMs > 0) {
+            log.info("Collection: {}; stalled on events queue: {} ms", descriptor.getChannelName(), stalledMs);
+        }
+    }
+
+    /**
+     * Создание конвейера параллельной десериализации, если он включен в настройках загрузчика.
+     *
+     * @param descriptor   Описатель канала.
+     * @param backpressure Стратегия ожидания места в очереди.
+     * @return Конвейер или null, если десериализация выполняется в потоке загрузки.
+     */
+    @Nullable
+    private OrderedDeserializationPipeline createDeserializationPipeline(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final IncomeBackpressureStrategy backpressure
+    ) {
+        if (getSettings().getDeserializeWorkers() <= 0) {
+            return null;
+        }
+        return new OrderedDeserializationPipeline(
+                getDeserializeExecutor(),
+                getSettings().getDeserializeQueueDepth(),
+                rec -> internalDeserializeRecord(descriptor, rec),
+                message -> internalPushMessage(descriptor, message, backpressure)
+        );
+    }
+
+    @NotNull
+    private ExecutorService getLoadingExecutor() {
+        var executor = this.loadingExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.loadingExecutor;
+                if (executor == null) {
+                    executor = RedisExecutors.newBoundedExecutor(
+                            "redis-loader-collection-",
+                            getSettings().getLoadingThreads(),
+                            getExecution()
+                    );
+                    this.loadingExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @NotNull
+    private ExecutorService getDeserializeExecutor() {
+        var executor = this.deserializeExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.deserializeExecutor;
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(
+                            getSettings().getDeserializeWorkers(),
+                            RedisExecutors.createDaemonThreadFactory("redis-loader-deserializer-")
+                    );
+                    this.deserializeExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @NotNull
+    private ExecutorService getShardExecutor() {
+        var executor = this.shardExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.shardExecutor;
+                if (executor == null) {
+                    executor = RedisExecutors.newBoundedExecutor(
+                            "redis-loader-shard-",
+                            getSettings().getLoadingThreads(),
+                            getExecution()
+                    );
+                    this.shardExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Параллельное чтение шардов коллекции.
+     * Дожидается чтения всех шардов; если какие-то из них завершились ошибкой, то бросается первая из ошибок.
+     *
+     * @param descriptor  Описатель загрузки из Коллекции.
+     * @param shardReader Чтение шарда по имени его HASH-а.
+     * @return Результаты чтения по номерам шардов.
+     */
+    @SneakyThrows
+    @NotNull
+    private <T> List<T> readShards(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final Function<String, T> shardReader
+    ) {
+        final var executor = getShardExecutor();
+        final var hashNames = RedisCollectionShards.getHashNames(descriptor.getChannelName(), descriptor.getShardsCount());
+        final var futures = new ArrayList<CompletableFuture<T>>(hashNames.size());
+        for (final var hashName : hashNames) {
+            futures.add(CompletableFuture.supplyAsync(() -> shardReader.apply(hashName), executor));
+        }
+
+        final var result = new ArrayList<T>(futures.size());
+        Throwable error = null;
+        for (final var future : futures) {
+            try {
+                result.add(future.join());
+            } catch (CompletionException e) {
+                if (error == null) {
+                    error = e.getCause() != null ? e.getCause() : e;
+                } else {
+                    error.addSuppressed(e.getCause() != null ? e.getCause() : e);
                 }
             }
-            // Собственно только теперь бросаем событие в очередь
-            getEventsQueue().pushMessage(descriptor.getPriority(), message);
         }
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    /**
+     * @return Метрики загрузки коллекции описателя.
+     */
+    @NotNull
+    protected IncomeCollectionMetrics getMetrics(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        return this.metrics.computeIfAbsent(descriptor, d -> {
+            final var api = d.getApi();
+            if (api == null) {
+                throw new NullPointerException("descriptor.getApi() is null!");
+            }
+            return new IncomeCollectionMetrics(d.getOwner().getMeterRegistry(), d.getChannelName(), api.getSerializeMode());
+        });
+    }
+
+    /**
+     * @return Соединение для чтения описателя без JDK-десериализации значений или null,
+     * если описатель читается через свой {@link org.springframework.data.redis.core.RedisTemplate}.
+     */
+    @Nullable
+    private RawBytesCollectionReader getRawReader(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        final var api = descriptor.getApi();
+        if (!descriptor.isRawBytesLoading() || api == null || api.getSerializeMode() != SerializeMode.Bytes) {
+            return null;
+        }
+        final var template = descriptor.getRedisTemplate();
+        if (!(template.getConnectionFactory() instanceof final LettuceConnectionFactory connectionFactory)
+                || this.rawConnectionsUnsupported.contains(connectionFactory)) {
+            return null;
+        }
+        final var reader = this.rawReaders.get(descriptor);
+        if (reader != null) {
+            return reader;
+        }
+        final var connection = getRawConnection(connectionFactory);
+        if (connection == null) {
+            return null;
+        }
+        return this.rawReaders.computeIfAbsent(descriptor, d -> {
+            observeDescriptorsUnInit(d);
+            return new RawBytesCollectionReader(connection, template.getKeySerializer(), template.getHashKeySerializer());
+        });
+    }
+
+    /**
+     * @return Общее для описателей фабрики соединение для чтения сырых байт или null, если через клиент фабрики
+     * читать напрямую нельзя (тогда описатели читаются через шаблон).
+     */
+    @Nullable
+    private StatefulConnection<byte[], byte[]> getRawConnection(@NotNull final LettuceConnectionFactory connectionFactory) {
+        final var connection = this.rawConnections.computeIfAbsent(connectionFactory, RawBytesCollectionReader::connect);
+        if (connection == null && this.rawConnectionsUnsupported.add(connectionFactory)) {
+            log.info("Raw bytes loading is not supported by {} (readFrom or static master/replica); "
+                    + "collections are loaded through RedisTemplate", connectionFactory);
+        }
+        return connection;
+    }
+
+    /**
+     * @return Локальный кэш записей описателя или null, если для описателя кэш не используется.
+     */
+    @Nullable
+    protected IncomeCollectionNearCache getNearCache(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        if (descriptor.getNearCacheMaxSize() <= 0) {
+            return null;
+        }
+        return this.nearCaches.computeIfAbsent(descriptor, this::createNearCache).getNearCache();
+    }
+
+    /**
+     * Освобождение ресурсов, созданных загрузчиком для описателя: локального кэша с подпиской на оповещения,
+     * соединения для чтения сырых байт и стратегии ожидания места в очереди.
+     * Вызывается при деинициализации описателя.
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     */
+    public void releaseDescriptor(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        final var subscription = this.nearCaches.remove(descriptor);
+        if (subscription != null) {
+            subscription.close();
+            log.info("Collection: {}; near cache released", descriptor.getChannelName());
+        }
+        this.rawReaders.remove(descriptor);
+        this.singleRecordStrategies.remove(descriptor);
+        this.shardsCountChecked.remove(descriptor);
+    }
+
+    /**
+     * Сверка количества шардов описателя с тем, с которым коллекция выгружена
+     * ({@link RedisCollectionShards#checkShardsCount}).
+     * Полная загрузка сверяет его каждый раз, чтение по ключам - один раз на описатель.
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @throws ChannelConfigurationException Коллекция выгружена с другим количеством шардов.
+     */
+    protected void internalCheckShardsCount(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        RedisCollectionShards.checkShardsCount(
+                descriptor.getOwner().getJsonStringRedisTemplate(),
+                descriptor.getChannelName(),
+                descriptor.getShardsCount()
+        );
+        if (this.shardsCountChecked.add(descriptor)) {
+            observeDescriptorsUnInit(descriptor);
+        }
+    }
+
+    private void checkShardsCountOnce(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        if (!this.shardsCountChecked.contains(descriptor)) {
+            internalCheckShardsCount(descriptor);
+        }
+    }
+
+    /**
+     * Подписка на деинициализацию описателей конфигурации (один раз на конфигурацию).
+     */
+    private void observeDescriptorsUnInit(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        final var owner = descriptor.getOwner();
+        if (this.observedConfigurations.add(owner)) {
+            owner.addDescriptorUnInitListener(this::releaseDescriptor);
+        }
+    }
+
+    @NotNull
+    private NearCacheSubscription createNearCache(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        final var owner = descriptor.getOwner();
+        final var nearCache = new IncomeCollectionNearCache(
+                descriptor.getChannelName(),
+                descriptor.getNearCacheMaxSize(),
+                descriptor.getNearCacheTtlMs(),
+                owner.getMeterRegistry()
+        );
+        final var container = this.invalidationListeners.computeIfAbsent(
+                owner.getConnectionFactory(),
+                RedisIncomeCollectionsLoader::createListenerContainer
+        );
+        final var subscription = new NearCacheSubscription(
+                nearCache,
+                container,
+                new ChannelTopic(RedisCollectionInvalidation.getChannelName(descriptor.getChannelName()))
+        );
+        container.addMessageListener(subscription, subscription.getTopic());
+        log.info("Collection: {}; near cache created, max size: {}, ttl: {} ms", descriptor.getChannelName(),
+                descriptor.getNearCacheMaxSize(), descriptor.getNearCacheTtlMs());
+        return subscription;
+    }
+
+    @NotNull
+    private static RedisMessageListenerContainer createListenerContainer(
+            @NotNull final RedisConnectionFactory connectionFactory
+    ) {
+        final var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        container.start();
+        return container;
     }
 
     /**
@@ -209,25 +1232,192 @@ public class RedisIncomeCollectionsLoader {
      */
     @Nullable
     protected Object internalLoad(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor, @NotNull final String key) {
+        checkShardsCountOnce(descriptor);
         final var template = descriptor.getRedisTemplate();
-        final var record = template.opsForHash().get(descriptor.getChannelName(), key);
+        final var rawReader = getRawReader(descriptor);
+        final var hashName = RedisCollectionShards.getHashName(descriptor.getChannelName(), key, descriptor.getShardsCount());
+        final var record = getMetrics(descriptor).getFetch()
+                .record(() -> rawReader != null
+                        ? rawReader.load(hashName, key)
+                        : template.opsForHash().get(hashName, key));
         log.debug("Collection: {}; loaded 1 record by key: {}", descriptor.getChannelName(), key);
         return record;
     }
 
     /**
      * Получение данных из Redis-а всех объектов коллекции.
+     * При {@link IncomeCollectionLoadMode#Scan} коллекция вычитывается через HSCAN,
+     * что не блокирует Redis на время чтения большой коллекции.
+     * Шарды коллекции читаются параллельно; записи упорядочиваются потом, при обработке.
      *
      * @param descriptor Описатель загрузки из Коллекции.
      * @return Записи Коллекции.
      */
     @NotNull
     protected Map<Object, Object> internalLoadAll(@NotNull final RedisIncomeCollectionLoadingDescriptor descriptor) {
-        final var template = descriptor.getRedisTemplate();
-        final var records = template.opsForHash().entries(descriptor.getChannelName());
-        log.debug("Collection: {}; loaded: {} records", descriptor.getChannelName(), records.keySet().size());
+        if (descriptor.getLoadMode() == IncomeCollectionLoadMode.Scan) {
+            final var records = new LinkedHashMap<Object, Object>();
+            internalScanAll(descriptor, records::put);
+            return records;
+        }
+
+        internalCheckShardsCount(descriptor);
+        if (descriptor.getShardsCount() <= 1) {
+            return internalLoadHash(descriptor, descriptor.getChannelName());
+        }
+        final var shards = readShards(descriptor, hashName -> internalLoadHash(descriptor, hashName));
+        final var records = new LinkedHashMap<Object, Object>(shards.stream().mapToInt(Map::size).sum() * 4 / 3 + 1);
+        shards.forEach(records::putAll);
+        return records;
+    }
+
+    /**
+     * Получение всех записей одного HASH-а (коллекции или ее шарда) одной командой HGETALL.
+     */
+    @NotNull
+    private Map<Object, Object> internalLoadHash(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final String hashName
+    ) {
+        final var template = descriptor.getBulkRedisTemplate();
+        final var rawReader = getRawReader(descriptor);
+        final var records = getMetrics(descriptor).getFetch()
+                .record(() -> rawReader != null
+                        ? rawReader.loadAll(hashName)
+                        : template.opsForHash().entries(hashName));
+        log.debug("Collection: {}; loaded: {} records", hashName, records.keySet().size());
         return records;
     }
+
+    /**
+     * Потоковое чтение коллекции из Redis-а через курсор HSCAN.
+     * Каждая запись передается в {@code consumer} сразу по получении, поэтому в памяти одновременно находится
+     * не более одной страницы размером {@link RedisIncomeCollectionLoadingDescriptor#getScanPageSize()}
+     * (на каждый шард).<br/>
+     * Шарды коллекции сканируются параллельно, но {@code consumer} вызывается строго по одному.
+     * HSCAN может вернуть запись несколько раз, и повторы не отбрасываются (это потребовало бы держать в памяти
+     * ключи всей коллекции): {@code consumer} получает каждую запись "хотя бы один раз".
+     *
+     * @param descriptor Описатель загрузки из Коллекции.
+     * @param consumer   Получатель пар (ключ, запись).
+     * @return Количество прочитанных записей.
+     */
+    protected int internalScanAll(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final BiConsumer<Object, Object> consumer
+    ) {
+        internalCheckShardsCount(descriptor);
+        if (descriptor.getShardsCount() <= 1) {
+            return internalScanHash(descriptor, descriptor.getChannelName(), consumer);
+        }
+        // ReentrantLock, а не synchronized: consumer может долго ждать места в очереди, не занимая поток-носитель.
+        final var lock = new ReentrantLock();
+        final BiConsumer<Object, Object> serialConsumer = (key, rec) -> {
+            lock.lock();
+            try {
+                consumer.accept(key, rec);
+            } finally {
+                lock.unlock();
+            }
+        };
+        return readShards(descriptor, hashName -> internalScanHash(descriptor, hashName, serialConsumer)).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    /**
+     * Чтение одного HASH-а (коллекции или ее шарда) через курсор HSCAN.
+     */
+    @SneakyThrows(IOException.class)
+    private int internalScanHash(
+            @NotNull final RedisIncomeCollectionLoadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final BiConsumer<Object, Object> consumer
+    ) {
+        final var rawReader = getRawReader(descriptor);
+        if (rawReader != null) {
+            final var recordsCount = rawReader.scanAll(
+                    hashName,
+                    descriptor.getScanPageSize(),
+                    getMetrics(descriptor).getFetch(),
+                    consumer
+            );
+            log.debug("Collection: {}; scanned: {} raw records", hashName, recordsCount);
+            return recordsCount;
+        }
+        final var template = descriptor.getBulkRedisTemplate();
+        final var options = ScanOptions.scanOptions()
+                .count(descriptor.getScanPageSize())
+                .build();
+        var recordsCount = 0;
+        // Страницы HSCAN запрашиваются внутри hasNext(), поэтому время получения данных накапливается по его вызовам.
+        var fetchNanos = 0L;
+        try (final var cursor = template.opsForHash().scan(hashName, options)) {
+            while (true) {
+                final var started = System.nanoTime();
+                final var hasNext = cursor.hasNext();
+                fetchNanos += System.nanoTime() - started;
+                if (!hasNext) {
+                    break;
+                }
+                final var entry = cursor.next();
+                consumer.accept(entry.getKey(), entry.getValue());
+                recordsCount++;
+            }
+        }
+        getMetrics(descriptor).getFetch().record(fetchNanos, TimeUnit.NANOSECONDS);
+        log.debug("Collection: {}; scanned: {} records", hashName, recordsCount);
+        return recordsCount;
+    }
+
+    /**
+     * Локальный кэш описателя и его подписка на оповещения о сбросе записей.<br/>
+     * Оповещения, отправленные, пока подписки не было (в т.ч. во время потери соединения с Redis-ом),
+     * не доставляются, поэтому при каждой (пере)подписке кэш сбрасывается целиком.
+     */
+    private static final class NearCacheSubscription implements MessageListener, SubscriptionListener {
+        @Getter
+        @NotNull
+        private final IncomeCollectionNearCache nearCache;
+
+        @NotNull
+        private final RedisMessageListenerContainer container;
+
+        @Getter
+        @NotNull
+        private final ChannelTopic topic;
+
+        private NearCacheSubscription(
+                @NotNull final IncomeCollectionNearCache nearCache,
+                @NotNull final RedisMessageListenerContainer container,
+                @NotNull final ChannelTopic topic
+        ) {
+            this.nearCache = nearCache;
+            this.container = container;
+            this.topic = topic;
+        }
+
+        @Override
+        public void onMessage(@NotNull final org.springframework.data.redis.connection.Message message,
+                              @Nullable final byte[] pattern) {
+            final var keys = RedisCollectionInvalidation.parseKeys(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (keys == null) {
+                this.nearCache.invalidateAll();
+            } else {
+                this.nearCache.invalidate(keys);
+            }
+        }
+
+        @Override
+        public void onChannelSubscribed(@NotNull final byte[] channel, final long count) {
+            this.nearCache.invalidateAll();
+        }
+
+        private void close() {
+            this.container.removeMessageListener(this, this.topic);
+            this.nearCache.close();
+        }
+    }
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
 }
@@ -0,0 +1,40 @@
+package ru.gx.core.redis.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Результат инкрементальной загрузки коллекции
+ * ({@link RedisIncomeCollectionsLoader#processChangesSince(RedisIncomeCollectionLoadingDescriptor, long)}).
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RedisIncomeDeltaResult {
+    /**
+     * Версия коллекции, до которой (включительно) загружены изменения.
+     * Ее надо передать в следующий вызов. 0 - коллекция не ведет журнал изменений.
+     */
+    private final long version;
+
+    /**
+     * true - коллекция была перечитана полностью (журнал недоступен, сброшен или слишком велик).
+     */
+    private final boolean fullReload;
+
+    /**
+     * Количество сообщений, переданных в обработку.
+     */
+    private final int messagesCount;
+
+    /**
+     * Ключи, удаленные из коллекции с момента предыдущей загрузки.
+     * При полной перезагрузке всегда пустой: удаленные записи определяются потребителем самостоятельно.
+     */
+    @NotNull
+    private final List<String> deletedKeys;
+}
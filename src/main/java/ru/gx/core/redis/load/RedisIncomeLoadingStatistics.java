@@ -0,0 +1,29 @@
+package ru.gx.core.redis.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика загрузки одной коллекции.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RedisIncomeLoadingStatistics {
+    /**
+     * Количество сообщений, переданных в обработку.
+     */
+    private final int messagesCount;
+
+    /**
+     * Время загрузки коллекции (чтение, десериализация, передача в обработку) в наносекундах.
+     */
+    private final long elapsedNanos;
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+    }
+}
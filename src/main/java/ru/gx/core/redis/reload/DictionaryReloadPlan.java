@@ -0,0 +1,116 @@
+package ru.gx.core.redis.reload;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import ru.gx.core.redis.RedisDictionary;
+
+import java.util.*;
+
+/**
+ * План перезагрузки словарей: порядок, в котором каждый словарь идет после своих зависимостей,
+ * и зависимости каждого словаря среди перезагружаемых.<br/>
+ * Циклические зависимости разрываются с предупреждением в логе.
+ */
+@Slf4j
+public class DictionaryReloadPlan {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+
+    /**
+     * Словари в порядке перезагрузки.
+     */
+    @Getter
+    @NotNull
+    private final List<RedisDictionary> orderedDictionaries;
+
+    @NotNull
+    private final Map<RedisDictionary, List<RedisDictionary>> dependencies;
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+
+    /**
+     * @param dictionaries        Перезагружаемые словари.
+     * @param respectDependencies Учитывать ли {@link RedisDictionary#getDependencies()}.
+     */
+    public DictionaryReloadPlan(
+            @NotNull final Collection<RedisDictionary> dictionaries,
+            final boolean respectDependencies
+    ) {
+        this.dependencies = new IdentityHashMap<>();
+        for (final var dictionary : dictionaries) {
+            this.dependencies.put(
+                    dictionary,
+                    respectDependencies ? resolveDependencies(dictionary, dictionaries) : List.of()
+            );
+        }
+
+        this.orderedDictionaries = new ArrayList<>(dictionaries.size());
+        final var states = new IdentityHashMap<RedisDictionary, Boolean>();
+        for (final var dictionary : dictionaries) {
+            visit(dictionary, states);
+        }
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * @return Словари, после которых должен перезагружаться {@code dictionary}.
+     */
+    @NotNull
+    public List<RedisDictionary> getDependencies(@NotNull final RedisDictionary dictionary) {
+        return this.dependencies.getOrDefault(dictionary, List.of());
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    @NotNull
+    private static List<RedisDictionary> resolveDependencies(
+            @NotNull final RedisDictionary dictionary,
+            @NotNull final Collection<RedisDictionary> dictionaries
+    ) {
+        final var declared = dictionary.getDependencies();
+        if (declared.isEmpty()) {
+            return List.of();
+        }
+        final var result = new ArrayList<RedisDictionary>();
+        for (final var candidate : dictionaries) {
+            if (candidate != dictionary && declared.stream().anyMatch(c -> c.isInstance(candidate))) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Обход в глубину: словарь попадает в порядок после всех своих зависимостей.
+     * states: false - словарь в обработке (на стеке), true - обработан.
+     */
+    private void visit(@NotNull final RedisDictionary dictionary, @NotNull final Map<RedisDictionary, Boolean> states) {
+        final var state = states.get(dictionary);
+        if (state != null) {
+            return;
+        }
+        states.put(dictionary, Boolean.FALSE);
+        final var dictionaryDependencies = this.dependencies.get(dictionary);
+        final var acyclicDependencies = new ArrayList<RedisDictionary>(dictionaryDependencies.size());
+        for (final var dependency : dictionaryDependencies) {
+            if (Boolean.FALSE.equals(states.get(dependency))) {
+                log.warn("Cyclic dependency between dictionaries {} and {} is ignored", dictionary, dependency);
+                continue;
+            }
+            visit(dependency, states);
+            acyclicDependencies.add(dependency);
+        }
+        this.dependencies.put(dictionary, acyclicDependencies);
+        states.put(dictionary, Boolean.TRUE);
+        this.orderedDictionaries.add(dictionary);
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -13,8 +13,11 @@ import ru.gx.core.longtime.LongtimeProcess;
 import ru.gx.core.longtime.LongtimeProcessService;
 import ru.gx.core.messaging.MessagesPrioritizedQueue;
 import ru.gx.core.redis.RedisDictionary;
+import ru.gx.core.redis.RedisExecutors;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
 
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -30,18 +33,29 @@ public class DictionaryReloadService {
     @NotNull
     private final LongtimeProcessService longtimeProcessService;
 
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis properties;
+
     @Scheduled(cron = "${service.redis.reload-scheduler.cron}")
     public void reloadDictionaries() {
         this.standardMessagesPrioritizedQueue.pushMessage(
                 0,
-                new ReloadDictionaryEvent(UUID.randomUUID())
+                new ReloadDictionaryEvent(UUID.randomUUID(), !this.properties.getReloadScheduler().isIncremental())
         );
     }
 
     @NotNull
     public LongtimeProcess startReloadProcess(@Nullable final String username) {
+        return startReloadProcess(username, true);
+    }
+
+    /**
+     * @param full true - полная перезагрузка словарей, false - загрузка только изменений.
+     */
+    @NotNull
+    public LongtimeProcess startReloadProcess(@Nullable final String username, final boolean full) {
         final var longtimeProcess = this.longtimeProcessService.createLongtimeProcess(username);
-        final var message = new ReloadDictionaryEvent(longtimeProcess.getId());
+        final var message = new ReloadDictionaryEvent(longtimeProcess.getId(), full);
         this.standardMessagesPrioritizedQueue.pushMessage(0, message);
         return longtimeProcess;
     }
@@ -54,16 +68,118 @@ public class DictionaryReloadService {
         if (processTraceble) {
             longtimeProcess.setTotal(beansOfType.size());
         }
-        for (final RedisDictionary dictionary : beansOfType.values()) {
-            log.info("Reloading dictionary: {}", dictionary);
-            dictionary.reload();
+
+        final var settings = this.properties.getReloadScheduler();
+        final var plan = new DictionaryReloadPlan(beansOfType.values(), settings.isRespectDependencies());
+        final Runnable onDictionaryProcessed = () -> {
             if (processTraceble) {
-                longtimeProcess.setCurrent(longtimeProcess.getCurrent() + 1);
+                synchronized (longtimeProcess) {
+                    longtimeProcess.setCurrent(longtimeProcess.getCurrent() + 1);
+                }
             }
-            log.info("Reloading dictionary: {} COMPLETE!", dictionary);
+        };
+
+        final var full = event.isFull();
+        final var failed = settings.getParallelism() > 1
+                ? reloadInParallel(plan, settings.getParallelism(), full, onDictionaryProcessed)
+                : reloadSequentially(plan, full, onDictionaryProcessed);
+        if (failed.isEmpty()) {
+            log.info("Reloading {} dictionaries COMPLETE!", beansOfType.size());
+        } else {
+            log.error("Reloading {} dictionaries finished with {} failures: {}", beansOfType.size(), failed.size(), failed);
         }
+
         if (processTraceble) {
             this.longtimeProcessService.finishLongtimeProcess(longtimeProcess.getId());
         }
     }
+
+    /**
+     * Перезагрузка словарей по очереди (с учетом зависимостей).
+     *
+     * @return Словари, перезагрузка которых завершилась ошибкой.
+     */
+    @NotNull
+    protected List<RedisDictionary> reloadSequentially(
+            @NotNull final DictionaryReloadPlan plan,
+            final boolean full,
+            @NotNull final Runnable onDictionaryProcessed
+    ) {
+        final var failed = new ArrayList<RedisDictionary>();
+        for (final var dictionary : plan.getOrderedDictionaries()) {
+            if (!reloadDictionary(dictionary, full)) {
+                failed.add(dictionary);
+            }
+            onDictionaryProcessed.run();
+        }
+        return failed;
+    }
+
+    /**
+     * Перезагрузка словарей не более чем в {@code parallelism} потоков
+     * (виртуальных при {@link ConfigurationPropertiesServiceRedis.Execution#isVirtualThreads()}).
+     * Словарь начинает перезагружаться после завершения (в т.ч. с ошибкой) перезагрузки его зависимостей.
+     *
+     * @return Словари, перезагрузка которых завершилась ошибкой.
+     */
+    @NotNull
+    protected List<RedisDictionary> reloadInParallel(
+            @NotNull final DictionaryReloadPlan plan,
+            final int parallelism,
+            final boolean full,
+            @NotNull final Runnable onDictionaryProcessed
+    ) {
+        final var executor = RedisExecutors.newBoundedExecutor(
+                "redis-dictionary-reload-",
+                parallelism,
+                this.properties.getExecution()
+        );
+        try {
+            final var futures = new IdentityHashMap<RedisDictionary, CompletableFuture<Boolean>>();
+            for (final var dictionary : plan.getOrderedDictionaries()) {
+                final var dependencies = plan.getDependencies(dictionary).stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                final var future = CompletableFuture.allOf(dependencies)
+                        .handleAsync((result, error) -> {
+                            final var success = reloadDictionary(dictionary, full);
+                            onDictionaryProcessed.run();
+                            return success;
+                        }, executor);
+                futures.put(dictionary, future);
+            }
+
+            final var failed = new ArrayList<RedisDictionary>();
+            futures.forEach((dictionary, future) -> {
+                if (!future.join()) {
+                    failed.add(dictionary);
+                }
+            });
+            return failed;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Перезагрузка одного словаря. Ошибка перезагрузки не прерывает перезагрузку остальных словарей.
+     *
+     * @param full true - полная перезагрузка, false - загрузка только изменений.
+     * @return true - словарь перезагружен успешно.
+     */
+    protected boolean reloadDictionary(@NotNull final RedisDictionary dictionary, final boolean full) {
+        log.info("Reloading dictionary: {}, full: {}", dictionary, full);
+        try {
+            if (full) {
+                dictionary.reload();
+            } else {
+                dictionary.reloadChanges();
+            }
+        } catch (Exception e) {
+            log.error("Reloading dictionary: {} FAILED!", dictionary, e);
+            return false;
+        }
+        log.info("Reloading dictionary: {} COMPLETE!", dictionary);
+        return true;
+    }
 }
@@ -1,12 +1,25 @@
 package ru.gx.core.redis.reload;
 
+import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import ru.gx.core.longtime.LongtimeProcessEvent;
 
 import java.util.UUID;
 
 public class ReloadDictionaryEvent extends LongtimeProcessEvent {
+    /**
+     * true - словари перезагружаются полностью ({@link ru.gx.core.redis.RedisDictionary#reload()}),
+     * false - загружаются только изменения ({@link ru.gx.core.redis.RedisDictionary#reloadChanges()}).
+     */
+    @Getter
+    private final boolean full;
+
     public ReloadDictionaryEvent(@NotNull UUID longtimeProcessId) {
+        this(longtimeProcessId, true);
+    }
+
+    public ReloadDictionaryEvent(@NotNull UUID longtimeProcessId, boolean full) {
         super(longtimeProcessId);
+        this.full = full;
     }
 }
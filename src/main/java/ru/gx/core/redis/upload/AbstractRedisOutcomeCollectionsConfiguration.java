@@ -9,12 +9,20 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import ru.gx.core.channels.AbstractChannelsConfiguration;
 import ru.gx.core.channels.ChannelDirection;
 import ru.gx.core.channels.ChannelHandlerDescriptor;
+import ru.gx.core.redis.RedisTemplatesRegistry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static lombok.AccessLevel.PROTECTED;
 
 public abstract class AbstractRedisOutcomeCollectionsConfiguration extends AbstractChannelsConfiguration {
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Fields">
+    /**
+     * Шаблоны общие для всех конфигураций с той же фабрикой соединений (см. {@link RedisTemplatesRegistry}).
+     */
     @Getter
     @NotNull
     private final StringRedisTemplate jsonStringRedisTemplate;
@@ -27,18 +35,48 @@ public abstract class AbstractRedisOutcomeCollectionsConfiguration extends Abstr
     @NotNull
     private final RedisConnectionFactory connectionFactory;
 
+    /**
+     * Реестр метрик, в который пишут метрики загрузчик (выгрузчик) и их вспомогательные структуры.
+     */
+    @Getter
+    @NotNull
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Обработчики {@link RedisOutcomeCollectionUploadingDescriptor#unInit()}: выгрузчики освобождают в них ресурсы,
+     * созданные для описателя (шаблоны, метрики, признаки выполненных операций).
+     */
+    @NotNull
+    private final List<Consumer<RedisOutcomeCollectionUploadingDescriptor>> descriptorUnInitListeners
+            = new CopyOnWriteArrayList<>();
+
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Initialization">
+    /**
+     * Конфигурация с шаблонами из общего {@link RedisTemplatesRegistry#getDefault()} (без пула для массового чтения).
+     * Настройка {@code service.redis.bulk-connection-pool} к такой конфигурации не применяется: чтобы использовать
+     * реестр из Spring-контекста, используйте конструктор с {@link RedisTemplatesRegistry}.
+     */
     protected AbstractRedisOutcomeCollectionsConfiguration(
             @NotNull final String configurationName,
             @NotNull final RedisConnectionFactory connectionFactory,
             @NotNull final MeterRegistry meterRegistry
+    ) {
+        this(configurationName, connectionFactory, meterRegistry, RedisTemplatesRegistry.getDefault());
+    }
+
+    protected AbstractRedisOutcomeCollectionsConfiguration(
+            @NotNull final String configurationName,
+            @NotNull final RedisConnectionFactory connectionFactory,
+            @NotNull final MeterRegistry meterRegistry,
+            @NotNull final RedisTemplatesRegistry templatesRegistry
     ) {
         super(ChannelDirection.Out, configurationName, meterRegistry);
         this.connectionFactory = connectionFactory;
-        this.jsonStringRedisTemplate = new StringRedisTemplate();
-        this.binaryRedisTemplate = new RedisTemplate<>();
+        this.meterRegistry = meterRegistry;
+        this.jsonStringRedisTemplate = templatesRegistry.getStringRedisTemplate(connectionFactory);
+        this.binaryRedisTemplate = templatesRegistry.getBinaryRedisTemplate(connectionFactory);
     }
 
     @Override
@@ -60,17 +98,19 @@ public abstract class AbstractRedisOutcomeCollectionsConfiguration extends Abstr
         return (RedisOutcomeCollectionUploadingDescriptorsDefaults) super.getDescriptorsDefaults();
     }
 
-    @Override
-    public void internalRegisterDescriptor(@NotNull ChannelHandlerDescriptor descriptor) {
-        super.internalRegisterDescriptor(descriptor);
-        if (getBinaryRedisTemplate().getConnectionFactory() != getConnectionFactory()) {
-            getBinaryRedisTemplate().setConnectionFactory(getConnectionFactory());
-            getBinaryRedisTemplate().afterPropertiesSet();
-        }
-        if (getJsonStringRedisTemplate().getConnectionFactory() != getConnectionFactory()) {
-            getJsonStringRedisTemplate().setConnectionFactory(getConnectionFactory());
-            getJsonStringRedisTemplate().afterPropertiesSet();
-        }
+    /**
+     * Регистрация обработчика {@link RedisOutcomeCollectionUploadingDescriptor#unInit()} описателей этой конфигурации.
+     */
+    public void addDescriptorUnInitListener(@NotNull final Consumer<RedisOutcomeCollectionUploadingDescriptor> listener) {
+        this.descriptorUnInitListeners.add(listener);
+    }
+
+    public void removeDescriptorUnInitListener(@NotNull final Consumer<RedisOutcomeCollectionUploadingDescriptor> listener) {
+        this.descriptorUnInitListeners.remove(listener);
+    }
+
+    void internalNotifyDescriptorUnInit(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        this.descriptorUnInitListeners.forEach(listener -> listener.accept(descriptor));
     }
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,115 @@
+package ru.gx.core.redis.upload;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Учет выгруженных ключей в памяти приложения.<br/>
+ * Пока все ключи - целые числа в канонической записи, они хранятся в {@link LongHashSet}.
+ * При первом нецелочисленном ключе накопленные значения переносятся в множество строк.
+ */
+public class HeapUploadingKeysTracker implements UploadingKeysTracker {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    @Nullable
+    private LongHashSet longKeys = new LongHashSet();
+
+    @Nullable
+    private Set<String> stringKeys;
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="реализация UploadingKeysTracker">
+    @Override
+    public synchronized void addAll(@NotNull final Collection<?> keys) {
+        for (final var key : keys) {
+            if (this.longKeys != null) {
+                final var longKey = toLongKey(key);
+                if (longKey != null) {
+                    this.longKeys.add(longKey);
+                    continue;
+                }
+                switchToStringKeys();
+            }
+            //noinspection ConstantConditions
+            this.stringKeys.add(key.toString());
+        }
+    }
+
+    @Override
+    @NotNull
+    public synchronized boolean[] contains(@NotNull final List<Object> keys) {
+        final var result = new boolean[keys.size()];
+        for (var i = 0; i < result.length; i++) {
+            final var key = keys.get(i);
+            if (this.longKeys != null) {
+                final var longKey = toLongKey(key);
+                result[i] = longKey != null && this.longKeys.contains(longKey);
+            } else {
+                //noinspection ConstantConditions
+                result[i] = this.stringKeys.contains(key.toString());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized long size() {
+        //noinspection ConstantConditions
+        return this.longKeys != null ? this.longKeys.size() : this.stringKeys.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        this.longKeys = null;
+        this.stringKeys = new HashSet<>();
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+    private void switchToStringKeys() {
+        final var longKeys = this.longKeys;
+        //noinspection ConstantConditions
+        final var strings = new HashSet<String>(Math.max(16, longKeys.size() * 2));
+        longKeys.forEach(value -> strings.add(Long.toString(value)));
+        this.stringKeys = strings;
+        this.longKeys = null;
+    }
+
+    /**
+     * @return Значение ключа как long, если ключ - целое число, строковое представление которого совпадает
+     * с {@link Long#toString(long)} (именно так ключ записывается в Redis), иначе null.
+     */
+    @Nullable
+    static Long toLongKey(@NotNull final Object key) {
+        if (key instanceof final Long longKey) {
+            return longKey;
+        }
+        if (key instanceof final Integer intKey) {
+            return intKey.longValue();
+        }
+        final var stringKey = key.toString();
+        final var length = stringKey.length();
+        if (length == 0 || length > 20) {
+            return null;
+        }
+        final var first = stringKey.charAt(0);
+        if (!(first == '-' || (first >= '1' && first <= '9') || (first == '0' && length == 1))) {
+            return null;
+        }
+        try {
+            final var value = Long.parseLong(stringKey);
+            return first == '-' && value == 0 ? null : value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,111 @@
+package ru.gx.core.redis.upload;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Множество примитивных long на открытой адресации. Около 16 байт на элемент против ~60 у {@code HashSet<Long>}.<br/>
+ * Не потокобезопасно.
+ */
+final class LongHashSet {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Пустая ячейка таблицы; наличие самого значения 0 хранится отдельно.
+     */
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+
+    private int mask;
+
+    private int size;
+
+    private boolean containsEmpty;
+
+    LongHashSet() {
+        this.table = new long[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+    }
+
+    boolean add(final long value) {
+        if (value == EMPTY) {
+            if (this.containsEmpty) {
+                return false;
+            }
+            this.containsEmpty = true;
+            this.size++;
+            return true;
+        }
+        var index = indexOf(value);
+        while (this.table[index] != EMPTY) {
+            if (this.table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & this.mask;
+        }
+        this.table[index] = value;
+        this.size++;
+        if (this.size * 2 > this.table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    boolean contains(final long value) {
+        if (value == EMPTY) {
+            return this.containsEmpty;
+        }
+        var index = indexOf(value);
+        while (this.table[index] != EMPTY) {
+            if (this.table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & this.mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Перебор всех значений множества.
+     */
+    void forEach(final LongConsumer consumer) {
+        if (this.containsEmpty) {
+            consumer.accept(EMPTY);
+        }
+        for (final var value : this.table) {
+            if (value != EMPTY) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    private int indexOf(final long value) {
+        // Финализатор MurmurHash3: последовательные ключи не должны попадать в соседние ячейки.
+        var h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & this.mask;
+    }
+
+    private void grow() {
+        final var oldTable = this.table;
+        this.table = new long[oldTable.length * 2];
+        this.mask = this.table.length - 1;
+        for (final var value : oldTable) {
+            if (value != EMPTY) {
+                var index = indexOf(value);
+                while (this.table[index] != EMPTY) {
+                    index = (index + 1) & this.mask;
+                }
+                this.table[index] = value;
+            }
+        }
+    }
+}
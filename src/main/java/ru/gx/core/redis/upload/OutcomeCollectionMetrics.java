@@ -0,0 +1,101 @@
+package ru.gx.core.redis.upload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.gx.core.channels.SerializeMode;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Метрики выгрузки одной коллекции. Все метрики имеют теги {@code channel} и {@code serialize-mode}:
+ * <ul>
+ *     <li>{@code redis.uploader.serialize} - время сериализации одного сообщения;</li>
+ *     <li>{@code redis.uploader.serialize.allocated} - объем памяти, выделенной потоком на сериализацию одного
+ *     сообщения (если JVM поддерживает учет выделенной потоком памяти);</li>
+ *     <li>{@code redis.uploader.bytes.written} - объем записанных данных (для строк - количество символов);</li>
+ *     <li>{@code redis.uploader.chunk.write} - время записи одной порции (или одной записи) в Redis;</li>
+ *     <li>{@code redis.uploader.unchanged.skipped} - количество записей, не перезаписанных из-за неизменности значения;</li>
+ *     <li>{@code redis.uploader.reconcile} - время удаления из коллекции записей, которых нет среди выгруженных;</li>
+ *     <li>{@code redis.uploader.reconcile.deleted} - количество удаленных при этом записей.</li>
+ * </ul>
+ */
+@Getter
+public class OutcomeCollectionMetrics {
+    @Nullable
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = findThreadMXBean();
+
+    @NotNull
+    private final Timer serialize;
+
+    @NotNull
+    private final DistributionSummary serializeAllocated;
+
+    @NotNull
+    private final Counter bytesWritten;
+
+    @NotNull
+    private final Timer chunkWrite;
+
+    @NotNull
+    private final Counter unchangedSkipped;
+
+    @NotNull
+    private final Timer reconcile;
+
+    @NotNull
+    private final Counter reconcileDeleted;
+
+    public OutcomeCollectionMetrics(
+            @NotNull final MeterRegistry meterRegistry,
+            @NotNull final String channelName,
+            @NotNull final SerializeMode serializeMode
+    ) {
+        final var tags = Tags.of("channel", channelName, "serialize-mode", serializeMode.name());
+        this.serialize = Timer.builder("redis.uploader.serialize")
+                .tags(tags)
+                .register(meterRegistry);
+        this.serializeAllocated = DistributionSummary.builder("redis.uploader.serialize.allocated")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+        this.bytesWritten = Counter.builder("redis.uploader.bytes.written")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+        this.chunkWrite = Timer.builder("redis.uploader.chunk.write")
+                .tags(tags)
+                .register(meterRegistry);
+        this.unchangedSkipped = Counter.builder("redis.uploader.unchanged.skipped")
+                .tags(tags)
+                .register(meterRegistry);
+        this.reconcile = Timer.builder("redis.uploader.reconcile")
+                .tags(tags)
+                .register(meterRegistry);
+        this.reconcileDeleted = Counter.builder("redis.uploader.reconcile.deleted")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Объем памяти, выделенной текущим потоком с момента его запуска, или -1, если JVM это не поддерживает.
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof final com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()
+                && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,487 @@
+package ru.gx.core.redis.upload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import ru.gx.core.channels.ChannelConfigurationException;
+import ru.gx.core.channels.SerializeMode;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.redis.OutcomeSnapshotMode;
+import ru.gx.core.redis.ReactiveRedisTemplates;
+import ru.gx.core.redis.RedisCollectionDigests;
+import ru.gx.core.redis.RedisCollectionInvalidation;
+import ru.gx.core.redis.RedisCollectionShards;
+import ru.gx.core.redis.UploadingKeysTrackingMode;
+import ru.gx.core.redis.codec.RedisBinaryCodecs;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Неблокирующий выгрузчик коллекций на {@link ReactiveRedisTemplate}: порции записываются в Redis без
+ * блокировки потоков, одновременно не более {@link ConfigurationPropertiesServiceRedis.ReactiveUploader#getMaxInFlightChunks()}
+ * порций одной выгрузки; сообщения запрашиваются у источника по мере записи порций.<br/>
+ * Поддерживается публикация снапшота в режиме {@link OutcomeSnapshotMode#Reconcile} (ключи учитываются в памяти)
+ * и оповещение читателей ({@link RedisOutcomeCollectionUploadingDescriptor#isPublishInvalidations()});
+ * порция шардированной коллекции пишется во все свои шарды одновременно.
+ * Описатели с журналом изменений, пропуском неизменных записей или атомарной публикацией снапшота
+ * выгружаются только через {@link RedisOutcomeCollectionsUploader}.
+ */
+@SuppressWarnings("unused")
+@Slf4j
+public class ReactiveRedisOutcomeCollectionsUploader {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+
+    /**
+     * Настройки реактивного выгрузчика.
+     */
+    @Getter
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.ReactiveUploader settings;
+
+    /**
+     * Кодеки значений коллекций с {@link SerializeMode#Bytes}; им же пишется JSON для {@link SerializeMode#JsonString}.
+     */
+    @Getter
+    @NotNull
+    private final RedisBinaryCodecs binaryCodecs;
+
+    /**
+     * Реактивные шаблоны по описателям.
+     */
+    @NotNull
+    private final Map<RedisOutcomeCollectionUploadingDescriptor, ReactiveRedisTemplate<String, Object>> templates
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Реактивные шаблоны для оповещений по описателям.
+     */
+    @NotNull
+    private final Map<RedisOutcomeCollectionUploadingDescriptor, ReactiveRedisTemplate<String, Object>> stringTemplates
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Метрики выгрузки по описателям.
+     */
+    @NotNull
+    private final Map<RedisOutcomeCollectionUploadingDescriptor, OutcomeCollectionMetrics> metrics
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Описатели, дайджесты коллекций которых уже удалены этим выгрузчиком (см. {@link RedisCollectionDigests}).
+     */
+    @NotNull
+    private final Set<RedisOutcomeCollectionUploadingDescriptor> digestsDropped = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Описатели, количество шардов которых уже сохранено этим выгрузчиком в {@link RedisCollectionShards#getShardsCountKey(String)}.
+     */
+    private final Set<RedisOutcomeCollectionUploadingDescriptor> shardsCountWritten = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Конфигурации, на деинициализацию описателей которых подписан выгрузчик.
+     */
+    @NotNull
+    private final Set<AbstractRedisOutcomeCollectionsConfiguration> observedConfigurations = ConcurrentHashMap.newKeySet();
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    public ReactiveRedisOutcomeCollectionsUploader(
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final ConfigurationPropertiesServiceRedis.ReactiveUploader settings
+    ) {
+        this(settings, new RedisBinaryCodecs(objectMapper));
+    }
+
+    public ReactiveRedisOutcomeCollectionsUploader(
+            @NotNull final ConfigurationPropertiesServiceRedis.ReactiveUploader settings,
+            @NotNull final RedisBinaryCodecs binaryCodecs
+    ) {
+        this.settings = settings;
+        this.binaryCodecs = binaryCodecs;
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="API">
+
+    /**
+     * Выгрузка сообщений порциями (без удаления отсутствующих записей).
+     *
+     * @param descriptor Описатель канала.
+     * @param messages   Пары (ключ, сообщение).
+     * @return Количество записанных записей.
+     */
+    @NotNull
+    public <M extends Message<? extends MessageBody>>
+    Mono<Long> uploadMessages(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Flux<Map.Entry<String, M>> messages
+    ) {
+        return Mono.defer(() -> {
+            checkDescriptorIsSupported(descriptor);
+            return internalWriteMessages(descriptor, messages, null);
+        });
+    }
+
+    /**
+     * Публикация снапшота: выгрузка сообщений порциями и удаление из коллекции записей, которых нет среди выгруженных.
+     * Выгруженные ключи хранятся в памяти приложения: {@link UploadingKeysTrackingMode#Redis} требует блокирующих
+     * обращений к Redis-у и не поддерживается.
+     *
+     * @param descriptor Описатель канала.
+     * @param messages   Все сообщения снапшота с ключами.
+     * @return Количество записанных записей.
+     */
+    @NotNull
+    public <M extends Message<? extends MessageBody>>
+    Mono<Long> publishSnapshot(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Flux<Map.Entry<String, M>> messages
+    ) {
+        return Mono.defer(() -> {
+            checkDescriptorIsSupported(descriptor);
+            if (descriptor.getSnapshotMode() == OutcomeSnapshotMode.Atomic) {
+                throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName()
+                        + ": snapshot mode " + OutcomeSnapshotMode.Atomic + " is not supported by reactive uploader");
+            }
+            if (descriptor.getKeysTrackingMode() != UploadingKeysTrackingMode.Heap) {
+                throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName()
+                        + ": keys tracking mode " + descriptor.getKeysTrackingMode()
+                        + " is not supported by reactive uploader");
+            }
+            final var uploadedKeys = new HeapUploadingKeysTracker();
+            return internalWriteMessages(descriptor, messages, uploadedKeys)
+                    .flatMap(written -> deleteMissed(descriptor, uploadedKeys)
+                            .doOnNext(deleted -> log.info("Snapshot published for {}: written: {}, removed entries: {}",
+                                    descriptor.getChannelName(), written, deleted))
+                            .thenReturn(written))
+                    .doFinally(signal -> uploadedKeys.close());
+        });
+    }
+
+    /**
+     * Удаление из коллекции записей, которых нет среди выгруженных. Коллекция просматривается курсором HSCAN
+     * страницами по {@link RedisOutcomeCollectionUploadingDescriptor#getReconcilePageSize()} ключей.
+     *
+     * @param descriptor   Описатель канала.
+     * @param uploadedKeys Выгруженные ключи.
+     * @return Количество удаленных записей.
+     */
+    @NotNull
+    public Mono<Long> deleteMissed(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final UploadingKeysTracker uploadedKeys
+    ) {
+        return Mono.defer(() -> {
+            final var descriptorName = descriptor.getChannelName();
+            final var metrics = getMetrics(descriptor);
+            final var started = System.nanoTime();
+            return Flux.fromIterable(RedisCollectionShards.getHashNames(descriptorName, descriptor.getShardsCount()))
+                    .concatMap(hashName -> deleteMissedInHash(descriptor, hashName, uploadedKeys))
+                    .reduce(0L, Long::sum)
+                    .doOnNext(deleted -> {
+                        metrics.getReconcile().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                        metrics.getReconcileDeleted().increment(deleted);
+                    });
+        });
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Internal">
+
+    /**
+     * Удаление отсутствующих среди выгруженных записей из одного HASH-а (коллекции или ее шарда).
+     */
+    @NotNull
+    private Mono<Long> deleteMissedInHash(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final UploadingKeysTracker uploadedKeys
+    ) {
+        final var template = getTemplate(descriptor);
+        final var options = ScanOptions.scanOptions()
+                .count(descriptor.getReconcilePageSize())
+                .build();
+        return template.opsForHash()
+                .scan(hashName, options)
+                .map(Map.Entry::getKey)
+                .buffer(descriptor.getReconcilePageSize())
+                .concatMap(page -> {
+                    final var uploaded = uploadedKeys.contains(page);
+                    final var missed = new ArrayList<>(page.size());
+                    for (var i = 0; i < page.size(); i++) {
+                        if (!uploaded[i]) {
+                            missed.add(page.get(i));
+                        }
+                    }
+                    if (missed.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+                    return template.opsForHash()
+                            .remove(hashName, missed.toArray())
+                            .flatMap(deleted -> internalPublishInvalidations(descriptor, missed).thenReturn(deleted));
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Проверка, что описатель активен и не требует возможностей, которых у реактивного выгрузчика нет.
+     */
+    protected void checkDescriptorIsSupported(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        if (!descriptor.isInitialized()) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName() + " is not" +
+                    " initialized!");
+        }
+        if (!descriptor.isEnabled()) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName() + " is not" +
+                    " enabled!");
+        }
+        if (descriptor.isChangeTracking() || descriptor.isSkipUnchanged()) {
+            throw new ChannelConfigurationException("Collection descriptor " + descriptor.getChannelName()
+                    + ": changeTracking and skipUnchanged are not supported by reactive uploader");
+        }
+    }
+
+    /**
+     * Сериализация и запись сообщений порциями не более
+     * {@link RedisOutcomeCollectionUploadingDescriptor#getUploadChunkMaxFields()} полей и
+     * {@link RedisOutcomeCollectionUploadingDescriptor#getUploadChunkMaxBytes()} байт.
+     *
+     * @param uploadedKeys Если не null, сюда добавляются ключи записанных записей.
+     * @return Количество записанных записей.
+     */
+    @NotNull
+    protected <M extends Message<? extends MessageBody>>
+    Mono<Long> internalWriteMessages(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Flux<Map.Entry<String, M>> messages,
+            @Nullable final UploadingKeysTracker uploadedKeys
+    ) {
+        final var maxFields = descriptor.getUploadChunkMaxFields();
+        final var maxBytes = descriptor.getUploadChunkMaxBytes();
+        return internalDropDigests(descriptor).then(internalWriteShardsCount(descriptor)).then(Flux
+                .defer(() -> {
+                    // Размер текущей порции: [0] - полей, [1] - байт. Свой для каждой подписки.
+                    final var chunkSize = new long[2];
+                    // Сериализация - на parallel-планировщике, а не на I/O-потоках Lettuce, в которых
+                    // источник получает запрос следующих сообщений после записи порции.
+                    return messages
+                            .publishOn(Schedulers.parallel(), Queues.SMALL_BUFFER_SIZE)
+                            .map(entry -> Map.entry(entry.getKey(), internalSerializeMessage(descriptor, entry.getValue())))
+                            .bufferUntil(entry -> {
+                                chunkSize[0]++;
+                                chunkSize[1] += RedisOutcomeCollectionsUploader.serializedSize(entry.getValue());
+                                if (chunkSize[0] >= maxFields || chunkSize[1] >= maxBytes) {
+                                    chunkSize[0] = 0;
+                                    chunkSize[1] = 0;
+                                    return true;
+                                }
+                                return false;
+                            });
+                })
+                .flatMap(chunk -> writeChunk(descriptor, chunk, uploadedKeys), getSettings().getMaxInFlightChunks())
+                .reduce(0L, Long::sum));
+    }
+
+    /**
+     * Удаление дайджестов коллекции ({@link RedisCollectionDigests}) перед первой записью в нее: реактивный выгрузчик
+     * их не ведет, и выгрузчик с {@code skipUnchanged} иначе пропустил бы записи по устаревшим дайджестам.
+     */
+    @NotNull
+    protected Mono<Void> internalDropDigests(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        if (!this.digestsDropped.add(descriptor)) {
+            return Mono.empty();
+        }
+        final var stringTemplate = getStringTemplate(descriptor);
+        return Flux.fromIterable(RedisCollectionDigests.getDigestsKeys(descriptor.getChannelName(), descriptor.getShardsCount()))
+                .concatMap(stringTemplate::unlink)
+                .then();
+    }
+
+    /**
+     * Сохранение количества шардов коллекции перед первой записью в нее: по нему загрузчик проверяет, что читает
+     * коллекцию с тем же разбиением.
+     */
+    @NotNull
+    protected Mono<Void> internalWriteShardsCount(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        if (!this.shardsCountWritten.add(descriptor)) {
+            return Mono.empty();
+        }
+        return getStringTemplate(descriptor)
+                .opsForValue()
+                .set(
+                        RedisCollectionShards.getShardsCountKey(descriptor.getChannelName()),
+                        Integer.toString(Math.max(descriptor.getShardsCount(), 1))
+                )
+                .then();
+    }
+
+    @NotNull
+    private Mono<Long> writeChunk(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final List<Map.Entry<String, Object>> chunk,
+            @Nullable final UploadingKeysTracker uploadedKeys
+    ) {
+        final var values = new LinkedHashMap<String, Object>(chunk.size() * 2);
+        chunk.forEach(entry -> values.put(entry.getKey(), entry.getValue()));
+        final var keys = new ArrayList<>(values.keySet());
+        if (uploadedKeys != null) {
+            uploadedKeys.addAll(keys);
+        }
+        final var chunkWrite = getMetrics(descriptor).getChunkWrite();
+        final var shardsCount = descriptor.getShardsCount();
+        final var hashNames = RedisCollectionShards.getHashNames(descriptor.getChannelName(), shardsCount);
+        final var shards = shardsCount <= 1
+                ? List.<Map<String, Object>>of(values)
+                : RedisCollectionShards.partition(values, shardsCount);
+        return Mono.defer(() -> {
+            final var started = System.nanoTime();
+            return Flux.range(0, shards.size())
+                    .filter(shard -> !shards.get(shard).isEmpty())
+                    .flatMap(shard -> getTemplate(descriptor).opsForHash().putAll(hashNames.get(shard), shards.get(shard)))
+                    .then()
+                    .doOnSuccess(ignored -> chunkWrite.record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                    .then(internalPublishInvalidations(descriptor, keys))
+                    .thenReturn((long) values.size());
+        });
+    }
+
+    /**
+     * Сериализация сообщения в то представление, которое хранится в коллекции.
+     *
+     * @return {@link String} для {@link SerializeMode#JsonString}, иначе {@code byte[]}.
+     */
+    @NotNull
+    protected Object internalSerializeMessage(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Message<? extends MessageBody> message
+    ) {
+        final var api = descriptor.getApi();
+        if (api == null) {
+            throw new NullPointerException("descriptor.getApi() is null!");
+        }
+        final var metrics = getMetrics(descriptor);
+        final var started = System.nanoTime();
+        final Object result;
+        final long size;
+        try {
+            if (api.getSerializeMode() == SerializeMode.JsonString) {
+                final var json = getBinaryCodecs().writeJsonString(message);
+                size = json.length();
+                result = json;
+            } else {
+                final var bytes = getBinaryCodecs().encode(
+                        descriptor.getBinaryFormat(),
+                        message,
+                        descriptor.getCompressionThresholdBytes()
+                );
+                size = bytes.length;
+                result = bytes;
+            }
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+        metrics.getSerialize().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        metrics.getBytesWritten().increment(size);
+        return result;
+    }
+
+    /**
+     * Оповещение читателей коллекции об измененных ключах, если для описателя включен
+     * {@link RedisOutcomeCollectionUploadingDescriptor#isPublishInvalidations()}.
+     */
+    @NotNull
+    protected Mono<Void> internalPublishInvalidations(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final List<?> keys
+    ) {
+        if (!descriptor.isPublishInvalidations() || keys.isEmpty()) {
+            return Mono.empty();
+        }
+        return getStringTemplate(descriptor)
+                .convertAndSend(
+                        RedisCollectionInvalidation.getChannelName(descriptor.getChannelName()),
+                        RedisCollectionInvalidation.formatKeys(keys)
+                )
+                .then();
+    }
+
+    /**
+     * Освобождение шаблонов, метрик и признаков выполненных операций, созданных выгрузчиком для описателя.
+     * Вызывается при деинициализации описателя.
+     *
+     * @param descriptor Описатель выгрузки в Коллекцию.
+     */
+    public void releaseDescriptor(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        this.templates.remove(descriptor);
+        this.stringTemplates.remove(descriptor);
+        this.metrics.remove(descriptor);
+        this.digestsDropped.remove(descriptor);
+        this.shardsCountWritten.remove(descriptor);
+    }
+
+    /**
+     * Подписка на деинициализацию описателей конфигурации (один раз на конфигурацию).
+     */
+    private void observeDescriptorsUnInit(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        final var owner = descriptor.getOwner();
+        if (this.observedConfigurations.add(owner)) {
+            owner.addDescriptorUnInitListener(this::releaseDescriptor);
+        }
+    }
+
+    @NotNull
+    private ReactiveRedisTemplate<String, Object> getTemplate(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        return this.templates.computeIfAbsent(descriptor, d -> ReactiveRedisTemplates.fromTemplate(d.getRedisTemplate()));
+    }
+
+    @NotNull
+    private ReactiveRedisTemplate<String, Object> getStringTemplate(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        return this.stringTemplates.computeIfAbsent(
+                descriptor,
+                d -> ReactiveRedisTemplates.fromTemplate(d.getOwner().getJsonStringRedisTemplate())
+        );
+    }
+
+    /**
+     * @return Метрики выгрузки коллекции описателя (те же метры, что и у {@link RedisOutcomeCollectionsUploader}).
+     */
+    @NotNull
+    protected OutcomeCollectionMetrics getMetrics(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        observeDescriptorsUnInit(descriptor);
+        return this.metrics.computeIfAbsent(descriptor, d -> {
+            final var api = d.getApi();
+            if (api == null) {
+                throw new NullPointerException("descriptor.getApi() is null!");
+            }
+            return new OutcomeCollectionMetrics(d.getOwner().getMeterRegistry(), d.getChannelName(), api.getSerializeMode());
+        });
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
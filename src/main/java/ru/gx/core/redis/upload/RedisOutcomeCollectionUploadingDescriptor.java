@@ -1,6 +1,7 @@
 package ru.gx.core.redis.upload;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
@@ -9,6 +10,9 @@ import org.springframework.data.redis.core.RedisTemplate;
 import ru.gx.core.channels.*;
 import ru.gx.core.messaging.Message;
 import ru.gx.core.messaging.MessageBody;
+import ru.gx.core.redis.OutcomeSnapshotMode;
+import ru.gx.core.redis.RedisBinaryFormat;
+import ru.gx.core.redis.UploadingKeysTrackingMode;
 
 import java.security.InvalidParameterException;
 
@@ -17,9 +21,103 @@ import java.security.InvalidParameterException;
 @ToString
 public class RedisOutcomeCollectionUploadingDescriptor
         extends AbstractOutcomeChannelHandlerDescriptor {
+    public static final int DEFAULT_RECONCILE_PAGE_SIZE = 1000;
+    public static final int DEFAULT_UPLOAD_CHUNK_MAX_FIELDS = 1000;
+    public static final long DEFAULT_UPLOAD_CHUNK_MAX_BYTES = 8L * 1024 * 1024;
+    public static final int DEFAULT_CHANGELOG_MAX_SIZE = 100_000;
+
     // -----------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Fields">
 
+    /**
+     * Размер страницы HSCAN-а и пачки проверок/удалений при удалении отсутствующих в снапшоте записей.
+     */
+    @Getter
+    private int reconcilePageSize;
+
+    /**
+     * Максимальное количество полей в одной команде записи в коллекцию.
+     */
+    @Getter
+    private int uploadChunkMaxFields;
+
+    /**
+     * Максимальный (примерный) объем данных в одной команде записи в коллекцию: сумма размеров значений в байтах
+     * ({@code byte[]} или строк JSON в UTF-8).
+     */
+    @Getter
+    private long uploadChunkMaxBytes;
+
+    /**
+     * Способ публикации снапшота при выгрузке с deleteMissed == true.
+     */
+    @NotNull
+    @Getter
+    private OutcomeSnapshotMode snapshotMode;
+
+    /**
+     * Где хранить ключи, выгруженные при батчевой выгрузке с удалением отсутствующих записей.
+     */
+    @NotNull
+    @Getter
+    private UploadingKeysTrackingMode keysTrackingMode;
+
+    /**
+     * Вести ли журнал изменений коллекции ({@link ru.gx.core.redis.RedisCollectionChangelog})
+     * для инкрементальной загрузки на стороне читателей.
+     */
+    @Getter
+    private boolean changeTracking;
+
+    /**
+     * Максимальное количество записей журнала изменений. Записи самых старых версий удаляются, и читатели,
+     * загрузившие коллекцию до них, перезагружают ее полностью. Больше, чем
+     * {@link ru.gx.core.redis.load.RedisIncomeCollectionLoadingDescriptor#getMaxDeltaChanges()} читателей,
+     * держать смысла нет.
+     */
+    @Getter
+    private int changelogMaxSize;
+
+    /**
+     * Оповещать ли читателей коллекции об измененных ключах ({@link ru.gx.core.redis.RedisCollectionInvalidation})
+     * для сброса их локальных кэшей.
+     */
+    @Getter
+    private boolean publishInvalidations;
+
+    /**
+     * Формат значений коллекции при {@link SerializeMode#Bytes}. Загрузчик определяет формат каждой записи сам.
+     */
+    @NotNull
+    @Getter
+    private RedisBinaryFormat binaryFormat;
+
+    /**
+     * Размер значения в байтах, начиная с которого оно сжимается при {@link SerializeMode#Bytes}; 0 - не сжимать.
+     * Загрузчик распознает сжатые значения сам.
+     */
+    @Getter
+    private int compressionThresholdBytes;
+
+    /**
+     * Не перезаписывать записи, значения которых не изменились: для каждой записи рядом с коллекцией хранится
+     * дайджест значения ({@link ru.gx.core.redis.RedisCollectionDigests}), и пишутся только записи с другим дайджестом.
+     * Не действует для {@link OutcomeSnapshotMode#Atomic} (теневая коллекция пишется целиком).
+     * Пока режим выключен, дайджесты не ведутся, и выгрузчик удаляет их при первой записи в коллекцию.
+     * Перед каждой выгрузкой порций с включенным режимом количество дайджестов сверяется с количеством записей
+     * коллекции, и при расхождении дайджесты сбрасываются (все записи пишутся заново).
+     * Изменения значений в обход выгрузчиков, не меняющие количество записей, не обнаруживаются.
+     */
+    @Getter
+    private boolean skipUnchanged;
+
+    /**
+     * Количество шардов коллекции ({@link ru.gx.core.redis.RedisCollectionShards}); 1 - коллекция не шардирована.
+     * Шарды пишутся параллельно. Менять количество шардов у непустой коллекции нельзя: записи окажутся не в тех шардах.
+     * Выгрузчик сохраняет количество шардов рядом с коллекцией, чтобы загрузчики могли его сверить.
+     */
+    @Getter
+    private int shardsCount;
 
     // </editor-fold>
     // -----------------------------------------------------------------------------------------------------------------
@@ -31,6 +129,15 @@ public class RedisOutcomeCollectionUploadingDescriptor
             @Nullable final RedisOutcomeCollectionUploadingDescriptorsDefaults defaults
     ) {
         super(owner, api, defaults);
+        this.reconcilePageSize = DEFAULT_RECONCILE_PAGE_SIZE;
+        this.uploadChunkMaxFields = DEFAULT_UPLOAD_CHUNK_MAX_FIELDS;
+        this.uploadChunkMaxBytes = DEFAULT_UPLOAD_CHUNK_MAX_BYTES;
+        this.snapshotMode = OutcomeSnapshotMode.Reconcile;
+        this.keysTrackingMode = UploadingKeysTrackingMode.Heap;
+        this.changelogMaxSize = DEFAULT_CHANGELOG_MAX_SIZE;
+        this.binaryFormat = RedisBinaryFormat.Json;
+        this.shardsCount = 1;
+        internalInitDefaults(defaults);
     }
 
     public RedisOutcomeCollectionUploadingDescriptor(
@@ -41,6 +148,24 @@ public class RedisOutcomeCollectionUploadingDescriptor
         throw new NullPointerException("getApi() is null!");
     }
 
+    private void internalInitDefaults(@Nullable RedisOutcomeCollectionUploadingDescriptorsDefaults defaults) {
+        if (defaults != null) {
+            this
+                    .setReconcilePageSize(defaults.getReconcilePageSize())
+                    .setUploadChunkMaxFields(defaults.getUploadChunkMaxFields())
+                    .setUploadChunkMaxBytes(defaults.getUploadChunkMaxBytes())
+                    .setSnapshotMode(defaults.getSnapshotMode())
+                    .setKeysTrackingMode(defaults.getKeysTrackingMode())
+                    .setChangeTracking(defaults.isChangeTracking())
+                    .setChangelogMaxSize(defaults.getChangelogMaxSize())
+                    .setPublishInvalidations(defaults.isPublishInvalidations())
+                    .setBinaryFormat(defaults.getBinaryFormat())
+                    .setCompressionThresholdBytes(defaults.getCompressionThresholdBytes())
+                    .setSkipUnchanged(defaults.isSkipUnchanged())
+                    .setShardsCount(defaults.getShardsCount());
+        }
+    }
+
     /**
      * Настройка Descriptor-а должна заканчиваться этим методом.
      *
@@ -55,6 +180,7 @@ public class RedisOutcomeCollectionUploadingDescriptor
 
     @NotNull
     public RedisOutcomeCollectionUploadingDescriptor unInit() {
+        getOwner().internalNotifyDescriptorUnInit(this);
         super.unInit();
         return this;
     }
@@ -80,6 +206,110 @@ public class RedisOutcomeCollectionUploadingDescriptor
         // this.getSerializeMode() == SerializeMode.Bytes:
         return this.getOwner().getBinaryRedisTemplate();
     }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setReconcilePageSize(final int reconcilePageSize) {
+        this.checkMutable("reconcilePageSize");
+        if (reconcilePageSize <= 0) {
+            throw new InvalidParameterException("reconcilePageSize must be positive: " + reconcilePageSize);
+        }
+        this.reconcilePageSize = reconcilePageSize;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setUploadChunkMaxFields(final int uploadChunkMaxFields) {
+        this.checkMutable("uploadChunkMaxFields");
+        if (uploadChunkMaxFields <= 0) {
+            throw new InvalidParameterException("uploadChunkMaxFields must be positive: " + uploadChunkMaxFields);
+        }
+        this.uploadChunkMaxFields = uploadChunkMaxFields;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setUploadChunkMaxBytes(final long uploadChunkMaxBytes) {
+        this.checkMutable("uploadChunkMaxBytes");
+        if (uploadChunkMaxBytes <= 0) {
+            throw new InvalidParameterException("uploadChunkMaxBytes must be positive: " + uploadChunkMaxBytes);
+        }
+        this.uploadChunkMaxBytes = uploadChunkMaxBytes;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setSnapshotMode(@NotNull final OutcomeSnapshotMode snapshotMode) {
+        this.checkMutable("snapshotMode");
+        this.snapshotMode = snapshotMode;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setKeysTrackingMode(
+            @NotNull final UploadingKeysTrackingMode keysTrackingMode
+    ) {
+        this.checkMutable("keysTrackingMode");
+        this.keysTrackingMode = keysTrackingMode;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setChangeTracking(final boolean changeTracking) {
+        this.checkMutable("changeTracking");
+        this.changeTracking = changeTracking;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setChangelogMaxSize(final int changelogMaxSize) {
+        this.checkMutable("changelogMaxSize");
+        if (changelogMaxSize <= 0) {
+            throw new InvalidParameterException("changelogMaxSize must be positive: " + changelogMaxSize);
+        }
+        this.changelogMaxSize = changelogMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setPublishInvalidations(final boolean publishInvalidations) {
+        this.checkMutable("publishInvalidations");
+        this.publishInvalidations = publishInvalidations;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setBinaryFormat(@NotNull final RedisBinaryFormat binaryFormat) {
+        this.checkMutable("binaryFormat");
+        this.binaryFormat = binaryFormat;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setCompressionThresholdBytes(final int compressionThresholdBytes) {
+        this.checkMutable("compressionThresholdBytes");
+        if (compressionThresholdBytes < 0) {
+            throw new InvalidParameterException("compressionThresholdBytes must be non-negative: " + compressionThresholdBytes);
+        }
+        this.compressionThresholdBytes = compressionThresholdBytes;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setSkipUnchanged(final boolean skipUnchanged) {
+        this.checkMutable("skipUnchanged");
+        this.skipUnchanged = skipUnchanged;
+        return this;
+    }
+
+    @NotNull
+    public RedisOutcomeCollectionUploadingDescriptor setShardsCount(final int shardsCount) {
+        this.checkMutable("shardsCount");
+        if (shardsCount <= 0) {
+            throw new InvalidParameterException("shardsCount must be positive: " + shardsCount);
+        }
+        this.shardsCount = shardsCount;
+        return this;
+    }
     // </editor-fold>
     // -----------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Messages generating">
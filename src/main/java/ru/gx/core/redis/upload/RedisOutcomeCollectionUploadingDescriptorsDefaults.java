@@ -1,16 +1,70 @@
 package ru.gx.core.redis.upload;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
 import ru.gx.core.channels.OutcomeChannelDescriptorsDefaults;
+import ru.gx.core.redis.OutcomeSnapshotMode;
+import ru.gx.core.redis.RedisBinaryFormat;
+import ru.gx.core.redis.UploadingKeysTrackingMode;
 
 @SuppressWarnings("unused")
+@Getter
 @Accessors(chain = true)
 @EqualsAndHashCode(callSuper = false)
 @ToString
 public class RedisOutcomeCollectionUploadingDescriptorsDefaults extends OutcomeChannelDescriptorsDefaults {
+    @Setter
+    private int reconcilePageSize;
+
+    @Setter
+    private int uploadChunkMaxFields;
+
+    @Setter
+    private long uploadChunkMaxBytes;
+
+    @Setter
+    @NotNull
+    private OutcomeSnapshotMode snapshotMode;
+
+    @Setter
+    @NotNull
+    private UploadingKeysTrackingMode keysTrackingMode;
+
+    @Setter
+    private boolean changeTracking;
+
+    @Setter
+    private int changelogMaxSize;
+
+    @Setter
+    private boolean publishInvalidations;
+
+    @Setter
+    @NotNull
+    private RedisBinaryFormat binaryFormat;
+
+    @Setter
+    private int compressionThresholdBytes;
+
+    @Setter
+    private boolean skipUnchanged;
+
+    @Setter
+    private int shardsCount;
+
     protected RedisOutcomeCollectionUploadingDescriptorsDefaults() {
         super();
+        this.reconcilePageSize = RedisOutcomeCollectionUploadingDescriptor.DEFAULT_RECONCILE_PAGE_SIZE;
+        this.uploadChunkMaxFields = RedisOutcomeCollectionUploadingDescriptor.DEFAULT_UPLOAD_CHUNK_MAX_FIELDS;
+        this.uploadChunkMaxBytes = RedisOutcomeCollectionUploadingDescriptor.DEFAULT_UPLOAD_CHUNK_MAX_BYTES;
+        this.snapshotMode = OutcomeSnapshotMode.Reconcile;
+        this.keysTrackingMode = UploadingKeysTrackingMode.Heap;
+        this.changelogMaxSize = RedisOutcomeCollectionUploadingDescriptor.DEFAULT_CHANGELOG_MAX_SIZE;
+        this.binaryFormat = RedisBinaryFormat.Json;
+        this.shardsCount = 1;
     }
 }
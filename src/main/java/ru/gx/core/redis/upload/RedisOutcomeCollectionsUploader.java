@@ -2,13 +2,15 @@ package ru.gx.core.redis.upload;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import ru.gx.core.channels.ChannelConfigurationException;
 import ru.gx.core.channels.ChannelHandlerDescriptor;
 import ru.gx.core.channels.SerializeMode;
@@ -18,18 +20,47 @@ import ru.gx.core.data.DataPackage;
 import ru.gx.core.messaging.Message;
 import ru.gx.core.messaging.MessageBody;
 import ru.gx.core.messaging.MessagesFactory;
+import ru.gx.core.redis.OutcomeSnapshotMode;
+import ru.gx.core.redis.RedisCollectionChangelog;
+import ru.gx.core.redis.RedisCollectionDigests;
+import ru.gx.core.redis.RedisCollectionInvalidation;
+import ru.gx.core.redis.RedisCollectionShards;
+import ru.gx.core.redis.RedisExecutors;
+import ru.gx.core.redis.UploadingKeysTrackingMode;
+import ru.gx.core.redis.codec.RedisBinaryCodecs;
+import ru.gx.core.redis.config.ConfigurationPropertiesServiceRedis;
 import ru.gx.core.redis.load.PublishSnapshotContext;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 import static lombok.AccessLevel.PROTECTED;
 
 @SuppressWarnings({"unused"})
 @Slf4j
-@RequiredArgsConstructor
-public class RedisOutcomeCollectionsUploader {
+public class RedisOutcomeCollectionsUploader implements DisposableBean {
     public static final int TEMP_SET_EXPIRE_HOURS = 3;
+
+    /**
+     * Подмена коллекции теневой копией: KEYS[1] - теневая коллекция, KEYS[2] - коллекция, KEYS[3] - имя для старой копии.
+     * Старое содержимое освобождается через UNLINK в фоне сервера. Если теневой коллекции нет (пустой снапшот),
+     * то коллекция удаляется.
+     */
+    private static final RedisScript<Long> PUBLISH_SHADOW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then\n" +
+                    "  redis.call('UNLINK', KEYS[2])\n" +
+                    "  return 0\n" +
+                    "end\n" +
+                    "if redis.call('EXISTS', KEYS[2]) == 1 then\n" +
+                    "  redis.call('RENAME', KEYS[2], KEYS[3])\n" +
+                    "end\n" +
+                    "redis.call('RENAME', KEYS[1], KEYS[2])\n" +
+                    "redis.call('PERSIST', KEYS[2])\n" +
+                    "redis.call('UNLINK', KEYS[3])\n" +
+                    "return 1",
+            Long.class
+    );
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Fields">
 
@@ -54,10 +85,138 @@ public class RedisOutcomeCollectionsUploader {
     @NotNull
     private final StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * Кодеки значений коллекций с {@link SerializeMode#Bytes}. Через него приложение может зарегистрировать свой кодек.
+     * Им же пишется JSON для {@link SerializeMode#JsonString}.
+     */
+    @Getter
+    @NotNull
+    private final RedisBinaryCodecs binaryCodecs;
+
     /**
      * Кэш ключей, которые выгрузились в Redis
      */
-    private final Map<RedisOutcomeCollectionUploadingDescriptor, Set<Object>> uploadingKeysCache = new HashMap<>();
+    private final Map<RedisOutcomeCollectionUploadingDescriptor, UploadingKeysTracker> uploadingKeysCache =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Потоки, в которых порции данных пишутся в Redis, пока сериализуются следующие. Создаются при первой необходимости.
+     */
+    @Nullable
+    private volatile ExecutorService writeExecutor;
+
+    /**
+     * Потоки, в которых параллельно выгружаются шарды коллекций с
+     * {@link RedisOutcomeCollectionUploadingDescriptor#getShardsCount()} > 1: не более
+     * {@link ConfigurationPropertiesServiceRedis.StandardUploader#getShardThreads()} шардов одновременно.
+     * Создаются при первой необходимости.
+     */
+    @Nullable
+    private volatile ExecutorService shardExecutor;
+
+    /**
+     * Настройки выгрузчика.
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.StandardUploader settings;
+
+    /**
+     * Настройки потоков выполнения: при {@link ConfigurationPropertiesServiceRedis.Execution#isVirtualThreads()}
+     * порции пишутся в виртуальных потоках.
+     */
+    @Getter(PROTECTED)
+    @NotNull
+    private final ConfigurationPropertiesServiceRedis.Execution execution;
+
+    /**
+     * Метрики выгрузки по описателям.
+     */
+    private final Map<RedisOutcomeCollectionUploadingDescriptor, OutcomeCollectionMetrics> metrics =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Описатели без {@link RedisOutcomeCollectionUploadingDescriptor#isSkipUnchanged()}, дайджесты коллекций которых
+     * уже удалены этим выгрузчиком (см. {@link #internalDropDigests(RedisOutcomeCollectionUploadingDescriptor)}).
+     */
+    private final Set<RedisOutcomeCollectionUploadingDescriptor> digestsDropped = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Описатели, количество шардов которых уже сохранено этим выгрузчиком в {@link RedisCollectionShards#getShardsCountKey(String)}.
+     */
+    private final Set<RedisOutcomeCollectionUploadingDescriptor> shardsCountWritten = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Описатели, для которых идет батчевая выгрузка ({@link #startBatchedUploadObjects} - {@link #finishBatchedUploadObjects}):
+     * их дайджесты уже сверены при ее начале.
+     */
+    @NotNull
+    private final Set<RedisOutcomeCollectionUploadingDescriptor> batchedUploads = ConcurrentHashMap.newKeySet();
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+    public RedisOutcomeCollectionsUploader(
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesFactory messagesFactory,
+            @NotNull final StringRedisTemplate stringRedisTemplate
+    ) {
+        this(objectMapper, messagesFactory, stringRedisTemplate, new ConfigurationPropertiesServiceRedis.Execution());
+    }
+
+    public RedisOutcomeCollectionsUploader(
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesFactory messagesFactory,
+            @NotNull final StringRedisTemplate stringRedisTemplate,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution
+    ) {
+        this(objectMapper, messagesFactory, stringRedisTemplate, execution, new RedisBinaryCodecs(objectMapper));
+    }
+
+    public RedisOutcomeCollectionsUploader(
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesFactory messagesFactory,
+            @NotNull final StringRedisTemplate stringRedisTemplate,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution,
+            @NotNull final RedisBinaryCodecs binaryCodecs
+    ) {
+        this(
+                objectMapper,
+                messagesFactory,
+                stringRedisTemplate,
+                new ConfigurationPropertiesServiceRedis.StandardUploader(),
+                execution,
+                binaryCodecs
+        );
+    }
+
+    public RedisOutcomeCollectionsUploader(
+            @NotNull final ObjectMapper objectMapper,
+            @NotNull final MessagesFactory messagesFactory,
+            @NotNull final StringRedisTemplate stringRedisTemplate,
+            @NotNull final ConfigurationPropertiesServiceRedis.StandardUploader settings,
+            @NotNull final ConfigurationPropertiesServiceRedis.Execution execution,
+            @NotNull final RedisBinaryCodecs binaryCodecs
+    ) {
+        this.objectMapper = objectMapper;
+        this.messagesFactory = messagesFactory;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.settings = settings;
+        this.execution = execution;
+        this.binaryCodecs = binaryCodecs;
+    }
+
+    @Override
+    public void destroy() {
+        final var executor = this.writeExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        final var shardExecutor = this.shardExecutor;
+        if (shardExecutor != null) {
+            shardExecutor.shutdownNow();
+        }
+    }
+
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
     // <editor-fold desc="Реализация OutcomeCollectionUploader">
@@ -176,35 +335,38 @@ public class RedisOutcomeCollectionsUploader {
             @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
             boolean deleteMissed
     ) {
-        if (deleteMissed) {
-            final var keysSet = this.uploadingKeysCache.computeIfAbsent(descriptor, k -> new HashSet<>());
-            keysSet.clear();
-        } else {
-            this.uploadingKeysCache.remove(descriptor);
+        final var previous = deleteMissed
+                ? this.uploadingKeysCache.put(descriptor, createUploadingKeysTracker(descriptor))
+                : this.uploadingKeysCache.remove(descriptor);
+        if (previous != null) {
+            previous.close();
+        }
+        if (descriptor.isSkipUnchanged()) {
+            internalValidateDigests(descriptor);
         }
+        this.batchedUploads.add(descriptor);
     }
 
     /**
-     * Окончание выгрузки объектов в Redis батчами
+     * Окончание выгрузки объектов в Redis батчами.<br/>
+     * Коллекция просматривается курсором HSCAN, каждая страница сверяется с выгруженными ключами,
+     * отсутствующие записи удаляются пачками - нагрузка на Redis и память клиента не зависят от размера коллекции.
      *
      * @param descriptor Описатель канала
      */
     public void finishBatchedUploadObjects(
             @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor
     ) {
-        final var uploadedKeysSet = this.uploadingKeysCache.get(descriptor);
-        if (uploadedKeysSet != null) {
-            final var template = descriptor.getRedisTemplate();
-            final var descriptorName = descriptor.getChannelName();
-            final var redisKeys = template.opsForHash().keys(descriptorName);
-
-            redisKeys.removeAll(uploadedKeysSet);
-            if (!redisKeys.isEmpty()) {
-                log.info("Removing {} entries from {}", redisKeys, descriptorName);
-                template.opsForHash().delete(descriptorName, redisKeys.toArray());
+        this.batchedUploads.remove(descriptor);
+        final var uploadedKeys = this.uploadingKeysCache.remove(descriptor);
+        if (uploadedKeys != null) {
+            try (uploadedKeys) {
+                final var descriptorName = descriptor.getChannelName();
+                final var uploadedCount = uploadedKeys.size();
+                final var deletedEntries = internalDeleteMissed(descriptor, uploadedKeys::contains);
+                log.info("Batched upload finished for {}: uploaded keys: {}, removed entries: {}", descriptorName,
+                        uploadedCount, deletedEntries);
             }
-
-            this.uploadingKeysCache.remove(descriptor);
         }
     }
 
@@ -219,9 +381,11 @@ public class RedisOutcomeCollectionsUploader {
     ) throws Exception {
         uploadDataObjects(descriptor, batch, keyExtractor, false, null);
 
-        final var uploadedKeysSet = this.uploadingKeysCache.get(descriptor);
-        if (uploadedKeysSet != null) {
-            batch.forEach(item -> uploadedKeysSet.add(keyExtractor.extractKey(item)));
+        final var uploadedKeys = this.uploadingKeysCache.get(descriptor);
+        if (uploadedKeys != null) {
+            final var keys = new ArrayList<>(batch.size());
+            batch.forEach(item -> keys.add(keyExtractor.extractKey(item)));
+            uploadedKeys.addAll(keys);
         }
     }
     // </editor-fold>
@@ -255,14 +419,79 @@ public class RedisOutcomeCollectionsUploader {
             throw new NullPointerException("descriptor.getApi() is null!");
         }
 
-        Object serializedData;
+        final var serializedData = internalSerializeMessage(descriptor, message);
+        final var template = descriptor.getRedisTemplate();
+        internalWriteShardsCount(descriptor);
+        final var hashName = RedisCollectionShards.getHashName(descriptor.getApi().getName(), key, descriptor.getShardsCount());
+        getMetrics(descriptor).getChunkWrite()
+                .record(() -> template.opsForHash().put(hashName, key, serializedData));
+        if (descriptor.isSkipUnchanged()) {
+            RedisCollectionDigests.store(
+                    descriptor.getOwner().getJsonStringRedisTemplate(),
+                    hashName,
+                    Map.of(key, RedisCollectionDigests.digest(serializedData))
+            );
+        } else {
+            internalDropDigests(descriptor);
+        }
+        internalRecordChanges(descriptor, List.of(key));
+        internalPublishInvalidations(descriptor, List.of(key));
+    }
+
+    /**
+     * Сериализация сообщения в то представление, которое хранится в коллекции.
+     *
+     * @param descriptor Описатель канала.
+     * @param message    Сообщение.
+     * @return {@link String} для {@link SerializeMode#JsonString}, иначе {@code byte[]}.
+     */
+    @NotNull
+    protected Object internalSerializeMessage(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Message<? extends MessageBody> message
+    ) throws Exception {
+        final var api = descriptor.getApi();
+        if (api == null) {
+            throw new NullPointerException("descriptor.getApi() is null!");
+        }
+        final var metrics = getMetrics(descriptor);
+        final var allocatedBefore = OutcomeCollectionMetrics.currentThreadAllocatedBytes();
+        final var started = System.nanoTime();
+        final Object result;
+        final long size;
         if (api.getSerializeMode() == SerializeMode.JsonString) {
-            serializedData = getObjectMapper().writeValueAsString(message);
+            final var json = getBinaryCodecs().writeJsonString(message);
+            size = json.length();
+            result = json;
         } else {
-            serializedData = getObjectMapper().writeValueAsBytes(message);
+            final var bytes = getBinaryCodecs().encode(
+                    descriptor.getBinaryFormat(),
+                    message,
+                    descriptor.getCompressionThresholdBytes()
+            );
+            size = bytes.length;
+            result = bytes;
         }
-        final var template = descriptor.getRedisTemplate();
-        template.opsForHash().put(descriptor.getApi().getName(), key, serializedData);
+        metrics.getSerialize().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (allocatedBefore >= 0) {
+            metrics.getSerializeAllocated().record(OutcomeCollectionMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+        }
+        metrics.getBytesWritten().increment(size);
+        return result;
+    }
+
+    /**
+     * @return Метрики выгрузки коллекции описателя.
+     */
+    @NotNull
+    protected OutcomeCollectionMetrics getMetrics(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        return this.metrics.computeIfAbsent(descriptor, d -> {
+            final var api = d.getApi();
+            if (api == null) {
+                throw new NullPointerException("descriptor.getApi() is null!");
+            }
+            return new OutcomeCollectionMetrics(d.getOwner().getMeterRegistry(), d.getChannelName(), api.getSerializeMode());
+        });
     }
 
     protected <M extends Message<? extends MessageBody>>
@@ -280,23 +509,13 @@ public class RedisOutcomeCollectionsUploader {
             throw new NullPointerException("(deleteMissed == true) && (context is null)!");
         }
 
-        final var serializedData = new HashMap<String, Object>();
-        if (api.getSerializeMode() == SerializeMode.JsonString) {
-            for (final var entry : messages.entrySet()) {
-                serializedData.put(entry.getKey(), getObjectMapper().writeValueAsString(entry.getValue()));
-            }
-        } else {
-            for (final var entry : messages.entrySet()) {
-                serializedData.put(entry.getKey(), getObjectMapper().writeValueAsBytes(entry.getValue()));
-            }
-        }
-
         final var descriptorName = descriptor.getChannelName();
         final var template = descriptor.getRedisTemplate();
-        final var tempSetName = deleteMissed ? getTempSetName(context, descriptorName) : null;
+        final var atomicSnapshot = deleteMissed && descriptor.getSnapshotMode() == OutcomeSnapshotMode.Atomic;
+        final var tempSetName = deleteMissed && !atomicSnapshot ? getTempSetName(context, descriptorName) : null;
+        final var copySuffix = atomicSnapshot ? getShadowSuffix(context) : null;
 
-        if (deleteMissed) {
-            final SetOperations<String, ?> stringSetOperations = template.opsForSet();
+        if (tempSetName != null && !messages.isEmpty()) {
             //добавляем все ключи во временное множество, чтобы потом сравнить его с результирующим и удалить лишние
             //noinspection ToArrayCallWithZeroLengthArrayArgument
             this.stringRedisTemplate.opsForSet()
@@ -307,36 +526,625 @@ public class RedisOutcomeCollectionsUploader {
             this.stringRedisTemplate.expire(tempSetName, TEMP_SET_EXPIRE_HOURS, TimeUnit.HOURS);
         }
 
-        template.opsForHash()
-                .putAll(descriptorName, serializedData);
+        if (descriptor.isSkipUnchanged() && copySuffix == null && isDigestsValidationRequired(descriptor, context)) {
+            internalValidateDigests(descriptor);
+        }
+        final var writtenKeys = internalWriteMessages(descriptor, copySuffix, messages);
+        if (!atomicSnapshot) {
+            internalRecordChanges(descriptor, writtenKeys);
+            internalPublishInvalidations(descriptor, writtenKeys);
+        }
+        if (context != null) {
+            context.addWrittenCount(writtenKeys.size());
+            context.addSkippedCount(messages.size() - writtenKeys.size());
+        }
 
-        if (deleteMissed && context.isLast()) {
+        if (atomicSnapshot) {
+            //теневая коллекция не должна пережить брошенную публикацию снапшота
+            if (!messages.isEmpty()) {
+                for (final var hashName : RedisCollectionShards.getHashNames(descriptorName, descriptor.getShardsCount(), copySuffix)) {
+                    template.expire(hashName, TEMP_SET_EXPIRE_HOURS, TimeUnit.HOURS);
+                }
+            }
+            if (context.isLast()) {
+                internalPublishShadowHash(descriptor, context);
+            }
+        } else if (deleteMissed && context.isLast()) {
             log.info("Last batch detected, deleting old dictionary records for context: {}", context);
-            int deletedEntries = 0;
-            try (final var scan = template.opsForHash()
-                    .scan(descriptorName, ScanOptions.scanOptions().build())) {
+            final var deletedEntries = internalDeleteMissed(
+                    descriptor,
+                    keys -> RedisSetUploadingKeysTracker.isMembers(this.stringRedisTemplate, tempSetName, keys)
+            );
+            this.stringRedisTemplate.unlink(tempSetName);
+            log.info("Deletion finished for context: {}, tempSet: {}, deletedEntries: {}", context,
+                    tempSetName, deletedEntries);
+        }
+    }
+
+    /**
+     * Запись сообщений в коллекцию или ее теневую копию.<br/>
+     * Если коллекция шардирована ({@link RedisOutcomeCollectionUploadingDescriptor#getShardsCount()} > 1), то сообщения
+     * разбиваются по шардам, и шарды пишутся параллельно, каждый - как описано в
+     * {@link #internalWriteHash(RedisOutcomeCollectionUploadingDescriptor, String, Map, boolean)}.
+     *
+     * @param descriptor Описатель канала.
+     * @param copySuffix Суффикс имени теневой копии ({@link RedisCollectionShards#getHashNames(String, int, String)});
+     *                   null - запись в саму коллекцию.
+     * @param messages   Сообщения с ключами.
+     * @return Ключи записанных записей.
+     */
+    @NotNull
+    protected <M extends Message<? extends MessageBody>>
+    Collection<String> internalWriteMessages(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @Nullable final String copySuffix,
+            @NotNull final Map<String, M> messages
+    ) throws Exception {
+        final var skipUnchanged = descriptor.isSkipUnchanged() && copySuffix == null;
+        if (!descriptor.isSkipUnchanged()) {
+            internalDropDigests(descriptor);
+        }
+        if (copySuffix == null) {
+            internalWriteShardsCount(descriptor);
+        }
+        final var shardsCount = descriptor.getShardsCount();
+        final var hashNames = RedisCollectionShards.getHashNames(descriptor.getChannelName(), shardsCount, copySuffix);
+        if (shardsCount <= 1) {
+            return internalWriteHash(descriptor, hashNames.get(0), messages, skipUnchanged);
+        }
+
+        final var shards = RedisCollectionShards.partition(messages, shardsCount);
+        final var futures = new ArrayList<CompletableFuture<Collection<String>>>(shardsCount);
+        for (var shard = 0; shard < shardsCount; shard++) {
+            final var shardName = hashNames.get(shard);
+            final var shardMessages = shards.get(shard);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> {
+                        try {
+                            return internalWriteHash(descriptor, shardName, shardMessages, skipUnchanged);
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    },
+                    getShardExecutor()
+            ));
+        }
+
+        final var writtenKeys = new ArrayList<String>(messages.size());
+        Exception error = null;
+        for (final var future : futures) {
+            try {
+                writtenKeys.addAll(future.join());
+            } catch (CompletionException e) {
+                final var cause = e.getCause() instanceof final Exception exception ? exception : e;
+                if (error == null) {
+                    error = cause;
+                } else {
+                    error.addSuppressed(cause);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return writtenKeys;
+    }
+
+    /**
+     * Запись сообщений в один HASH порциями.<br/>
+     * Сообщения сериализуются в текущем потоке и собираются в порции не более
+     * {@link RedisOutcomeCollectionUploadingDescriptor#getUploadChunkMaxFields()} полей и
+     * {@link RedisOutcomeCollectionUploadingDescriptor#getUploadChunkMaxBytes()} байт.
+     * Каждая порция пишется одной командой в отдельном потоке, пока сериализуется следующая,
+     * так что одновременно в памяти не более двух порций.<br/>
+     * При {@code skipUnchanged} из порции перед записью исключаются записи, дайджест значения которых совпадает
+     * с сохраненным.
+     *
+     * @param descriptor    Описатель канала.
+     * @param hashName      Имя HASH-а, в который пишем: коллекция, ее шард или теневая копия.
+     * @param messages      Сообщения с ключами.
+     * @param skipUnchanged Пропускать ли записи с неизменившимися значениями (только при записи в саму коллекцию).
+     * @return Ключи записанных записей.
+     */
+    @NotNull
+    protected <M extends Message<? extends MessageBody>>
+    Collection<String> internalWriteHash(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final Map<String, M> messages,
+            final boolean skipUnchanged
+    ) throws Exception {
+        final var metrics = getMetrics(descriptor);
+        final var maxFields = descriptor.getUploadChunkMaxFields();
+        final var maxBytes = descriptor.getUploadChunkMaxBytes();
+        final var writtenKeys = skipUnchanged ? new ArrayList<String>() : null;
+
+        CompletableFuture<Void> inFlight = null;
+        var chunk = new HashMap<String, Object>();
+        var chunkBytes = 0L;
+        var chunksCount = 0;
+        try {
+            for (final var entry : messages.entrySet()) {
+                final var serialized = internalSerializeMessage(descriptor, entry.getValue());
+                chunk.put(entry.getKey(), serialized);
+                chunkBytes += serializedSize(serialized);
+                if (chunk.size() >= maxFields || chunkBytes >= maxBytes) {
+                    final var digests = skipUnchanged ? retainChanged(descriptor, hashName, chunk, writtenKeys) : null;
+                    inFlight = writeChunkAsync(inFlight, descriptor, hashName, chunk, digests);
+                    chunk = new HashMap<>();
+                    chunkBytes = 0;
+                    chunksCount++;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                final var digests = skipUnchanged ? retainChanged(descriptor, hashName, chunk, writtenKeys) : null;
+                inFlight = writeChunkAsync(inFlight, descriptor, hashName, chunk, digests);
+                chunksCount++;
+            }
+            awaitChunk(inFlight);
+        } catch (Exception e) {
+            // Запись предыдущей порции не должна продолжаться после выхода из метода (например, параллельно
+            // с очисткой теневой копии вызывающим кодом).
+            awaitChunkQuietly(inFlight, e);
+            throw e;
+        }
+        if (writtenKeys == null) {
+            log.debug("Collection: {}; written {} records in {} chunks", hashName, messages.size(), chunksCount);
+            return messages.keySet();
+        }
+        metrics.getUnchangedSkipped().increment(messages.size() - writtenKeys.size());
+        log.debug("Collection: {}; written {} records, skipped {} unchanged records in {} chunks", hashName,
+                writtenKeys.size(), messages.size() - writtenKeys.size(), chunksCount);
+        return writtenKeys;
+    }
+
+    /**
+     * Сверка количества дайджестов с количеством записей каждого HASH-а коллекции (каждого шарда) перед выгрузкой с
+     * {@link RedisOutcomeCollectionUploadingDescriptor#isSkipUnchanged()}. Расхождение означает, что коллекция удалена,
+     * истекла или изменена в обход выгрузчика, или прошлая выгрузка прервалась; тогда дайджесты этого HASH-а
+     * сбрасываются, чтобы {@link #retainChanged} не пропустил записи, которых в коллекции на самом деле нет.
+     *
+     * @param descriptor Описатель канала.
+     */
+    protected void internalValidateDigests(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        final var stringTemplate = descriptor.getOwner().getJsonStringRedisTemplate();
+        final var template = descriptor.getRedisTemplate();
+        for (final var hashName : RedisCollectionShards.getHashNames(descriptor.getChannelName(), descriptor.getShardsCount())) {
+            final var digestsCount = RedisCollectionDigests.count(stringTemplate, hashName);
+            if (digestsCount == 0) {
+                continue;
+            }
+            final var size = template.opsForHash().size(hashName);
+            final var recordsCount = size != null ? size : 0L;
+            if (digestsCount != recordsCount) {
+                log.info("Collection: {}; {} digests for {} records, digests reset", hashName, digestsCount,
+                        recordsCount);
+                RedisCollectionDigests.reset(stringTemplate, hashName);
+            }
+        }
+    }
+
+    /**
+     * Дайджесты сверяются ({@link #internalValidateDigests}) один раз на публикацию снапшота - первым батчем контекста,
+     * и один раз на батчевую выгрузку - в {@link #startBatchedUploadObjects}. Отдельная выгрузка без контекста
+     * сверяет их каждый раз.
+     */
+    private boolean isDigestsValidationRequired(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @Nullable final PublishSnapshotContext context
+    ) {
+        if (context != null) {
+            return context.markDigestsValidated();
+        }
+        return !this.batchedUploads.contains(descriptor);
+    }
+
+    /**
+     * Удаление дайджестов коллекции при записи в нее без {@link RedisOutcomeCollectionUploadingDescriptor#isSkipUnchanged()}:
+     * такая запись дайджесты не ведет, и после включения режима они бы устарели.
+     * Выполняется один раз на описатель.
+     *
+     * @param descriptor Описатель канала.
+     */
+    protected void internalDropDigests(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        if (this.digestsDropped.add(descriptor)) {
+            RedisCollectionDigests.resetAll(
+                    descriptor.getOwner().getJsonStringRedisTemplate(),
+                    descriptor.getChannelName(),
+                    descriptor.getShardsCount()
+            );
+        }
+    }
+
+    /**
+     * Сохранение количества шардов коллекции ({@link RedisCollectionShards#writeShardsCount(StringRedisTemplate, String, int)}),
+     * по которому загрузчик проверяет, что читает коллекцию с тем же разбиением. Выполняется один раз на описатель.
+     *
+     * @param descriptor Описатель канала.
+     */
+    protected void internalWriteShardsCount(@NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor) {
+        if (this.shardsCountWritten.add(descriptor)) {
+            RedisCollectionShards.writeShardsCount(
+                    descriptor.getOwner().getJsonStringRedisTemplate(),
+                    descriptor.getChannelName(),
+                    descriptor.getShardsCount()
+            );
+        }
+    }
+
+    /**
+     * Исключение из порции записей, значения которых не изменились (по сохраненным дайджестам).
+     *
+     * @param descriptor  Описатель канала.
+     * @param chunk       Порция сериализованных значений; в ней остаются только измененные записи.
+     * @param writtenKeys Сюда добавляются ключи оставшихся записей.
+     * @return Новые дайджесты оставшихся записей.
+     */
+    @NotNull
+    private Map<String, String> retainChanged(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final Map<String, Object> chunk,
+            @NotNull final List<String> writtenKeys
+    ) {
+        final var keys = new ArrayList<>(chunk.keySet());
+        final var stored = RedisCollectionDigests.load(
+                descriptor.getOwner().getJsonStringRedisTemplate(),
+                hashName,
+                keys
+        );
+        final var digests = new HashMap<String, String>();
+        for (var i = 0; i < keys.size(); i++) {
+            final var key = keys.get(i);
+            final var digest = RedisCollectionDigests.digest(chunk.get(key));
+            if (digest.equals(stored.get(i))) {
+                chunk.remove(key);
+            } else {
+                digests.put(key, digest);
+                writtenKeys.add(key);
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * Отправка порции на запись после завершения записи предыдущей порции.
+     * Дайджесты записываются после значений: если запись прервется между ними, значения просто перезапишутся
+     * в следующий раз.
+     */
+    @NotNull
+    private CompletableFuture<Void> writeChunkAsync(
+            @Nullable final CompletableFuture<Void> previous,
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final Map<String, Object> chunk,
+            @Nullable final Map<String, String> digests
+    ) {
+        awaitChunk(previous);
+        if (chunk.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var template = descriptor.getRedisTemplate();
+        final var chunkWrite = getMetrics(descriptor).getChunkWrite();
+        return CompletableFuture.runAsync(
+                () -> {
+                    chunkWrite.record(() -> template.opsForHash().putAll(hashName, chunk));
+                    if (digests != null) {
+                        RedisCollectionDigests.store(
+                                descriptor.getOwner().getJsonStringRedisTemplate(),
+                                hashName,
+                                digests
+                        );
+                    }
+                },
+                getWriteExecutor()
+        );
+    }
+
+    /**
+     * Ожидание записи порции при выходе по ошибке {@code error}; ошибка самой записи добавляется к ней как suppressed.
+     */
+    private static void awaitChunkQuietly(
+            @Nullable final CompletableFuture<Void> chunkFuture,
+            @NotNull final Exception error
+    ) {
+        try {
+            awaitChunk(chunkFuture);
+        } catch (RuntimeException e) {
+            if (e != error) {
+                error.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * @return Размер сериализованного значения в байтах: длина {@code byte[]} или длина строки в UTF-8
+     * (в этой кодировке строки пишутся в Redis).
+     */
+    static long serializedSize(@NotNull final Object serialized) {
+        if (serialized instanceof final byte[] bytes) {
+            return bytes.length;
+        }
+        final var string = (String) serialized;
+        final var length = string.length();
+        var result = (long) length;
+        for (var i = 0; i < length; i++) {
+            final var c = string.charAt(i);
+            if (c >= 0x80 && c < 0x800) {
+                result++;
+            } else if (c >= 0x800 && !Character.isLowSurrogate(c)) {
+                // 3 байта; суррогатная пара (2 char-а) - 4 байта, их добавляем на старшем суррогате.
+                result += 2;
+            }
+        }
+        return result;
+    }
+
+    private static void awaitChunk(@Nullable final CompletableFuture<Void> chunkFuture) {
+        if (chunkFuture == null) {
+            return;
+        }
+        try {
+            chunkFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @NotNull
+    private ExecutorService getWriteExecutor() {
+        var executor = this.writeExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.writeExecutor;
+                if (executor == null) {
+                    executor = RedisExecutors.newUnboundedExecutor("redis-uploader-writer-", getExecution());
+                    this.writeExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @NotNull
+    private ExecutorService getShardExecutor() {
+        var executor = this.shardExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.shardExecutor;
+                if (executor == null) {
+                    executor = RedisExecutors.newBoundedExecutor(
+                            "redis-uploader-shard-",
+                            getSettings().getShardThreads(),
+                            getExecution()
+                    );
+                    this.shardExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Создание учета выгруженных ключей для батчевой выгрузки.
+     *
+     * @param descriptor Описатель канала.
+     */
+    @NotNull
+    protected UploadingKeysTracker createUploadingKeysTracker(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor
+    ) {
+        if (descriptor.getKeysTrackingMode() == UploadingKeysTrackingMode.Redis) {
+            return new RedisSetUploadingKeysTracker(
+                    this.stringRedisTemplate,
+                    RedisSetUploadingKeysTracker.createSetName(descriptor.getChannelName())
+            );
+        }
+        return new HeapUploadingKeysTracker();
+    }
+
+    /**
+     * Атомарная подмена коллекции теневой копией, накопленной за время публикации снапшота.<br/>
+     * Читатели переключаются на новое содержимое одной операцией, старое содержимое освобождается сервером в фоне.
+     * Шардированная коллекция подменяется пошардово: каждый шард - атомарно (теневая копия шарда в том же слоте),
+     * но между подменами шардов читатель может увидеть часть шардов старыми.
+     *
+     * @param descriptor Описатель канала.
+     * @param context    Контекст публикации снапшота.
+     */
+    protected void internalPublishShadowHash(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final PublishSnapshotContext context
+    ) {
+        final var descriptorName = descriptor.getChannelName();
+        final var template = descriptor.getRedisTemplate();
+        final var shardsCount = descriptor.getShardsCount();
+        final var shadowNames = RedisCollectionShards.getHashNames(descriptorName, shardsCount, getShadowSuffix(context));
+        final var hashNames = RedisCollectionShards.getHashNames(descriptorName, shardsCount);
+        final var trashNames = RedisCollectionShards.getHashNames(descriptorName, shardsCount, "trash:" + context.getId());
+        var replaced = 0;
+        for (var i = 0; i < hashNames.size(); i++) {
+            final var published = template.execute(
+                    PUBLISH_SHADOW_SCRIPT,
+                    List.of(shadowNames.get(i), hashNames.get(i), trashNames.get(i))
+            );
+            if (Long.valueOf(1).equals(published)) {
+                replaced++;
+            }
+        }
+        log.info("Snapshot published atomically for context: {}, collection: {}, replaced hashes: {} of {}", context,
+                descriptorName, replaced, hashNames.size());
+        RedisCollectionShards.writeShardsCount(descriptor.getOwner().getJsonStringRedisTemplate(), descriptorName, shardsCount);
+        this.shardsCountWritten.add(descriptor);
+        if (descriptor.isChangeTracking()) {
+            RedisCollectionChangelog.reset(descriptor.getOwner().getJsonStringRedisTemplate(), descriptorName);
+        }
+        if (descriptor.isSkipUnchanged()) {
+            RedisCollectionDigests.resetAll(descriptor.getOwner().getJsonStringRedisTemplate(), descriptorName, shardsCount);
+        }
+        if (descriptor.isPublishInvalidations()) {
+            RedisCollectionInvalidation.publishAll(descriptor.getOwner().getJsonStringRedisTemplate(), descriptorName);
+        }
+    }
+
+    /**
+     * Оповещение читателей коллекции об измененных (записанных или удаленных) ключах, если для описателя включен
+     * {@link RedisOutcomeCollectionUploadingDescriptor#isPublishInvalidations()}.
+     * Ключи отправляются сообщениями не более чем по {@link RedisOutcomeCollectionUploadingDescriptor#getUploadChunkMaxFields()}.
+     *
+     * @param descriptor Описатель канала.
+     * @param keys       Измененные ключи.
+     */
+    protected void internalPublishInvalidations(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Collection<?> keys
+    ) {
+        if (!descriptor.isPublishInvalidations() || keys.isEmpty()) {
+            return;
+        }
+        final var template = descriptor.getOwner().getJsonStringRedisTemplate();
+        final var chunkSize = descriptor.getUploadChunkMaxFields();
+        final var chunk = new ArrayList<>(Math.min(chunkSize, keys.size()));
+        for (final var key : keys) {
+            chunk.add(key);
+            if (chunk.size() >= chunkSize) {
+                RedisCollectionInvalidation.publishKeys(template, descriptor.getChannelName(), chunk);
+                chunk.clear();
+            }
+        }
+        RedisCollectionInvalidation.publishKeys(template, descriptor.getChannelName(), chunk);
+    }
+
+    /**
+     * Регистрация измененных (записанных или удаленных) ключей в журнале изменений коллекции,
+     * если для описателя включен {@link RedisOutcomeCollectionUploadingDescriptor#isChangeTracking()}.
+     * Журнал обрезается до {@link RedisOutcomeCollectionUploadingDescriptor#getChangelogMaxSize()} записей.
+     *
+     * @param descriptor Описатель канала.
+     * @param keys       Измененные ключи.
+     */
+    protected void internalRecordChanges(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final Collection<?> keys
+    ) {
+        if (!descriptor.isChangeTracking() || keys.isEmpty()) {
+            return;
+        }
+        final var template = descriptor.getOwner().getJsonStringRedisTemplate();
+        final var chunkSize = descriptor.getUploadChunkMaxFields();
+        final var maxSize = descriptor.getChangelogMaxSize();
+        final var chunk = new ArrayList<String>(Math.min(chunkSize, keys.size()));
+        for (final var key : keys) {
+            chunk.add(key.toString());
+            if (chunk.size() >= chunkSize) {
+                RedisCollectionChangelog.recordChanges(template, descriptor.getChannelName(), chunk, maxSize);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            RedisCollectionChangelog.recordChanges(template, descriptor.getChannelName(), chunk, maxSize);
+        }
+    }
+
+    /**
+     * Удаление из коллекции записей, которых нет среди выгруженных.<br/>
+     * Коллекция (каждый ее шард) просматривается курсором HSCAN страницами по
+     * {@link RedisOutcomeCollectionUploadingDescriptor#getReconcilePageSize()} ключей. Для каждой страницы проверка наличия ключей выполняется одним обращением к {@code uploadedKeys},
+     * а отсутствующие ключи удаляются одной командой HDEL.
+     *
+     * @param descriptor   Описатель канала.
+     * @param uploadedKeys Проверка, какие из ключей страницы были выгружены.
+     * @return Количество удаленных записей.
+     */
+    @SneakyThrows(IOException.class)
+    protected int internalDeleteMissed(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final UploadedKeysMembership uploadedKeys
+    ) {
+        final var template = descriptor.getRedisTemplate();
+        final var descriptorName = descriptor.getChannelName();
+        final var pageSize = descriptor.getReconcilePageSize();
+        final var options = ScanOptions.scanOptions()
+                .count(pageSize)
+                .build();
+
+        final var metrics = getMetrics(descriptor);
+        final var started = System.nanoTime();
+        final var page = new ArrayList<Object>(pageSize);
+        var deletedEntries = 0;
+        for (final var hashName : RedisCollectionShards.getHashNames(descriptorName, descriptor.getShardsCount())) {
+            try (final var scan = template.opsForHash().scan(hashName, options)) {
                 //пробегаем по всему справочнику, который есть сейчас
-                log.info("Starting deletion for context: {}", context);
                 while (scan.hasNext()) {
-                    final var next = scan.next();
-                    //если в этой загрузке нет такого элемента, значит удаляем его
-                    final var member = this.stringRedisTemplate.opsForSet().isMember(tempSetName, next.getKey());
-                    if (Boolean.FALSE.equals(member)) {
-                        log.info("Deleting dictionary record: {}", next.getValue());
-                        template.opsForHash().delete(descriptorName, next.getKey());
-                        deletedEntries++;
+                    page.add(scan.next().getKey());
+                    if (page.size() >= pageSize) {
+                        deletedEntries += deleteMissedPage(descriptor, hashName, page, uploadedKeys);
+                        page.clear();
                     }
                 }
             }
-            log.info("Deletion finished for context: {}, tempSet: {}, deletedEntries: {}", context,
-                    tempSetName, deletedEntries);
+            if (!page.isEmpty()) {
+                deletedEntries += deleteMissedPage(descriptor, hashName, page, uploadedKeys);
+                page.clear();
+            }
         }
+        metrics.getReconcile().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        metrics.getReconcileDeleted().increment(deletedEntries);
+        return deletedEntries;
+    }
+
+    private int deleteMissedPage(
+            @NotNull final RedisOutcomeCollectionUploadingDescriptor descriptor,
+            @NotNull final String hashName,
+            @NotNull final List<Object> page,
+            @NotNull final UploadedKeysMembership uploadedKeys
+    ) {
+        final var template = descriptor.getRedisTemplate();
+        final var uploaded = uploadedKeys.contains(page);
+        final var missed = new ArrayList<>(page.size());
+        for (var i = 0; i < page.size(); i++) {
+            //если в этой загрузке нет такого элемента, значит удаляем его
+            if (!uploaded[i]) {
+                missed.add(page.get(i));
+            }
+        }
+        if (!missed.isEmpty()) {
+            log.debug("Deleting {} dictionary records from {}", missed.size(), hashName);
+            template.opsForHash().delete(hashName, missed.toArray());
+            if (descriptor.isSkipUnchanged()) {
+                RedisCollectionDigests.delete(descriptor.getOwner().getJsonStringRedisTemplate(), hashName, missed);
+            }
+            internalRecordChanges(descriptor, missed);
+            internalPublishInvalidations(descriptor, missed);
+        }
+        return missed.size();
     }
 
     @NotNull
     private static String getTempSetName(@NotNull PublishSnapshotContext context, String descriptorName) {
         return descriptorName + "-" + context.getId();
     }
+
+    @NotNull
+    private static String getShadowSuffix(@NotNull PublishSnapshotContext context) {
+        return "shadow:" + context.getId();
+    }
+
+    /**
+     * Проверка, какие из ключей коллекции были выгружены.
+     */
+    @FunctionalInterface
+    protected interface UploadedKeysMembership {
+        /**
+         * @param keys Ключи страницы коллекции.
+         * @return Для каждого ключа: true - ключ был выгружен.
+         */
+        @NotNull
+        boolean[] contains(@NotNull List<Object> keys);
+    }
     // </editor-fold>
     // -------------------------------------------------------------------------------------------------------------
 }
\ No newline at end of file
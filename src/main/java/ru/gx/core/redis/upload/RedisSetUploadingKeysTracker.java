@@ -0,0 +1,130 @@
+package ru.gx.core.redis.upload;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Учет выгруженных ключей во временном множестве Redis-а.
+ * Память приложения не зависит от размера коллекции; проверка ключей выполняется pipeline-ом SISMEMBER-ов.<br/>
+ * Имя множества уникально для каждой выгрузки ({@link #createSetName(String)}), поэтому одновременные выгрузки
+ * одной коллекции (из разных потоков или экземпляров приложения) не удаляют множества друг друга.
+ * На множество ставится EXPIRE, чтобы оно не пережило брошенную выгрузку.
+ */
+public class RedisSetUploadingKeysTracker implements UploadingKeysTracker {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Fields">
+    @NotNull
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Имя временного множества.
+     */
+    @Getter
+    @NotNull
+    private final String setName;
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Initialization">
+
+    /**
+     * @param stringRedisTemplate Шаблон, в котором хранится множество.
+     * @param setName             Имя множества, уникальное для выгрузки (см. {@link #createSetName(String)}).
+     */
+    public RedisSetUploadingKeysTracker(
+            @NotNull final StringRedisTemplate stringRedisTemplate,
+            @NotNull final String setName
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.setName = setName;
+    }
+
+    /**
+     * @param collectionName Имя коллекции.
+     * @return Новое имя множества выгруженных ключей коллекции, уникальное для выгрузки.
+     */
+    @NotNull
+    public static String createSetName(@NotNull final String collectionName) {
+        return collectionName + ":uploading-keys:" + UUID.randomUUID();
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="реализация UploadingKeysTracker">
+    @Override
+    public void addAll(@NotNull final Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        final var members = new String[keys.size()];
+        var i = 0;
+        for (final var key : keys) {
+            members[i++] = key.toString();
+        }
+        this.stringRedisTemplate.opsForSet().add(this.setName, members);
+        this.stringRedisTemplate.expire(
+                this.setName,
+                RedisOutcomeCollectionsUploader.TEMP_SET_EXPIRE_HOURS,
+                TimeUnit.HOURS
+        );
+    }
+
+    @Override
+    @NotNull
+    public boolean[] contains(@NotNull final List<Object> keys) {
+        return isMembers(this.stringRedisTemplate, this.setName, keys);
+    }
+
+    @Override
+    public long size() {
+        final var size = this.stringRedisTemplate.opsForSet().size(this.setName);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public void close() {
+        this.stringRedisTemplate.unlink(this.setName);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Utils">
+
+    /**
+     * Проверка принадлежности ключей множеству одним pipeline-ом SISMEMBER-ов.
+     *
+     * @param stringRedisTemplate Шаблон, в котором хранится множество.
+     * @param setName             Имя множества.
+     * @param keys                Проверяемые ключи.
+     * @return Для каждого ключа: true - ключ есть в множестве.
+     */
+    @NotNull
+    public static boolean[] isMembers(
+            @NotNull final StringRedisTemplate stringRedisTemplate,
+            @NotNull final String setName,
+            @NotNull final List<Object> keys
+    ) {
+        final var serializer = stringRedisTemplate.getStringSerializer();
+        final var rawSetName = serializer.serialize(setName);
+        final var replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (final var key : keys) {
+                connection.setCommands().sIsMember(rawSetName, serializer.serialize(key.toString()));
+            }
+            return null;
+        });
+        final var result = new boolean[keys.size()];
+        for (var i = 0; i < result.length; i++) {
+            result[i] = Boolean.TRUE.equals(replies.get(i));
+        }
+        return result;
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,39 @@
+package ru.gx.core.redis.upload;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Учет ключей, выгруженных в Redis в ходе батчевой выгрузки одной коллекции.<br/>
+ * Реализации потокобезопасны: батчи одной коллекции могут выгружаться из нескольких потоков.
+ */
+public interface UploadingKeysTracker extends AutoCloseable {
+    /**
+     * Регистрация выгруженных ключей.
+     *
+     * @param keys Ключи (в том виде, в каком их вернул {@link ru.gx.core.data.DataObjectKeyExtractor}).
+     */
+    void addAll(@NotNull Collection<?> keys);
+
+    /**
+     * Проверка, какие из ключей коллекции были выгружены.
+     *
+     * @param keys Ключи коллекции, прочитанные из Redis.
+     * @return Для каждого ключа: true - ключ был выгружен.
+     */
+    @NotNull
+    boolean[] contains(@NotNull List<Object> keys);
+
+    /**
+     * @return Количество учтенных ключей.
+     */
+    long size();
+
+    /**
+     * Освобождение ресурсов, занятых учетом.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,32 @@
+package ru.gx.core.redis;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisCollectionDigestsTest {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Ключи дайджестов">
+
+    @Test
+    void unshardedCollectionHasSingleDigestsKey() {
+        assertEquals("{dict}:digests", RedisCollectionDigests.getDigestsKey("dict"));
+        assertEquals(List.of("{dict}:digests"), RedisCollectionDigests.getDigestsKeys("dict", 1));
+    }
+
+    @Test
+    void eachShardHasItsOwnDigestsKeyInShardSlot() {
+        final var shards = RedisCollectionShards.getHashNames("dict", 4);
+        final var digests = RedisCollectionDigests.getDigestsKeys("dict", 4);
+        assertEquals(shards.size(), digests.size());
+        for (var shard = 0; shard < shards.size(); shard++) {
+            assertEquals(RedisCollectionDigests.getDigestsKey(shards.get(shard)), digests.get(shard));
+            assertEquals(SlotHash.getSlot(shards.get(shard)), SlotHash.getSlot(digests.get(shard)));
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
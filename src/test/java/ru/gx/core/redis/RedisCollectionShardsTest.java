@@ -0,0 +1,123 @@
+package ru.gx.core.redis;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.gx.core.channels.ChannelConfigurationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisCollectionShardsTest {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Нешардированная коллекция">
+
+    @Test
+    void unshardedCollectionIsStoredUnderItsName() {
+        assertEquals(List.of("dict"), RedisCollectionShards.getHashNames("dict", 1));
+        assertEquals("dict", RedisCollectionShards.getHashName("dict", "key", 1));
+    }
+
+    @Test
+    void unshardedCopyIsTaggedWithCollectionName() {
+        assertEquals(List.of("{dict}:shadow:1"), RedisCollectionShards.getHashNames("dict", 1, "shadow:1"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dict", "ru.gx.dictionaries:countries", "{tag}dict", "dict:{tag}"})
+    void unshardedCopiesAreInCollectionSlot(final String name) {
+        final var slot = SlotHash.getSlot(name);
+        for (final var suffix : List.of("shadow:1", "trash:1")) {
+            assertEquals(slot, SlotHash.getSlot(RedisCollectionShards.getHashNames(name, 1, suffix).get(0)));
+        }
+    }
+
+    @Test
+    void copyOfTaggedNameKeepsItsTag() {
+        assertEquals("{tag}dict:shadow:1", RedisCollectionShards.getCopyName("{tag}dict", "shadow:1"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dict}", "di{ct", "{}dict"})
+    void copyOfNameWithBracesButWithoutTagIsRejected(final String name) {
+        assertThrows(IllegalArgumentException.class, () -> RedisCollectionShards.getCopyName(name, "shadow:1"));
+    }
+
+    @Test
+    void hashTagDetection() {
+        assertTrue(RedisCollectionShards.hasHashTag("{a}b"));
+        assertTrue(RedisCollectionShards.hasHashTag("a:{b}"));
+        assertFalse(RedisCollectionShards.hasHashTag("ab"));
+        assertFalse(RedisCollectionShards.hasHashTag("{}ab"));
+        assertFalse(RedisCollectionShards.hasHashTag("a}{b"));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Шардированная коллекция">
+
+    @Test
+    void shardNamesAreTaggedWithCollectionAndShard() {
+        assertEquals(
+                List.of("dict:{dict#0}", "dict:{dict#1}", "dict:{dict#2}"),
+                RedisCollectionShards.getHashNames("dict", 3)
+        );
+        assertEquals(
+                List.of("dict:{dict#0}:shadow:1", "dict:{dict#1}:shadow:1"),
+                RedisCollectionShards.getHashNames("dict", 2, "shadow:1")
+        );
+    }
+
+    @Test
+    void shardCopiesAreInShardSlot() {
+        final var shards = RedisCollectionShards.getHashNames("dict", 4);
+        final var shadows = RedisCollectionShards.getHashNames("dict", 4, "shadow:1");
+        for (var shard = 0; shard < shards.size(); shard++) {
+            assertEquals(SlotHash.getSlot(shards.get(shard)), SlotHash.getSlot(shadows.get(shard)));
+        }
+    }
+
+    @Test
+    void sameShardOfDifferentCollectionsIsInDifferentSlots() {
+        assertNotEquals(
+                SlotHash.getSlot(RedisCollectionShards.getShardName("countries", 0)),
+                SlotHash.getSlot(RedisCollectionShards.getShardName("currencies", 0))
+        );
+    }
+
+    @Test
+    void recordIsStoredInItsShard() {
+        final var key = "record-key";
+        final var shard = RedisCollectionShards.getShard(key, 4);
+        assertEquals(RedisCollectionShards.getShardName("dict", shard), RedisCollectionShards.getHashName("dict", key, 4));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Количество шардов">
+
+    @Test
+    void missingShardsCountIsNotChecked() {
+        RedisCollectionShards.checkShardsCount("dict", 4, null);
+    }
+
+    @Test
+    void matchingShardsCountIsAccepted() {
+        RedisCollectionShards.checkShardsCount("dict", 4, "4");
+        RedisCollectionShards.checkShardsCount("dict", 0, "1");
+    }
+
+    @Test
+    void differentShardsCountIsRejected() {
+        assertThrows(ChannelConfigurationException.class, () -> RedisCollectionShards.checkShardsCount("dict", 4, "2"));
+        assertThrows(ChannelConfigurationException.class, () -> RedisCollectionShards.checkShardsCount("dict", 4, "four"));
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
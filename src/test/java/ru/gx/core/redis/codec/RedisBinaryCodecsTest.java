@@ -0,0 +1,187 @@
+package ru.gx.core.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.gx.core.redis.RedisBinaryFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisBinaryCodecsTest {
+    private final RedisBinaryCodecs codecs = new RedisBinaryCodecs(new ObjectMapper());
+
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Заголовок формата">
+
+    @ParameterizedTest
+    @EnumSource(value = RedisBinaryFormat.class, names = {"JsonWithHeader", "Smile", "Cbor", "Avro"})
+    void encodeWritesFormatMarkerAndDecodesBack(final RedisBinaryFormat format) throws Exception {
+        final var value = new Sample("name", 42);
+
+        final var data = this.codecs.encode(format, value);
+
+        assertEquals(format.getMarker(), data[0]);
+        assertEquals(format, RedisBinaryCodecs.getHeaderFormat(data));
+        assertFalse(RedisBinaryCodecs.isCompressed(data));
+        assertEquals(value, this.codecs.decode(data, Sample.class));
+    }
+
+    @Test
+    void jsonIsStoredWithoutHeader() throws Exception {
+        final var value = new Sample("name", 42);
+
+        final var data = this.codecs.encode(RedisBinaryFormat.Json, value);
+
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(value), data);
+        assertNull(RedisBinaryCodecs.getHeaderFormat(data));
+        assertEquals(value, this.codecs.decode(data, Sample.class));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RedisBinaryFormat.class, names = {"Json", "Smile"})
+    void decodesFromDirectByteBuffer(final RedisBinaryFormat format) throws Exception {
+        final var value = new Sample("name", 42);
+        final var data = this.codecs.encode(format, value);
+        final var buffer = ByteBuffer.allocateDirect(data.length + 2);
+        buffer.put((byte) 0).put(data).put((byte) 0);
+        buffer.position(1).limit(1 + data.length);
+
+        assertEquals(value, this.codecs.decode(buffer, Sample.class));
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    void customFormatWithoutCodecIsRejected() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> this.codecs.encode(RedisBinaryFormat.Custom, new Sample("name", 42))
+        );
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="JSON без заголовка">
+
+    @Test
+    void decodesLegacyHeaderlessJson() throws Exception {
+        final var data = "{\"name\":\"legacy\",\"value\":7}".getBytes(StandardCharsets.UTF_8);
+
+        assertNull(RedisBinaryCodecs.getHeaderFormat(data));
+        assertEquals(new Sample("legacy", 7), this.codecs.decode(data, Sample.class));
+    }
+
+    @Test
+    void decodesLegacyJsonStartingWithWhitespace() throws Exception {
+        final var data = "\n\t {\"name\":\"legacy\",\"value\":7}".getBytes(StandardCharsets.UTF_8);
+
+        assertNull(RedisBinaryCodecs.getHeaderFormat(data));
+        assertEquals(new Sample("legacy", 7), this.codecs.decode(data, Sample.class));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Сжатие">
+
+    @ParameterizedTest
+    @EnumSource(value = RedisBinaryFormat.class, names = {"Json", "Smile"})
+    void valueBelowThresholdIsNotCompressed(final RedisBinaryFormat format) throws Exception {
+        final var value = new Sample("a".repeat(100), 1);
+        final var plain = this.codecs.encode(format, value);
+
+        final var data = this.codecs.encode(format, value, plain.length + 1);
+
+        assertFalse(RedisBinaryCodecs.isCompressed(data));
+        assertArrayEquals(plain, data);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RedisBinaryFormat.class, names = {"Json", "JsonWithHeader", "Smile", "Cbor"})
+    void valueAtThresholdIsCompressed(final RedisBinaryFormat format) throws Exception {
+        final var value = new Sample("a".repeat(10_000), 1);
+        final var plain = this.codecs.encode(format, value);
+
+        final var data = this.codecs.encode(format, value, plain.length);
+
+        assertTrue(RedisBinaryCodecs.isCompressed(data));
+        assertEquals(format.getMarker() | RedisBinaryFormat.COMPRESSED_FLAG, data[0] & 0xFF);
+        assertTrue(data.length < plain.length);
+        assertEquals(value, this.codecs.decode(data, Sample.class));
+    }
+
+    @Test
+    void zeroThresholdDisablesCompression() throws Exception {
+        final var value = new Sample("a".repeat(10_000), 1);
+
+        final var data = this.codecs.encode(RedisBinaryFormat.Smile, value, 0);
+
+        assertFalse(RedisBinaryCodecs.isCompressed(data));
+    }
+
+    @Test
+    void truncatedCompressedValueIsRejected() throws Exception {
+        final var data = this.codecs.encode(RedisBinaryFormat.Json, new Sample("a".repeat(10_000), 1), 1);
+
+        assertThrows(
+                IOException.class,
+                () -> this.codecs.decode(data, 0, data.length / 2, Sample.class)
+        );
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Test data">
+
+    @SuppressWarnings("unused")
+    public static class Sample {
+        private String name;
+
+        private int value;
+
+        public Sample() {
+        }
+
+        public Sample(final String name, final int value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public int getValue() {
+            return this.value;
+        }
+
+        public void setValue(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof final Sample other && this.value == other.value && Objects.equals(this.name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.name, this.value);
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,135 @@
+package ru.gx.core.redis.load;
+
+import org.junit.jupiter.api.Test;
+import ru.gx.core.redis.IncomeCollectionSortMode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncomeCollectionRecordsSorterTest {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Лексикографический порядок">
+
+    @Test
+    void noneKeepsSourceOrder() {
+        final var records = records("b", "a", "c");
+
+        assertArrayEquals(
+                new Object[]{"value-b", "value-a", "value-c"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.None)
+        );
+    }
+
+    @Test
+    void stringKeysAreSortedLexicographically() {
+        final var records = records("b", "10", "a", "9");
+
+        assertArrayEquals(
+                new Object[]{"value-10", "value-9", "value-a", "value-b"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyAsc)
+        );
+        assertArrayEquals(
+                new Object[]{"value-b", "value-a", "value-9", "value-10"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyDesc)
+        );
+    }
+
+    @Test
+    void byteArrayKeysAreComparedAsUnsigned() {
+        final var records = new LinkedHashMap<Object, Object>();
+        records.put(new byte[]{(byte) 0x80}, "0x80");
+        records.put(new byte[]{0x7F}, "0x7F");
+        records.put(new byte[]{0x01, (byte) 0xFF}, "0x01FF");
+        records.put(new byte[]{0x01}, "0x01");
+
+        assertArrayEquals(
+                new Object[]{"0x01", "0x01FF", "0x7F", "0x80"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyAsc)
+        );
+        assertArrayEquals(
+                new Object[]{"0x80", "0x7F", "0x01FF", "0x01"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyDesc)
+        );
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Натуральный порядок">
+
+    @Test
+    void integerKeysAreSortedAsLong() {
+        // Как long: -10 < -2 < 3; натуральное сравнение строк дало бы "-2" < "-10".
+        final var records = records("3", "-2", "-10");
+
+        assertArrayEquals(
+                new Object[]{"value--10", "value--2", "value-3"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyNaturalAsc)
+        );
+        assertArrayEquals(
+                new Object[]{"value-3", "value--2", "value--10"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyNaturalDesc)
+        );
+    }
+
+    @Test
+    void numericKeysOfDifferentTypesAreSortedAsLong() {
+        final var records = new LinkedHashMap<Object, Object>();
+        records.put(20L, "20");
+        records.put(3, "3");
+        records.put("100".getBytes(StandardCharsets.UTF_8), "100");
+
+        assertArrayEquals(
+                new Object[]{"3", "20", "100"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyNaturalAsc)
+        );
+    }
+
+    @Test
+    void nonIntegerKeyFallsBackToNaturalOrder() {
+        final var records = records("-10", "item10", "-2", "item9");
+
+        assertArrayEquals(
+                new Object[]{"value--2", "value--10", "value-item9", "value-item10"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyNaturalAsc)
+        );
+    }
+
+    @Test
+    void keyOutOfLongRangeFallsBackToNaturalOrder() {
+        final var records = records("92233720368547758070", "5");
+
+        assertArrayEquals(
+                new Object[]{"value-5", "value-92233720368547758070"},
+                IncomeCollectionRecordsSorter.sortValues(records, IncomeCollectionSortMode.KeyNaturalAsc)
+        );
+    }
+
+    @Test
+    void naturalComparison() {
+        assertTrue(IncomeCollectionRecordsSorter.compareNatural("a2", "a10") < 0);
+        assertTrue(IncomeCollectionRecordsSorter.compareNatural("a10b", "a10c") < 0);
+        assertTrue(IncomeCollectionRecordsSorter.compareNatural("a1", "a01") < 0);
+        assertTrue(IncomeCollectionRecordsSorter.compareNatural("a01", "a2") < 0);
+        assertTrue(IncomeCollectionRecordsSorter.compareNatural("a", "a1") < 0);
+        assertEquals(0, IncomeCollectionRecordsSorter.compareNatural("a007", "a007"));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Вспомогательные методы">
+
+    private static Map<Object, Object> records(final String... keys) {
+        final var result = new LinkedHashMap<Object, Object>();
+        for (final var key : keys) {
+            result.put(key, "value-" + key);
+        }
+        return result;
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,176 @@
+package ru.gx.core.redis.load;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import ru.gx.core.messaging.Message;
+import ru.gx.core.messaging.MessageBody;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class OrderedDeserializationPipelineTest {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Порядок передачи в обработку">
+
+    @Test
+    void messagesAreDeliveredInPushOrderWhenDeserializedInReverseOrder() {
+        final var messages = createMessages(5);
+        final var executor = new ManualExecutor();
+        final var delivered = new ArrayList<Message<MessageBody>>();
+        final var pipeline = new OrderedDeserializationPipeline(executor, 10, record -> messages.get((Integer) record), delivered::add);
+
+        for (var i = 0; i < messages.size(); i++) {
+            pipeline.push(i);
+        }
+        executor.runInReverseOrder();
+
+        assertEquals(List.of(), delivered);
+        assertEquals(messages.size(), pipeline.finish());
+        assertEquals(messages, delivered);
+    }
+
+    @Test
+    void messagesAreDeliveredInPushOrderWithParallelDeserialization() throws InterruptedException {
+        final var messages = createMessages(200);
+        final var executor = Executors.newFixedThreadPool(4);
+        final var delivered = new ArrayList<Message<MessageBody>>();
+        try {
+            final var pipeline = new OrderedDeserializationPipeline(executor, 16, record -> {
+                final var index = (Integer) record;
+                // Более ранние записи десериализуются дольше, поэтому завершаются позже следующих.
+                sleep((16 - index % 16) / 4);
+                return messages.get(index);
+            }, delivered::add);
+
+            for (var i = 0; i < messages.size(); i++) {
+                pipeline.push(i);
+            }
+
+            assertEquals(messages.size(), pipeline.finish());
+            assertEquals(messages, delivered);
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void recordsInFlightAreLimitedByDepth() {
+        final var depth = 3;
+        final var messages = createMessages(10);
+        final var submitted = new AtomicInteger();
+        final var delivered = new ArrayList<Message<MessageBody>>();
+        final Executor executor = task -> {
+            assertTrue(submitted.incrementAndGet() - delivered.size() <= depth);
+            task.run();
+        };
+        final var pipeline = new OrderedDeserializationPipeline(executor, depth, record -> messages.get((Integer) record), delivered::add);
+
+        for (var i = 0; i < messages.size(); i++) {
+            pipeline.push(i);
+            assertEquals(Math.max(0, i + 1 - depth), delivered.size());
+        }
+
+        assertEquals(messages.size(), pipeline.finish());
+        assertEquals(messages, delivered);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Ошибки и отмена">
+
+    @Test
+    void deserializationErrorIsRethrownAfterPrecedingMessages() {
+        final var messages = createMessages(5);
+        final var error = new IllegalStateException("broken record");
+        final var delivered = new ArrayList<Message<MessageBody>>();
+        final var pipeline = new OrderedDeserializationPipeline(Runnable::run, 10, record -> {
+            if ((Integer) record == 2) {
+                throw error;
+            }
+            return messages.get((Integer) record);
+        }, delivered::add);
+
+        for (var i = 0; i < messages.size(); i++) {
+            pipeline.push(i);
+        }
+
+        assertSame(error, assertThrows(IllegalStateException.class, pipeline::finish));
+        assertEquals(messages.subList(0, 2), delivered);
+        pipeline.close();
+    }
+
+    @Test
+    void closeCancelsRecordsInFlight() {
+        final var executor = new ManualExecutor();
+        final var deserialized = new AtomicInteger();
+        final var delivered = new ArrayList<Message<MessageBody>>();
+        final var pipeline = new OrderedDeserializationPipeline(executor, 10, record -> {
+            deserialized.incrementAndGet();
+            return createMessages(1).get(0);
+        }, delivered::add);
+        pipeline.push(0);
+        pipeline.push(1);
+
+        pipeline.close();
+        executor.runInReverseOrder();
+
+        assertEquals(0, deserialized.get());
+        assertEquals(0, pipeline.finish());
+        assertEquals(List.of(), delivered);
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Вспомогательные методы и классы">
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static List<Message<MessageBody>> createMessages(final int count) {
+        final var result = new ArrayList<Message<MessageBody>>(count);
+        for (var i = 0; i < count; i++) {
+            result.add(mock(Message.class));
+        }
+        return result;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Исполнитель, который только накапливает задачи; запускаются они явно, в обратном порядке.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(@NotNull final Runnable task) {
+            this.tasks.add(task);
+        }
+
+        void runInReverseOrder() {
+            final var reversed = new ArrayList<>(this.tasks);
+            Collections.reverse(reversed);
+            this.tasks.clear();
+            reversed.forEach(Runnable::run);
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,175 @@
+package ru.gx.core.redis.reload;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import ru.gx.core.redis.RedisDictionary;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DictionaryReloadPlanTest {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Порядок перезагрузки">
+
+    @Test
+    void dictionaryIsReloadedAfterItsDependencies() {
+        final var rates = new Rates(List.of(Currencies.class, Countries.class));
+        final var currencies = new Currencies(List.of(Countries.class));
+        final var countries = new Countries(List.of());
+
+        final var plan = new DictionaryReloadPlan(List.of(rates, currencies, countries), true);
+
+        assertEquals(List.of(countries, currencies, rates), plan.getOrderedDictionaries());
+        assertEquals(List.of(currencies, countries), plan.getDependencies(rates));
+        assertEquals(List.of(countries), plan.getDependencies(currencies));
+        assertEquals(List.of(), plan.getDependencies(countries));
+    }
+
+    @Test
+    void dependenciesAreIgnoredIfNotRespected() {
+        final var rates = new Rates(List.of(Currencies.class));
+        final var currencies = new Currencies(List.of());
+
+        final var plan = new DictionaryReloadPlan(List.of(rates, currencies), false);
+
+        assertEquals(List.of(rates, currencies), plan.getOrderedDictionaries());
+        assertEquals(List.of(), plan.getDependencies(rates));
+    }
+
+    @Test
+    void dependencyOutsideOfReloadedIsIgnored() {
+        final var rates = new Rates(List.of(Currencies.class, Countries.class));
+        final var countries = new Countries(List.of());
+
+        final var plan = new DictionaryReloadPlan(List.of(rates, countries), true);
+
+        assertEquals(List.of(countries, rates), plan.getOrderedDictionaries());
+        assertEquals(List.of(countries), plan.getDependencies(rates));
+    }
+
+    @Test
+    void dependencyOnInterfaceMatchesAllImplementations() {
+        final var currencies = new Currencies(List.of(ReferenceDictionary.class));
+        final var countries = new Countries(List.of());
+        final var rates = new Rates(List.of());
+
+        final var plan = new DictionaryReloadPlan(List.of(currencies, countries, rates), true);
+
+        assertEquals(List.of(countries, rates), plan.getDependencies(currencies));
+        assertEquals(currencies, plan.getOrderedDictionaries().get(2));
+    }
+
+    @Test
+    void unknownDictionaryHasNoDependencies() {
+        final var plan = new DictionaryReloadPlan(List.of(new Countries(List.of())), true);
+
+        assertEquals(List.of(), plan.getDependencies(new Rates(List.of(Countries.class))));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Циклические зависимости">
+
+    @Test
+    void cycleOfTwoIsBroken() {
+        final var countries = new Countries(List.of(Currencies.class));
+        final var currencies = new Currencies(List.of(Countries.class));
+
+        final var plan = new DictionaryReloadPlan(List.of(countries, currencies), true);
+
+        assertEquals(List.of(currencies, countries), plan.getOrderedDictionaries());
+        assertEquals(List.of(), plan.getDependencies(currencies));
+        assertEquals(List.of(currencies), plan.getDependencies(countries));
+    }
+
+    @Test
+    void cycleOfThreeIsBrokenByOneDependency() {
+        final var countries = new Countries(List.of(Rates.class));
+        final var currencies = new Currencies(List.of(Countries.class));
+        final var rates = new Rates(List.of(Currencies.class));
+        final List<RedisDictionary> dictionaries = List.of(countries, currencies, rates);
+
+        final var plan = new DictionaryReloadPlan(dictionaries, true);
+
+        assertEquals(3, plan.getOrderedDictionaries().size());
+        assertTrue(plan.getOrderedDictionaries().containsAll(dictionaries));
+        assertEquals(2, dictionaries.stream().mapToInt(d -> plan.getDependencies(d).size()).sum());
+        assertDependenciesGoFirst(plan, dictionaries);
+    }
+
+    @Test
+    void selfDependencyIsIgnored() {
+        final var countries = new Countries(List.of(Countries.class));
+
+        final var plan = new DictionaryReloadPlan(List.of(countries), true);
+
+        assertEquals(List.of(countries), plan.getOrderedDictionaries());
+        assertEquals(List.of(), plan.getDependencies(countries));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Вспомогательные методы и классы">
+
+    private static void assertDependenciesGoFirst(
+            @NotNull final DictionaryReloadPlan plan,
+            @NotNull final List<RedisDictionary> dictionaries
+    ) {
+        final var order = plan.getOrderedDictionaries();
+        for (final var dictionary : dictionaries) {
+            for (final var dependency : plan.getDependencies(dictionary)) {
+                assertTrue(order.indexOf(dependency) < order.indexOf(dictionary));
+            }
+        }
+    }
+
+    private interface ReferenceDictionary extends RedisDictionary {
+    }
+
+    private abstract static class TestDictionary implements RedisDictionary {
+        @NotNull
+        private final Collection<Class<? extends RedisDictionary>> dependencies;
+
+        TestDictionary(@NotNull final Collection<Class<? extends RedisDictionary>> dependencies) {
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void reload() {
+        }
+
+        @Override
+        @NotNull
+        public Collection<Class<? extends RedisDictionary>> getDependencies() {
+            return this.dependencies;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName();
+        }
+    }
+
+    private static final class Countries extends TestDictionary implements ReferenceDictionary {
+        Countries(@NotNull final Collection<Class<? extends RedisDictionary>> dependencies) {
+            super(dependencies);
+        }
+    }
+
+    private static final class Currencies extends TestDictionary implements ReferenceDictionary {
+        Currencies(@NotNull final Collection<Class<? extends RedisDictionary>> dependencies) {
+            super(dependencies);
+        }
+    }
+
+    private static final class Rates extends TestDictionary implements ReferenceDictionary {
+        Rates(@NotNull final Collection<Class<? extends RedisDictionary>> dependencies) {
+            super(dependencies);
+        }
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}
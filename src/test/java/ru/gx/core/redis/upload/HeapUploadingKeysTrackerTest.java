@@ -0,0 +1,100 @@
+package ru.gx.core.redis.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HeapUploadingKeysTrackerTest {
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Разбор ключей">
+
+    @Test
+    void canonicalIntegerKeysAreLong() {
+        assertEquals(0L, HeapUploadingKeysTracker.toLongKey("0"));
+        assertEquals(42L, HeapUploadingKeysTracker.toLongKey("42"));
+        assertEquals(-42L, HeapUploadingKeysTracker.toLongKey("-42"));
+        assertEquals(Long.MAX_VALUE, HeapUploadingKeysTracker.toLongKey(Long.toString(Long.MAX_VALUE)));
+        assertEquals(Long.MIN_VALUE, HeapUploadingKeysTracker.toLongKey(Long.toString(Long.MIN_VALUE)));
+        assertEquals(7L, HeapUploadingKeysTracker.toLongKey(7));
+        assertEquals(7L, HeapUploadingKeysTracker.toLongKey(7L));
+    }
+
+    /**
+     * Ключи, запись которых отличается от {@link Long#toString(long)}, в Redis-е хранятся как есть,
+     * поэтому их нельзя учитывать как long.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"-0", "007", "00", "+5", "", "-", "5a", " 5", "9223372036854775808", "-9223372036854775809"})
+    void nonCanonicalKeysAreNotLong(final String key) {
+        assertNull(HeapUploadingKeysTracker.toLongKey(key));
+    }
+
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+    // <editor-fold desc="Учет ключей">
+
+    @Test
+    void integerKeysOfDifferentTypesAreSame() {
+        final var tracker = new HeapUploadingKeysTracker();
+
+        tracker.addAll(List.of(1L, "2", 3));
+
+        assertEquals(3, tracker.size());
+        assertArrayEquals(
+                new boolean[]{true, true, true, true, false},
+                tracker.contains(List.of("1", 2L, 3, "3", "4"))
+        );
+    }
+
+    @Test
+    void nonCanonicalKeyIsNotFoundAmongLongKeys() {
+        final var tracker = new HeapUploadingKeysTracker();
+
+        tracker.addAll(List.of("0", "7", "5"));
+
+        assertArrayEquals(new boolean[]{false, false, false}, tracker.contains(List.of("-0", "007", "+5")));
+    }
+
+    @Test
+    void switchToStringKeysMidUploadKeepsTrackedKeys() {
+        final var tracker = new HeapUploadingKeysTracker();
+        tracker.addAll(List.of("1", 2L, "-3"));
+
+        tracker.addAll(List.of("4", "007", "5"));
+        tracker.addAll(List.of(6L, "+5"));
+
+        assertEquals(8, tracker.size());
+        assertArrayEquals(
+                new boolean[]{true, true, true, true, true, true, true, true, false, false},
+                tracker.contains(List.of(1L, "2", "-3", "4", "007", 5, "6", "+5", "7", "-0"))
+        );
+    }
+
+    @Test
+    void sameNumberInDifferentNotationsIsTrackedSeparately() {
+        final var tracker = new HeapUploadingKeysTracker();
+
+        tracker.addAll(List.of("0", "-0", "5", "+5", "7", "007"));
+
+        assertEquals(6, tracker.size());
+    }
+
+    @Test
+    void closeReleasesKeys() {
+        final var tracker = new HeapUploadingKeysTracker();
+        tracker.addAll(List.of(1L, 2L));
+
+        tracker.close();
+
+        assertEquals(0, tracker.size());
+        assertArrayEquals(new boolean[]{false}, tracker.contains(List.of(1L)));
+    }
+    // </editor-fold>
+    // -------------------------------------------------------------------------------------------------------------
+}